@@ -0,0 +1,63 @@
+package com.swiftyticket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.services.implementations.RoaringRegistrationIndex;
+
+// The "already pre-registered?" check ZoneServiceImpl.joinRaffle does before writing anything: the event's bitmap
+// in RoaringRegistrationIndex. The statement that writes the registration is measured by JoinRaffleStatementBenchmark.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoinRaffleDuplicateCheckBenchmark {
+
+    private static final Integer EVENT_ID = 1;
+
+    @Param({"10000", "100000", "1000000"})
+    private int registrants;
+
+    private RoaringRegistrationIndex index;
+    private Integer lastRegistered;
+    private Integer newcomer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // the repository is only used to rebuild the index from the DB, which the benchmark never does.
+        index = new RoaringRegistrationIndex(null, new RegistrationConfig());
+        for (int i = 0; i < registrants; i++) {
+            index.markRegistered(EVENT_ID, i + 1);
+        }
+        lastRegistered = registrants;
+        newcomer = registrants + 1;
+    }
+
+    // The common case: a user joining for the first time. Released again so every invocation sees the same bitmap.
+    @Benchmark
+    public boolean newUserJoins() {
+        boolean reserved = index.reserve(EVENT_ID, newcomer);
+        index.release(EVENT_ID, newcomer);
+        return reserved;
+    }
+
+    @Benchmark
+    public boolean registeredUserRejoins() {
+        return index.reserve(EVENT_ID, lastRegistered);
+    }
+}
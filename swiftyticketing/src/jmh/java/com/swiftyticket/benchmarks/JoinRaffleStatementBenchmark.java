@@ -0,0 +1,49 @@
+package com.swiftyticket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.swiftyticket.dto.zone.RegistrationOutcome;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+
+// The single statement ZoneServiceImpl.joinRaffle writes a pre-registration with (RegistrationBatchRepository.registerOnce),
+// where the unique (event, user) constraint makes the final duplicate check. Needs Postgres, see RegistrationDatabase.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JoinRaffleStatementBenchmark {
+
+    private RegistrationBatchRepository registrationBatchRepository;
+    private String registeredEmail;
+
+    @Setup(Level.Trial)
+    public void setUp(RegistrationDatabase db) {
+        registrationBatchRepository = db.context.getBean(RegistrationBatchRepository.class);
+        // a registrant who has not won, their retried join finds their registration and inserts nothing.
+        registeredEmail = "bench1@example.com";
+    }
+
+    @Benchmark
+    public RegistrationOutcome newUserJoins(RegistrationDatabase db) {
+        return db.rolledBack(() -> registrationBatchRepository.registerOnce(db.eventId, db.zoneId, db.newcomerEmail).orElseThrow());
+    }
+
+    @Benchmark
+    public RegistrationOutcome registeredUserRejoins(RegistrationDatabase db) {
+        return registrationBatchRepository.registerOnce(db.eventId, db.zoneId, registeredEmail).orElseThrow();
+    }
+}
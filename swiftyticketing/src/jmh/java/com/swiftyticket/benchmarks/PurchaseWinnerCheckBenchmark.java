@@ -0,0 +1,52 @@
+package com.swiftyticket.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.swiftyticket.repositories.RegistrationRepository;
+
+// The "did this user win the zone?" check TicketServiceImpl.purchaseTicket does, which also uses the win up:
+// RegistrationRepository.markPurchased. Needs Postgres, see RegistrationDatabase.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PurchaseWinnerCheckBenchmark {
+
+    private RegistrationRepository registrationRepository;
+    private Integer winner;
+    private Integer nonWinner;
+
+    @Setup(Level.Trial)
+    public void setUp(RegistrationDatabase db) {
+        registrationRepository = db.context.getBean(RegistrationRepository.class);
+        // every tenth registrant won, the last one to be inserted is looked up.
+        int lastWinner = (db.userIds.size() - 1) / 10 * 10;
+        winner = db.userIds.get(lastWinner);
+        nonWinner = db.userIds.get(lastWinner == 0 ? 1 : lastWinner - 1);
+    }
+
+    // Rolled back, so the win is still there for the next invocation.
+    @Benchmark
+    public int winnerBuys(RegistrationDatabase db) {
+        return db.rolledBack(() -> registrationRepository.markPurchased(db.zoneId, winner));
+    }
+
+    @Benchmark
+    public int nonWinnerTriesToBuy(RegistrationDatabase db) {
+        return registrationRepository.markPurchased(db.zoneId, nonWinner);
+    }
+}
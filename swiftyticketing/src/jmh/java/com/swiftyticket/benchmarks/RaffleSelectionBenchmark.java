@@ -0,0 +1,105 @@
+package com.swiftyticket.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.swiftyticket.models.User;
+import com.swiftyticket.services.RaffleSampler;
+import com.swiftyticket.services.implementations.ReservoirRaffleEngine;
+
+// Winner selection of ZoneServiceImpl.raffle, without the DB: pick the winners out of the zone's registrants
+// and split the registrants into winners and the ones that stay pre-registered.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RaffleSelectionBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int registrants;
+
+    @Param({"1000"})
+    private int seats;
+
+    private final ReservoirRaffleEngine raffleEngine = new ReservoirRaffleEngine();
+    private List<User> pool;
+    private int[] poolIds;
+    private double[] weights;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ArrayList<>(registrants);
+        poolIds = new int[registrants];
+        weights = new double[registrants];
+        for (int i = 0; i < registrants; i++) {
+            User user = new User();
+            user.setUserId(i + 1);
+            // every tenth registrant is a fan club member with double odds
+            user.setRaffleWeight(i % 10 == 0 ? 2.0 : 1.0);
+            pool.add(user);
+            poolIds[i] = i + 1;
+            weights[i] = user.getRaffleWeight();
+        }
+    }
+
+    // The full in-memory raffle step: ids out of the users, draw, then split the pool in one pass.
+    @Benchmark
+    public void inMemoryRaffle(Blackhole bh) {
+        int[] ids = new int[pool.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = pool.get(i).getUserId();
+        }
+        int[] winnerIds = raffleEngine.draw(ids, seats);
+        Arrays.sort(winnerIds);
+
+        List<User> winners = new ArrayList<>(winnerIds.length);
+        List<User> remaining = new ArrayList<>(ids.length - winnerIds.length);
+        for (User u : pool) {
+            if (Arrays.binarySearch(winnerIds, u.getUserId()) >= 0) {
+                winners.add(u);
+            } else {
+                remaining.add(u);
+            }
+        }
+        bh.consume(winners);
+        bh.consume(remaining);
+    }
+
+    @Benchmark
+    public int[] uniformDraw() {
+        return raffleEngine.draw(poolIds, seats);
+    }
+
+    @Benchmark
+    public int[] weightedDraw() {
+        return raffleEngine.draw(poolIds, weights, seats);
+    }
+
+    // What the streaming raffle does with every page of registrants it reads from the DB.
+    @Benchmark
+    public int[] streamingSampler() {
+        RaffleSampler sampler = raffleEngine.sampler(seats);
+        for (int i = 0; i < poolIds.length; i++) {
+            sampler.offer(poolIds[i], weights[i]);
+        }
+        return sampler.winners();
+    }
+}
@@ -0,0 +1,100 @@
+package com.swiftyticket.benchmarks;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.swiftyticket.SwiftyticketingApplication;
+import com.swiftyticket.models.Event;
+import com.swiftyticket.models.Role;
+import com.swiftyticket.models.User;
+import com.swiftyticket.models.Zones;
+import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.UserRepository;
+import com.swiftyticket.repositories.ZoneRepository;
+
+// The application, started against Postgres, with one open event whose zone has `registrants` pre-registered users.
+// Every tenth registrant has won the raffle. The schema is created and dropped like on a normal run, so point
+// spring.datasource.url at a scratch database, e.g. mvn -Pjmh test-compile exec:exec
+//     -Djmh.args="JoinRaffleStatement -jvmArgsAppend -Dspring.datasource.url=jdbc:postgresql://localhost:5433/bench"
+@State(Scope.Benchmark)
+public class RegistrationDatabase {
+
+    @Param({"10000", "100000"})
+    private int registrants;
+
+    ConfigurableApplicationContext context;
+    Integer eventId;
+    Integer zoneId;
+    List<Integer> userIds;
+    String newcomerEmail;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // throwaway signing keys, unless the environment has its own
+        context = new SpringApplicationBuilder(SwiftyticketingApplication.class)
+                .properties("server.port=0", "WAITING_ROOM_SIGNING_KEY=" + randomKey(), "GATE_SIGNING_KEY=" + randomKey()).run();
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        Event event = new Event("Benchmark", List.of("Artist"), List.of(new Date()), "Venue", registrants);
+        event.setOpen4Registration(true);
+        event = context.getBean(EventRepository.class).save(event);
+        eventId = event.getEventId();
+        zoneId = context.getBean(ZoneRepository.class).save(new Zones(registrants, "Zone", new Date(), 100.0, event)).getZoneId();
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> users = new ArrayList<>(registrants + 1);
+        for (int i = 0; i <= registrants; i++) {
+            users.add(new User("bench" + i + "@example.com", "-", new Date(), null, Role.USER, true));
+        }
+        userIds = new ArrayList<>(registrants);
+        for (User user : userRepository.saveAll(users)) {
+            userIds.add(user.getUserId());
+        }
+        // the last user stays out of the raffle, so they can join it.
+        userIds.remove(userIds.size() - 1);
+        newcomerEmail = "bench" + registrants + "@example.com";
+
+        List<Object[]> rows = new ArrayList<>(registrants);
+        for (int i = 0; i < userIds.size(); i++) {
+            rows.add(new Object[]{eventId, zoneId, userIds.get(i), i % 10 == 0 ? "WON" : "REGISTERED"});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO registrations (event_id, zone_id, user_id, status, registered_at) VALUES (?, ?, ?, ?, now())", rows);
+    }
+
+    // Runs a statement that changes registrations and rolls it back, so every invocation sees the same data.
+    <T> T rolledBack(Supplier<T> statement) {
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return statement.get();
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private static String randomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+}
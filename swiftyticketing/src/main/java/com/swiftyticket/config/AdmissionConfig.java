@@ -0,0 +1,40 @@
+package com.swiftyticket.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "admission")
+@Data
+public class AdmissionConfig {
+    // Limit how fast pre-registrations for an event are let through to the DB
+    private boolean enabled = true;
+    // Pre-registrations let through per second, per event
+    private double permitsPerSecond = 200;
+    // How many pre-registrations can be let through at once after a quiet spell
+    private int burst = 400;
+    // Longest a pre-registration is held back waiting for its turn before it is turned away instead
+    private long maxWaitMillis = 1000;
+    // How many pre-registrations can be held back at the same time, per event
+    private int maxQueued = 20;
+    // How many pre-registrations can be held back at the same time over all events. Every one of them parks a request
+    // thread, so keep this well below the servlet container's worker threads (200 for Tomcat by default)
+    private int maxQueuedTotal = 50;
+    // Most events tracked at once, events past it share one limiter until idle ones are dropped (event ids come from the path)
+    private int maxEvents = 10000;
+    // An event's limiter, and its stats, are dropped after this long without pre-registrations
+    private long idleEvictMillis = 300000;
+    // Events that get their own rate and burst (e.g. headline events), by event id
+    private Map<Integer, Limit> events = new HashMap<>();
+
+    @Data
+    public static class Limit {
+        private double permitsPerSecond;
+        private int burst;
+    }
+}
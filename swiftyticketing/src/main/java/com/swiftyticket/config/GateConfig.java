@@ -0,0 +1,32 @@
+package com.swiftyticket.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "gate")
+@Data
+@Validated
+public class GateConfig {
+    // Key the ticket codes are signed with (base64, at least 32 bytes), the same on every node, only ever given through GATE_SIGNING_KEY
+    @NotBlank
+    @Pattern(regexp = "[A-Za-z0-9+/]{43,}={0,2}", message = "must be a base64 key of at least 32 bytes, set GATE_SIGNING_KEY")
+    private String signingKey;
+    // Bytes of the HMAC kept in a ticket code
+    private int signatureBytes = 12;
+    // Only admit tickets on the date of their zone
+    private boolean checkDate = true;
+    // Check-ins that can wait to be written to the DB before they are written on the request instead
+    private int queueCapacity = 100000;
+    // Check-ins written to the DB per batch
+    private int flushBatchSize = 5000;
+    // How often queued check-ins are written to the DB
+    private long flushIntervalMillis = 200;
+    // How often tickets revoked by declined payments (on any node) are read back from the DB
+    private long revokedRefreshIntervalMillis = 5000;
+}
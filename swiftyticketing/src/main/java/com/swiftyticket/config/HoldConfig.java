@@ -0,0 +1,26 @@
+package com.swiftyticket.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "holds")
+@Data
+public class HoldConfig {
+    // How long a winner's seat is held for them to pay before it goes back on sale
+    private Duration ttl = Duration.ofMinutes(10);
+    // How often expired holds are released (and how late a hold can expire)
+    private long tickMillis = 100;
+    // Buckets per level of the expiry timing wheel (a power of two)
+    private int wheelSize = 64;
+    // Levels of the expiry timing wheel, each wheelSize times coarser than the one below
+    private int wheelLevels = 4;
+    // How often holds left in the DB past their deadline (their node went down) are looked for and released
+    private long sweepIntervalMillis = 60000;
+    // How long past its deadline a hold is left to the node that made it before the sweep releases it
+    private Duration sweepGrace = Duration.ofSeconds(30);
+}
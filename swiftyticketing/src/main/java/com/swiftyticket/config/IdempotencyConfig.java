@@ -0,0 +1,20 @@
+package com.swiftyticket.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "idempotency")
+@Data
+public class IdempotencyConfig {
+    // Recent responses kept in memory to replay retries from (older ones are read back from the DB)
+    private int cacheSize = 10000;
+    // How long a response is replayed for retries of the same key
+    private Duration ttl = Duration.ofHours(24);
+    // How often responses past their ttl are deleted from the DB
+    private long purgeIntervalMillis = 3600000;
+}
@@ -0,0 +1,39 @@
+package com.swiftyticket.config;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "payments")
+@Data
+public class PaymentConfig {
+    // Payment gateway the outbox is drained to ("stub" approves everything, for local runs and tests)
+    private String gateway = "stub";
+    // Workers that send payments to the gateway
+    private int workers = 4;
+    // How often the outbox is polled for payments to send
+    private long pollIntervalMillis = 500;
+    // Payments a node can have claimed from the outbox and not sent yet
+    private int batchSize = 100;
+    // How long a claimed payment is left to its worker before another one (on any node) can take it over
+    private Duration lease = Duration.ofMinutes(1);
+    // Attempts before a payment the gateway keeps failing on is given up and declined
+    private int maxAttempts = 5;
+    // Wait before retrying a failed attempt, doubled after every attempt
+    private Duration retryBackoff = Duration.ofSeconds(10);
+    // How long the stub gateway takes to answer
+    private long stubLatencyMillis = 50;
+
+    // Workers that drain the payment outbox, so purchases never wait on the gateway:
+    @Bean(name = "paymentExecutor", destroyMethod = "shutdown")
+    public ExecutorService paymentExecutor() {
+        return Executors.newFixedThreadPool(workers);
+    }
+}
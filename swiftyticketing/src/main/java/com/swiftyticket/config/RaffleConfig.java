@@ -0,0 +1,58 @@
+package com.swiftyticket.config;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+import lombok.Data;
+
+@Configuration
+@EnableAsync
+@ConfigurationProperties(prefix = "raffle")
+@Data
+public class RaffleConfig {
+    // How many zones of an event are raffled at the same time (each one holds a DB connection while it runs)
+    private int parallelism = 4;
+    // Zones with at least this many registrants are raffled inside the DB instead of through the raffle engine
+    private long sqlThreshold = 50000;
+    // Zones with at least this many registrants are streamed through the raffle engine in pages instead of loaded whole
+    private long streamThreshold = 5000;
+    // How many registrant ids are read per page when streaming a zone
+    private int streamChunkSize = 1000;
+    // How many raffle jobs (whole events) can run at the same time
+    private int jobWorkers = 2;
+    // How long a node holds a raffle job it runs before another node may resume it, renewed while the job runs
+    private Duration jobLease = Duration.ofMinutes(2);
+    // How often leases are renewed and raffle jobs abandoned by a node that went down are looked for
+    private long jobResumeIntervalMillis = 30000;
+    // Threads that send out the congratulation SMS to winners
+    private int notificationThreads = 4;
+    // How long a winner has to buy their ticket before the seat can be raffled again
+    private Duration purchaseWindow = Duration.ofHours(48);
+    // Re-raffles keep the winners still inside their purchase window and only redraw the other seats
+    private boolean incrementalReraffle = true;
+
+    // Bounded pool the zone raffles of an event are spread over:
+    @Bean(name = "raffleExecutor", destroyMethod = "shutdown")
+    public ExecutorService raffleExecutor() {
+        return new ForkJoinPool(parallelism);
+    }
+
+    // Workers that pick up queued raffle jobs:
+    @Bean(name = "raffleJobExecutor", destroyMethod = "shutdown")
+    public ExecutorService raffleJobExecutor() {
+        return Executors.newFixedThreadPool(jobWorkers);
+    }
+
+    // Winner notifications are queued here so raffles never wait on Twilio:
+    @Bean(name = "notificationExecutor", destroyMethod = "shutdown")
+    public ExecutorService notificationExecutor() {
+        return Executors.newFixedThreadPool(notificationThreads);
+    }
+}
@@ -0,0 +1,32 @@
+package com.swiftyticket.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "registration")
+@Data
+public class RegistrationConfig {
+    // Take pre-registrations into a journaled in-memory queue and write them to the DB in batches (for on-sale surges)
+    private boolean writeBehind = false;
+    // Pre-registrations that can wait for the next flush before new ones get turned away
+    private int queueCapacity = 100000;
+    // Pre-registrations written to the DB per batch
+    private int flushBatchSize = 2000;
+    // How often the queue is flushed to the DB
+    private long flushIntervalMillis = 200;
+    // Append-only file every queued pre-registration is written to first, so a crash does not lose any
+    private String journalPath = "data/registration-journal.log";
+    // Force every journal write to disk before the request is acknowledged
+    private boolean journalSync = true;
+    // Locks that joins for the same event queue up on in the registration index (events share them by id)
+    private int indexLockStripes = 64;
+    // How often the zones' and events' registration counts are checked against the registrations and corrected
+    private long reconcileIntervalMillis = 300000;
+    // How many rows of a bulk import are looked up and written together
+    private int importBatchSize = 5000;
+    // How many rejected rows a bulk import reports one by one (the rest are only counted)
+    private int importMaxReportedRejections = 10000;
+}
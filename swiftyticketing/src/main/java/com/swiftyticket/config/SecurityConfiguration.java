@@ -49,6 +49,11 @@ public class SecurityConfiguration {
                     request.requestMatchers("/events/*/close").hasAuthority("ADMIN");
                     request.requestMatchers("/events/create").hasAuthority("ADMIN");
                     request.requestMatchers("/events/{id}/createZone").hasAuthority("ADMIN");
+                    request.requestMatchers("/events/{id}/raffle/jobs/*").hasAuthority("ADMIN");
+                    request.requestMatchers("/events/{id}/admission").hasAuthority("ADMIN");
+                    request.requestMatchers("/events/{id}/registrations/import").hasAuthority("ADMIN");
+                    request.requestMatchers("/gate/**").hasAuthority("ADMIN");
+                    request.requestMatchers("/tickets/export").hasAuthority("ADMIN");
                     request.requestMatchers("/events/{id}/raffle").hasAuthority("ADMIN")
                     .anyRequest().authenticated();
                 })
@@ -109,7 +114,11 @@ public class SecurityConfiguration {
                                 "Access-Control-Allow-Headers, " +
                                 "Origin, Accept, X-Requested-With, " +
                                 "Content-Type, Access-Control-Request-Method, " +
-                                "Access-Control-Request-Headers"
+                                "Access-Control-Request-Headers",
+                        // how long to wait before retrying a 429 (queue token not released yet, too many registrations)
+                        "Retry-After",
+                        // set on a purchase answered from the response recorded for its Idempotency-Key
+                        "Idempotent-Replayed"
                 )
         );
 
@@ -120,7 +129,11 @@ public class SecurityConfiguration {
                 List.of(
                         "Authorization",
                         "Cache-Control",
-                        "Content-Type"
+                        "Content-Type",
+                        // the released waiting room token, sent with purchases and holds
+                        "X-Queue-Token",
+                        // lets purchase retries be answered with the first response
+                        "Idempotency-Key"
                 )
         );
         final UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
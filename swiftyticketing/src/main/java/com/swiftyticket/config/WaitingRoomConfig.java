@@ -0,0 +1,34 @@
+package com.swiftyticket.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Configuration
+@ConfigurationProperties(prefix = "waiting-room")
+@Data
+@Validated
+public class WaitingRoomConfig {
+    // Key the queue tokens are signed with (base64, at least 32 bytes), only ever given through WAITING_ROOM_SIGNING_KEY
+    @NotBlank
+    @Pattern(regexp = "[A-Za-z0-9+/]{43,}={0,2}", message = "must be a base64 key of at least 32 bytes, set WAITING_ROOM_SIGNING_KEY")
+    private String signingKey;
+    // Make buyers queue for a released token before they can buy a ticket
+    private boolean enabled = true;
+    // Queue tokens released per second, per zone
+    private double releasePerSecond = 50;
+    // How often queue tokens are released
+    private long releaseIntervalMillis = 100;
+    // How long a queue token can be used after it is issued
+    private Duration tokenMaxAge = Duration.ofHours(2);
+    // Zones that release tokens at their own rate, by zone id
+    private Map<Integer, Double> zones = new HashMap<>();
+}
@@ -15,22 +15,31 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.swiftyticket.dto.event.EventSummary;
+import com.swiftyticket.dto.raffle.RaffleJobResponse;
+import com.swiftyticket.dto.zone.RegistrationCounts;
 import com.swiftyticket.exceptions.EventNotFoundException;
 import com.swiftyticket.models.Event;
 import com.swiftyticket.services.EventService;
+import com.swiftyticket.services.RaffleJobService;
+import com.swiftyticket.services.RegistrationCountService;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:3000")
 public class EventController {
     private final EventService eventService;
+    private final RaffleJobService raffleJobService;
+    private final RegistrationCountService registrationCountService;
 
-    public EventController(EventService eventService) {
+    public EventController(EventService eventService, RaffleJobService raffleJobService, RegistrationCountService registrationCountService) {
         this.eventService = eventService;
+        this.raffleJobService = raffleJobService;
+        this.registrationCountService = registrationCountService;
     }
 
     @GetMapping("/events")
-    public ResponseEntity<List<Event>> getEvents() {
-        return new ResponseEntity<List<Event>> (eventService.listEvents(), HttpStatus.OK);
+    public ResponseEntity<List<EventSummary>> getEvents() {
+        return new ResponseEntity<List<EventSummary>> (eventService.listEventSummaries(), HttpStatus.OK);
     }
 
     @GetMapping("/events/{id}")
@@ -41,6 +50,11 @@ public class EventController {
         return new ResponseEntity<Event> (event, HttpStatus.OK);
     }
 
+    @GetMapping("/events/{id}/counts")
+    public ResponseEntity<RegistrationCounts> getRegistrationCounts(@PathVariable Integer id) {
+        return new ResponseEntity<RegistrationCounts>(registrationCountService.getCounts(id), HttpStatus.OK);
+    }
+
     @PostMapping("/events/create")
     public ResponseEntity<Event> addEvent(@RequestBody @Valid Event event){
         return new ResponseEntity<Event>(eventService.addEvent(event), HttpStatus.CREATED);
@@ -75,9 +89,14 @@ public class EventController {
         return new ResponseEntity<String>("Event #" + id + "'s registration window has been opened.", HttpStatus.OK);
     }
 
+    // The raffle runs in the background, poll the returned job for its progress:
     @PutMapping("/events/{id}/raffle")
-    public ResponseEntity<String> eventRaffle(@PathVariable Integer id) throws EventNotFoundException {
-        eventService.raffle(id);
-        return new ResponseEntity<String>("Event #" + id + "'s raffle has been done", HttpStatus.OK);
+    public ResponseEntity<RaffleJobResponse> eventRaffle(@PathVariable Integer id) throws EventNotFoundException {
+        return new ResponseEntity<RaffleJobResponse>(raffleJobService.submitRaffle(id), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/events/{id}/raffle/jobs/{jobId}")
+    public ResponseEntity<RaffleJobResponse> getRaffleJob(@PathVariable Integer id, @PathVariable Integer jobId) {
+        return new ResponseEntity<RaffleJobResponse>(raffleJobService.getJob(id, jobId), HttpStatus.OK);
     }
 }
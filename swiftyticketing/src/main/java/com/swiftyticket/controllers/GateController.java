@@ -0,0 +1,32 @@
+package com.swiftyticket.controllers;
+
+import java.util.List;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.swiftyticket.dto.gate.GateScanRequest;
+import com.swiftyticket.dto.gate.ScanResult;
+import com.swiftyticket.services.GateService;
+
+import jakarta.validation.Valid;
+
+@RestController
+@CrossOrigin(origins = "http://localhost:3000")
+public class GateController {
+
+    private final GateService gateService;
+
+    public GateController(GateService gateService) {
+        this.gateService = gateService;
+    }
+
+    @PostMapping("/gate/verify")
+    public ResponseEntity<List<ScanResult>> verify(@RequestBody @Valid GateScanRequest scanRequest) {
+        return new ResponseEntity<List<ScanResult>>(gateService.verify(scanRequest), HttpStatus.OK);
+    }
+}
@@ -1,8 +1,16 @@
 package com.swiftyticket.controllers;
 
+import java.io.IOException;
 import java.util.List;
 
 import com.swiftyticket.dto.ticket.PurchaseTicketDTO;
+import com.swiftyticket.dto.ticket.PurchasedTicket;
+import com.swiftyticket.dto.ticket.QueuePosition;
+import com.swiftyticket.dto.ticket.QueueToken;
+import com.swiftyticket.dto.ticket.SeatHold;
+import com.swiftyticket.dto.ticket.TicketFilter;
+import com.swiftyticket.dto.ticket.TicketPage;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 
@@ -13,7 +21,10 @@ import org.springframework.web.bind.annotation.*;
 import com.swiftyticket.exceptions.TicketNotFoundException;
 import com.swiftyticket.models.Ticket;
 import com.swiftyticket.repositories.TicketRepository;
+import com.swiftyticket.services.IdempotencyService;
+import com.swiftyticket.services.SeatHoldService;
 import com.swiftyticket.services.TicketService;
+import com.swiftyticket.services.WaitingRoomService;
 
 @RestController
 @CrossOrigin(origins = "http://localhost:3000")
@@ -21,14 +32,36 @@ import com.swiftyticket.services.TicketService;
 public class TicketController {
     
     private final TicketService ticketService;
+    private final SeatHoldService seatHoldService;
+    private final WaitingRoomService waitingRoomService;
+    private final IdempotencyService idempotencyService;
 
-    public TicketController(TicketRepository ticketRepository, TicketService ticketService) {
+    // The released waiting room token, sent with every purchase
+    public static final String QUEUE_TOKEN_HEADER = "X-Queue-Token";
+    // Sent by clients that retry purchases, the retries get the first response back
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    public TicketController(TicketRepository ticketRepository, TicketService ticketService, SeatHoldService seatHoldService,
+                            WaitingRoomService waitingRoomService, IdempotencyService idempotencyService) {
         this.ticketService = ticketService;
+        this.seatHoldService = seatHoldService;
+        this.waitingRoomService = waitingRoomService;
+        this.idempotencyService = idempotencyService;
     }
     
     @GetMapping ("/tickets")
-    public List<Ticket> getTickets() {
-        return ticketService.listTickets();
+    public TicketPage getTickets(@RequestParam(required = false) Integer after, @RequestParam(defaultValue = "100") int limit,
+                                 @RequestParam(required = false) Integer eventId, @RequestParam(required = false) Integer zoneId,
+                                 @RequestParam(required = false) String email) {
+        return ticketService.listTickets(new TicketFilter(eventId, zoneId, email), after, limit);
+    }
+
+    @GetMapping ("/tickets/export")
+    public void exportTickets(@RequestParam(required = false) Integer eventId, @RequestParam(required = false) Integer zoneId,
+                              @RequestParam(required = false) String email, HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        long exported = ticketService.exportTickets(new TicketFilter(eventId, zoneId, email), response.getOutputStream());
+        log.info("exported {} tickets", exported);
     }
     
     @GetMapping ("/tickets/{id}")
@@ -40,9 +73,39 @@ public class TicketController {
     }
     
     @PostMapping("/tickets/purchase/eventId={eventId}/zoneId={zoneId}")
-    public ResponseEntity<Ticket> addTicket(@RequestBody @Valid PurchaseTicketDTO purchaseTicketRequest, @PathVariable Integer eventId, @PathVariable Integer zoneId){
+    public ResponseEntity<?> addTicket(@RequestBody @Valid PurchaseTicketDTO purchaseTicketRequest, @PathVariable Integer eventId, @PathVariable Integer zoneId,
+                                       @RequestHeader(value = QUEUE_TOKEN_HEADER, required = false) String queueToken,
+                                       @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey){
         log.info("Purchase ticket request: {}", purchaseTicketRequest);
-        return new ResponseEntity<Ticket>(ticketService.purchaseTicket(purchaseTicketRequest, eventId, zoneId), HttpStatus.CREATED);
+        waitingRoomService.checkReleased(queueToken, eventId, zoneId, purchaseTicketRequest.getEmail());
+        if(idempotencyKey == null){
+            return new ResponseEntity<PurchasedTicket>(purchased(ticketService.purchaseTicket(purchaseTicketRequest, eventId, zoneId)), HttpStatus.CREATED);
+        }
+        return idempotencyService.execute(purchaseTicketRequest.getEmail(), idempotencyKey, "POST /tickets/purchase/eventId=" + eventId + "/zoneId=" + zoneId,
+                () -> new ResponseEntity<PurchasedTicket>(purchased(ticketService.purchaseTicket(purchaseTicketRequest, eventId, zoneId)), HttpStatus.CREATED));
+    }
+
+    @PostMapping("/tickets/queue/eventId={eventId}/zoneId={zoneId}")
+    public ResponseEntity<QueueToken> joinQueue(@RequestBody @Valid PurchaseTicketDTO queueRequest, @PathVariable Integer eventId, @PathVariable Integer zoneId){
+        return new ResponseEntity<QueueToken>(waitingRoomService.join(eventId, zoneId, queueRequest.getEmail()), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/tickets/queue")
+    public ResponseEntity<QueuePosition> getQueuePosition(@RequestHeader(QUEUE_TOKEN_HEADER) String queueToken){
+        return new ResponseEntity<QueuePosition>(waitingRoomService.getPosition(queueToken), HttpStatus.OK);
+    }
+
+    @PostMapping("/tickets/hold/eventId={eventId}/zoneId={zoneId}")
+    public ResponseEntity<SeatHold> holdSeat(@RequestBody @Valid PurchaseTicketDTO holdRequest, @PathVariable Integer eventId, @PathVariable Integer zoneId,
+                                             @RequestHeader(value = QUEUE_TOKEN_HEADER, required = false) String queueToken){
+        log.info("Hold seat request: {}", holdRequest);
+        waitingRoomService.checkReleased(queueToken, eventId, zoneId, holdRequest.getEmail());
+        return new ResponseEntity<SeatHold>(seatHoldService.holdSeat(holdRequest, eventId, zoneId), HttpStatus.CREATED);
+    }
+
+    @PostMapping("/tickets/hold/{holdId}/complete")
+    public ResponseEntity<PurchasedTicket> completeHold(@RequestBody @Valid PurchaseTicketDTO purchaseTicketRequest, @PathVariable Long holdId){
+        return new ResponseEntity<PurchasedTicket>(purchased(seatHoldService.completeHold(holdId, purchaseTicketRequest)), HttpStatus.CREATED);
     }
 
     @GetMapping("/tickets/user/{email}")
@@ -50,4 +113,15 @@ public class TicketController {
         return new ResponseEntity<List<Ticket>>(ticketService.getAllUserTickets(email), HttpStatus.OK);
     }
 
+    // the gate code is left out of every other ticket response
+    private PurchasedTicket purchased(Ticket ticket){
+        return PurchasedTicket.builder()
+                .ticketId(ticket.getTicketId())
+                .zonename(ticket.getZonename())
+                .userEmail(ticket.getUserEmail())
+                .tiedPhoneNumber(ticket.getTiedPhoneNumber())
+                .code(ticket.getCode())
+                .build();
+    }
+
 }
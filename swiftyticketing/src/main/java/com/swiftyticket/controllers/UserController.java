@@ -37,6 +37,13 @@ public class UserController {
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
 
+    // Loyalty / priority odds for raffles, e.g. ?weight=2 for fan club members:
+    @PutMapping("/raffleWeight/{email}")
+    public ResponseEntity<User> setRaffleWeight(@Nonnull @PathVariable String email, @RequestParam double weight)
+            throws UserNotFoundException {
+        return new ResponseEntity<>(userService.setRaffleWeight(email, weight), HttpStatus.OK);
+    }
+
     @DeleteMapping("/delete/{email}")
     public ResponseEntity<String> deleteUser(@Nonnull @PathVariable String email) throws UserNotFoundException {
         userService.deleteUser(email);
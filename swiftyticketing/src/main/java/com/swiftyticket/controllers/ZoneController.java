@@ -1,9 +1,13 @@
 package com.swiftyticket.controllers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,13 +15,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.swiftyticket.dto.zone.AdmissionStats;
+import com.swiftyticket.dto.zone.ImportReport;
 import com.swiftyticket.dto.zone.PreRegisterRequest;
 import com.swiftyticket.dto.zone.ZoneRequest;
+import com.swiftyticket.dto.zone.ZoneSummary;
 import com.swiftyticket.models.Event;
 import com.swiftyticket.models.Zones;
+import com.swiftyticket.services.AdmissionService;
 import com.swiftyticket.services.EventService;
+import com.swiftyticket.services.RegistrationImportService;
 import com.swiftyticket.services.ZoneService;
 
 @RestController
@@ -25,12 +35,17 @@ import com.swiftyticket.services.ZoneService;
 public class ZoneController {
     private final ZoneService zoneService;
     private final EventService eventService;
+    private final AdmissionService admissionService;
+    private final RegistrationImportService registrationImportService;
     
     // Since zone is a child of event, we need to inject eventService into zoneService
     
-    public ZoneController(ZoneService zoneService, EventService eventService) {
+    public ZoneController(ZoneService zoneService, EventService eventService, AdmissionService admissionService,
+                          RegistrationImportService registrationImportService) {
         this.zoneService = zoneService;
         this.eventService = eventService;
+        this.admissionService = admissionService;
+        this.registrationImportService = registrationImportService;
     }
 
     @PostMapping("/events/{id}/createZone")
@@ -40,16 +55,30 @@ public class ZoneController {
     }
 
     @GetMapping("/events/{id}/zones")
-    public ResponseEntity<List<Zones>> getZones(@PathVariable Integer id) {
-        Event event = eventService.getEvent(id);
-        return new ResponseEntity<List<Zones>> (zoneService.listZones(event), HttpStatus.OK);
+    public ResponseEntity<List<ZoneSummary>> getZones(@PathVariable Integer id) {
+        return new ResponseEntity<List<ZoneSummary>> (zoneService.listZoneSummaries(id), HttpStatus.OK);
     }
 
     @PutMapping("/events/{id}/zone={zoneID}/preRegister")
     public ResponseEntity<String> preRegister(@RequestBody @Valid PreRegisterRequest registerRequest, @PathVariable Integer id, @PathVariable Integer zoneID){
+        // held back (or turned away with a 429) while the event is over its admission limit
+        admissionService.admit(id);
         return new ResponseEntity<String> (zoneService.joinRaffle(registerRequest, id, zoneID), HttpStatus.OK);
     }
 
+    // Bulk pre-registration from a CSV (email,zoneId) or NDJSON upload, read as it streams in:
+    @PostMapping(value = "/events/{id}/registrations/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importRegistrations(@PathVariable Integer id, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                            InputStream upload) throws IOException {
+        boolean ndjson = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON);
+        return new ResponseEntity<ImportReport>(registrationImportService.importRegistrations(id, upload, ndjson), HttpStatus.OK);
+    }
+
+    @GetMapping("/events/{id}/admission")
+    public ResponseEntity<AdmissionStats> getAdmissionStats(@PathVariable Integer id) {
+        return new ResponseEntity<AdmissionStats>(admissionService.getStats(id), HttpStatus.OK);
+    }
+
     @GetMapping("/{email}/joinedZones")
         public ResponseEntity<List<Zones>> getJoinedZones(@PathVariable String email){
             return new ResponseEntity<>(zoneService.userJoinedZones(email), HttpStatus.OK);
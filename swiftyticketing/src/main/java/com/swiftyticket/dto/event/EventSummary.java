@@ -0,0 +1,27 @@
+package com.swiftyticket.dto.event;
+
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// An event as listed in the catalog, without its zones:
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSummary {
+    private Integer eventId;
+    private String eventName;
+    private List<String> artists;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private List<Date> dates;
+    private String venue;
+    private Integer venueCapacity;
+    private boolean open4Registration;
+}
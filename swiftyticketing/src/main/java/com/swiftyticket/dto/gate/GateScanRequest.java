@@ -0,0 +1,25 @@
+package com.swiftyticket.dto.gate;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The ticket codes scanned at an event's gate since the scanner last reported.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GateScanRequest {
+    @NotNull
+    private Integer eventId;
+    // a scanner reports at most this many codes at once
+    @NotEmpty
+    @Size(max = 1000)
+    private List<String> codes;
+}
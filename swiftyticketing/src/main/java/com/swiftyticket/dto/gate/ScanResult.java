@@ -0,0 +1,18 @@
+package com.swiftyticket.dto.gate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The verdict for one scanned ticket code, in the order they were sent.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScanResult {
+    private String code;
+    private ScanStatus status;
+    private Integer ticketId;
+    private Integer zoneId;
+}
@@ -0,0 +1,16 @@
+package com.swiftyticket.dto.gate;
+
+public enum ScanStatus {
+    // let in
+    ADMITTED,
+    // the ticket was already used to get in
+    ALREADY_ADMITTED,
+    // not a ticket code, or its signature does not match
+    INVALID,
+    // a ticket of another event
+    WRONG_EVENT,
+    // a ticket for another day of the event
+    WRONG_DATE,
+    // the ticket was revoked (its payment was declined)
+    REVOKED
+}
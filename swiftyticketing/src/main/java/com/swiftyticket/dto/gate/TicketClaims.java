@@ -0,0 +1,20 @@
+package com.swiftyticket.dto.gate;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What a verified ticket code says about its ticket.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketClaims {
+    private Integer ticketId;
+    private Integer zoneId;
+    private Integer eventId;
+    private LocalDate date;
+}
@@ -0,0 +1,25 @@
+package com.swiftyticket.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The payment gateway's answer to a charge. Gateways throw instead when they could not answer (worth retrying).
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GatewayResult {
+    private boolean approved;
+    private String reference;
+    private String declineReason;
+
+    public static GatewayResult approved(String reference) {
+        return new GatewayResult(true, reference, null);
+    }
+
+    public static GatewayResult declined(String reason) {
+        return new GatewayResult(false, null, reason);
+    }
+}
@@ -0,0 +1,20 @@
+package com.swiftyticket.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A payment claimed from the outbox, with what the gateway needs to charge it.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEntry {
+    private Integer outboxId;
+    private Integer paymentId;
+    // including the one this entry was claimed for
+    private int attempts;
+    private Double amount;
+    private String userEmail;
+}
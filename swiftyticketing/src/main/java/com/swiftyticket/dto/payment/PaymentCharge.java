@@ -0,0 +1,17 @@
+package com.swiftyticket.dto.payment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What is sent to the payment gateway. The payment id doubles as the gateway's idempotency key.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCharge {
+    private Integer paymentId;
+    private Double amount;
+    private String userEmail;
+}
@@ -0,0 +1,24 @@
+package com.swiftyticket.dto.raffle;
+
+import com.swiftyticket.models.RaffleJobStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RaffleJobResponse {
+    private Integer jobId;
+    private Integer eventId;
+    private RaffleJobStatus status;
+    private int zonesTotal;
+    private int zonesDone;
+    private int zonesFailed;
+    private int winnersDrawn;
+    private int notificationsQueued;
+    private long elapsedMillis;
+}
@@ -0,0 +1,14 @@
+package com.swiftyticket.dto.raffle;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A user waiting in a zone's raffle, with only what the draw needs to know about them.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Registrant {
+    private Integer userId;
+    private double raffleWeight;
+}
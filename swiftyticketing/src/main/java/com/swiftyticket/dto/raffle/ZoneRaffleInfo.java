@@ -0,0 +1,20 @@
+package com.swiftyticket.dto.raffle;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The few columns of a zone (and its event) a raffle needs, read without loading the zone's registrants.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZoneRaffleInfo {
+    private Integer zoneId;
+    private String zoneName;
+    private int ticketsLeft;
+    private Integer eventId;
+    private String eventName;
+    private int raffleRound;
+}
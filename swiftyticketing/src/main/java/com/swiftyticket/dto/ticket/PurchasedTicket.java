@@ -0,0 +1,19 @@
+package com.swiftyticket.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A ticket as returned to its buyer when it is purchased, the only response with its gate code.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchasedTicket {
+    private Integer ticketId;
+    private String zonename;
+    private String userEmail;
+    private String tiedPhoneNumber;
+    private String code;
+}
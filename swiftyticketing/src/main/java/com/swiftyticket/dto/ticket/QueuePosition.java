@@ -0,0 +1,17 @@
+package com.swiftyticket.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Where a queue token is in its zone's waiting room, position 0 once it is released.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueuePosition {
+    private long position;
+    private boolean released;
+    private long estimatedWaitSeconds;
+}
@@ -0,0 +1,17 @@
+package com.swiftyticket.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A place in a zone's waiting room, the token is sent back with the purchase once it is released.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueToken {
+    private String token;
+    private long position;
+    private long estimatedWaitSeconds;
+}
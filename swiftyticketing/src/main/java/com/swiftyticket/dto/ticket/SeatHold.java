@@ -0,0 +1,21 @@
+package com.swiftyticket.dto.ticket;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A seat held for a winner until they pay for it (or the hold expires).
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHold {
+    private Long holdId;
+    private Integer eventId;
+    private Integer zoneId;
+    private String zoneName;
+    private Date expiresAt;
+}
@@ -0,0 +1,17 @@
+package com.swiftyticket.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The user buying a ticket, read without loading their tickets.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketBuyer {
+    private Integer userId;
+    private String email;
+    private String phoneNumber;
+}
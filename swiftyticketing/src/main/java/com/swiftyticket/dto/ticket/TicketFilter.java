@@ -0,0 +1,17 @@
+package com.swiftyticket.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Which tickets to list or export, every filter is optional.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketFilter {
+    private Integer eventId;
+    private Integer zoneId;
+    private String email;
+}
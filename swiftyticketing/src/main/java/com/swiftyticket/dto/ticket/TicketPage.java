@@ -0,0 +1,18 @@
+package com.swiftyticket.dto.ticket;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A page of tickets in ticket id order; pass nextCursor as `after` for the next page (null on the last page).
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketPage {
+    private List<TicketRow> tickets;
+    private Integer nextCursor;
+}
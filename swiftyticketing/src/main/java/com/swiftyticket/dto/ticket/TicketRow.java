@@ -0,0 +1,20 @@
+package com.swiftyticket.dto.ticket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A ticket as listed and exported, read straight from its columns (nothing lazy to load). The gate code is left out.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TicketRow {
+    private Integer ticketId;
+    private Integer eventId;
+    private Integer zoneId;
+    private String zoneName;
+    private String userEmail;
+    private String tiedPhoneNumber;
+}
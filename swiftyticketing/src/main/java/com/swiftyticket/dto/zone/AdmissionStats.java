@@ -0,0 +1,25 @@
+package com.swiftyticket.dto.zone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// How an event's pre-registrations fared against its admission limit since the application started.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStats {
+    private Integer eventId;
+    private double permitsPerSecond;
+    private int burst;
+    // let through, right away or after waiting
+    private long admitted;
+    // let through after waiting for their turn
+    private long delayed;
+    // turned away with a 429
+    private long rejected;
+    // waiting for their turn right now
+    private int waiting;
+}
@@ -0,0 +1,19 @@
+package com.swiftyticket.dto.zone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A row of a bulk import that was not registered, and why.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRejection {
+    // 1-based line number in the upload
+    private long row;
+    private String email;
+    private Integer zoneId;
+    private String reason;
+}
@@ -0,0 +1,22 @@
+package com.swiftyticket.dto.zone;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+    private Integer eventId;
+    private long rowsRead;
+    private long registered;
+    private long rejected;
+    private List<ImportRejection> rejections;
+    // true if there were more rejections than are listed
+    private boolean rejectionsTruncated;
+}
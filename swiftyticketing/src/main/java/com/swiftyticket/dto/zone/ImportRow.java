@@ -0,0 +1,16 @@
+package com.swiftyticket.dto.zone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A row of a bulk import, as sent in an NDJSON upload.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRow {
+    private String email;
+    private Integer zoneId;
+}
@@ -0,0 +1,17 @@
+package com.swiftyticket.dto.zone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A pre-registration that was acknowledged but not written to the DB yet.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingRegistration {
+    private Integer eventId;
+    private Integer zoneId;
+    private Integer userId;
+}
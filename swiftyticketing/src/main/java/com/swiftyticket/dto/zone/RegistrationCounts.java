@@ -0,0 +1,18 @@
+package com.swiftyticket.dto.zone;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationCounts {
+    private Integer eventId;
+    private int registered;
+    private List<ZoneCount> zones;
+}
@@ -0,0 +1,26 @@
+package com.swiftyticket.dto.zone;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// What a single-statement pre-registration found and did, see RegistrationBatchRepository.registerOnce.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationOutcome {
+    private String zoneName;
+    private Date zoneDate;
+    private String eventName;
+    private boolean open;
+    // null if there is no user with the email
+    private Integer userId;
+    // whether this request wrote the registration
+    private boolean inserted;
+    // the zone of the user's earlier registration for the event, null if there was none
+    private Integer registeredZoneId;
+}
@@ -0,0 +1,20 @@
+package com.swiftyticket.dto.zone;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The zone (and event) a pre-registration is for, read without loading either entity.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationTarget {
+    private String zoneName;
+    private Date zoneDate;
+    private String eventName;
+    private boolean open;
+}
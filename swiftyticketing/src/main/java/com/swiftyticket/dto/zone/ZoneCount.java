@@ -0,0 +1,16 @@
+package com.swiftyticket.dto.zone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZoneCount {
+    private Integer zoneId;
+    private String zoneName;
+    private int registered;
+}
@@ -0,0 +1,25 @@
+package com.swiftyticket.dto.zone;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A zone as listed in the catalog, without its event and tickets:
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ZoneSummary {
+    private Integer zoneId;
+    private String zoneName;
+    @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+    private Date zoneDate;
+    private Integer zoneCapacity;
+    private Integer ticketsLeft;
+    private double ticket_price;
+}
@@ -8,6 +8,11 @@ import com.swiftyticket.models.Event;
 @ResponseStatus(HttpStatus.FORBIDDEN)
 public class AlreadyPreRegisteredException extends RuntimeException {
     public AlreadyPreRegisteredException(Event event) {
-        super("you have already registered for this event: " + event.getEventName());
+        this(event.getEventName());
     }  
+
+    // Turned away often enough (and always answered the same way) that the stack trace isn't worth filling in.
+    public AlreadyPreRegisteredException(String eventName) {
+        super("you have already registered for this event: " + eventName, null, false, false);
+    }
 }
@@ -1,5 +1,6 @@
 package com.swiftyticket.exceptions;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -79,8 +80,57 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
     }
 
+    @ExceptionHandler(InvalidRaffleWeightException.class)
+    public ResponseEntity<Object> InvalidRaffleWeightException(InvalidRaffleWeightException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler(RaffleJobNotFoundException.class)
+    public ResponseEntity<Object> RaffleJobNotFoundException(RaffleJobNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(DuplicateUserException.class)
     public ResponseEntity<Object> DuplicateUserException(DuplicateUserException e) {
         return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(RegistrationQueueFullException.class)
+    public ResponseEntity<Object> RegistrationQueueFullException(RegistrationQueueFullException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(SoldOutException.class)
+    public ResponseEntity<Object> SoldOutException(SoldOutException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(HoldNotFoundException.class)
+    public ResponseEntity<Object> HoldNotFoundException(HoldNotFoundException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.GONE);
+    }
+
+    @ExceptionHandler(InvalidQueueTokenException.class)
+    public ResponseEntity<Object> InvalidQueueTokenException(InvalidQueueTokenException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(QueueTokenNotReleasedException.class)
+    public ResponseEntity<Object> QueueTokenNotReleasedException(QueueTokenNotReleasedException e) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ResponseEntity<>(e.getMessage(), headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<Object> InvalidIdempotencyKeyException(InvalidIdempotencyKeyException e) {
+        return new ResponseEntity<>(e.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(TooManyRegistrationsException.class)
+    public ResponseEntity<Object> TooManyRegistrationsException(TooManyRegistrationsException e) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        return new ResponseEntity<>(e.getMessage(), headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
 }
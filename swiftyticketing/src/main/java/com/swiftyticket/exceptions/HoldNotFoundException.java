@@ -0,0 +1,11 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class HoldNotFoundException extends RuntimeException {
+    public HoldNotFoundException(Long holdId) {
+        super("Seat hold #" + holdId + " has expired or does not exist.");
+    }
+}
@@ -0,0 +1,11 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class InvalidIdempotencyKeyException extends RuntimeException {
+    public InvalidIdempotencyKeyException(String reason) {
+        super("Invalid Idempotency-Key: " + reason + ".");
+    }
+}
@@ -0,0 +1,12 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.FORBIDDEN)
+public class InvalidQueueTokenException extends RuntimeException {
+    // Thrown for every purchase that skips the waiting room, so no stack trace is filled in.
+    public InvalidQueueTokenException(String reason) {
+        super("Invalid queue token: " + reason + ". Please join the waiting room for this zone.", null, false, false);
+    }
+}
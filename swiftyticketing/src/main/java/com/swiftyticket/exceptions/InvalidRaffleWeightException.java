@@ -0,0 +1,11 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRaffleWeightException extends RuntimeException {
+    public InvalidRaffleWeightException(double raffleWeight) {
+        super("A raffle weight has to be above 0, got " + raffleWeight + ".");
+    }
+}
@@ -0,0 +1,20 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import lombok.Getter;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+@Getter
+public class QueueTokenNotReleasedException extends RuntimeException {
+    private final long position;
+    private final long retryAfterSeconds;
+
+    // Thrown for every purchase that comes before its turn, so no stack trace is filled in.
+    public QueueTokenNotReleasedException(long position, long retryAfterSeconds) {
+        super("It is not your turn yet, you are number " + position + " in the queue.", null, false, false);
+        this.position = position;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
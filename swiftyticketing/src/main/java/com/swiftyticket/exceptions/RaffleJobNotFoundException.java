@@ -0,0 +1,11 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class RaffleJobNotFoundException extends RuntimeException {
+    public RaffleJobNotFoundException(Integer eventId, Integer jobId) {
+        super("Raffle job #" + jobId + " could not be found for event ID " + eventId + ".");
+    }
+}
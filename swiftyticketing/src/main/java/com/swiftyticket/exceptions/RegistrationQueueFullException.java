@@ -0,0 +1,11 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class RegistrationQueueFullException extends RuntimeException {
+    public RegistrationQueueFullException() {
+        super("We are receiving too many pre-registrations right now, please try again in a moment.");
+    }
+}
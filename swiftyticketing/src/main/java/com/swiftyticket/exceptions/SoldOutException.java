@@ -0,0 +1,11 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class SoldOutException extends RuntimeException {
+    public SoldOutException(String zoneName) {
+        super("There are no tickets left for " + zoneName + ".");
+    }
+}
@@ -0,0 +1,18 @@
+package com.swiftyticket.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import lombok.Getter;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+@Getter
+public class TooManyRegistrationsException extends RuntimeException {
+    private final long retryAfterSeconds;
+
+    // Thrown for every request over the limit during a surge, so no stack trace is filled in.
+    public TooManyRegistrationsException(long retryAfterSeconds) {
+        super("This event is receiving too many pre-registrations right now, please try again in " + retryAfterSeconds + "s.", null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,31 @@
+package com.swiftyticket.models;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "check_ins")
+// A ticket that was used to get into its event, a ticket gets in once
+public class CheckIn {
+    @Id
+    @Column(name = "ticket_id")
+    private Integer ticketId;
+
+    @Column(name = "event_id", nullable = false)
+    private Integer eventId;
+
+    @Column(name = "checked_in_at", nullable = false)
+    private Date checkedInAt;
+}
@@ -15,9 +15,6 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.JoinColumn;
-import jakarta.persistence.JoinTable;
-import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -65,7 +62,8 @@ public class Event {
     @Column(name = "open")
     private boolean open4Registration;
     
-    @Column(name = "user_count")
+    // Only ever changed by the repositories' atomic updates, saving an event never writes it back.
+    @Column(name = "user_count", updatable = false)
     private int user_count;
 
     @OneToMany(mappedBy = "event",
@@ -73,16 +71,6 @@ public class Event {
                 cascade = CascadeType.ALL)
     private List<Zones> zoneList;
 
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JsonIgnore
-    @JoinTable(name = "event_users",
-        joinColumns=
-            @JoinColumn(name="event_id"),
-        inverseJoinColumns=
-            @JoinColumn(name="user_id"))
-    @Column(name = "users_preRegistered")
-    private List<User> preRegisteredUsers4Event;
-
     private Integer raffleRound = 0;
 
     @JsonIgnore
@@ -102,7 +90,6 @@ public class Event {
         this.venueCapacity = venueCapacity;
 
         this.zoneList = new ArrayList<>();
-        this.preRegisteredUsers4Event = new ArrayList<>();
         
 
         log.info("Event successfully created!");
@@ -0,0 +1,39 @@
+package com.swiftyticket.models;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_records")
+// The first response to a request sent with an Idempotency-Key, replayed to the retries of that request
+public class IdempotencyRecord {
+    // the user's email and their key, so users can't replay each other's responses
+    @Id
+    @Column(name = "idempotency_key", length = 512)
+    private String idempotencyKey;
+
+    // method and path of the request, a key can't be reused for another request
+    @Column(name = "request", nullable = false)
+    private String request;
+
+    @Column(name = "status", nullable = false)
+    private int status;
+
+    @Column(name = "body", columnDefinition = "text")
+    private String body;
+
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+}
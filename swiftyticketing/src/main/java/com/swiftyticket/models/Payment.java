@@ -4,6 +4,8 @@ import java.util.Date;
 import org.springframework.lang.NonNull;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -30,4 +32,18 @@ public class Payment {
 
     @NonNull
     private Double amountPaid;
+
+    @Enumerated(EnumType.STRING)
+    private PaymentStatus status;
+
+    // the ticket paid for, kept as a plain id so a declined payment's ticket can be revoked
+    @Column(name = "ticket_id")
+    private Integer ticketId;
+
+    @Column(name = "user_email")
+    private String userEmail;
+
+    // the gateway's reference for the charge, once it is captured
+    @Column(name = "gateway_reference")
+    private String gatewayReference;
 }
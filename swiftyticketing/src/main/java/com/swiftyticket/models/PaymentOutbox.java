@@ -0,0 +1,51 @@
+package com.swiftyticket.models;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_outbox", indexes = @Index(name = "payment_outbox_next_attempt", columnList = "next_attempt_at"))
+// A payment waiting to be sent to the payment gateway, written in the same transaction as the payment and its ticket
+public class PaymentOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "outbox_id")
+    private Integer outboxId;
+
+    @Column(name = "payment_id", nullable = false)
+    private Integer paymentId;
+
+    @Column(name = "attempts")
+    private int attempts;
+
+    // not picked up before this; pushed forward while a worker has it and when an attempt fails
+    @Column(name = "next_attempt_at", nullable = false)
+    private Date nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    public PaymentOutbox(Integer paymentId){
+        this.paymentId = paymentId;
+        this.createdAt = new Date();
+        this.nextAttemptAt = this.createdAt;
+    }
+}
@@ -0,0 +1,10 @@
+package com.swiftyticket.models;
+
+public enum PaymentStatus {
+    // recorded with the ticket, waiting in the outbox to be charged
+    PENDING,
+    // charged by the payment gateway
+    CAPTURED,
+    // refused by the gateway (or given up on), the ticket was revoked
+    DECLINED
+}
@@ -0,0 +1,92 @@
+package com.swiftyticket.models;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "raffle_jobs")
+// A raffle of a whole event that runs in the background, persisted so it can be polled and resumed after a restart
+public class RaffleJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "job_id")
+    private Integer jobId;
+
+    @Column(name = "event_id", nullable = false)
+    private Integer eventId;
+
+    @Enumerated(EnumType.STRING)
+    private RaffleJobStatus status;
+
+    @Column(name = "zones_total")
+    private int zonesTotal;
+
+    @Column(name = "zones_done")
+    private int zonesDone;
+
+    @Column(name = "zones_failed")
+    private int zonesFailed;
+
+    @Column(name = "winners_drawn")
+    private int winnersDrawn;
+
+    @Column(name = "notifications_queued")
+    private int notificationsQueued;
+
+    @Column(name = "created_at")
+    private Date createdAt;
+
+    @Column(name = "started_at")
+    private Date startedAt;
+
+    @Column(name = "finished_at")
+    private Date finishedAt;
+
+    // The event id while the job is queued or running, cleared once it ends: being unique, it allows one active job per event
+    @Column(name = "active_event_id", unique = true)
+    private Integer activeEventId;
+
+    // Until when the node that runs the job holds it, other nodes only resume the job once this has passed
+    @Column(name = "lease_until")
+    private Date leaseUntil;
+
+    // Zones that have already been raffled by this job, skipped when the job is resumed.
+    // Recorded in the same transaction as the zone's winners; (job_id, zone_id) is the key, so only once per job.
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "raffle_job_zones",
+        joinColumns = @JoinColumn(name = "job_id"))
+    @Column(name = "zone_id", nullable = false)
+    private Set<Integer> completedZones = new HashSet<>();
+
+    public RaffleJob(Integer eventId, int zonesTotal, Date leaseUntil){
+        this.eventId = eventId;
+        this.activeEventId = eventId;
+        this.leaseUntil = leaseUntil;
+        this.zonesTotal = zonesTotal;
+        this.status = RaffleJobStatus.QUEUED;
+        this.createdAt = new Date();
+        this.completedZones = new HashSet<>();
+    }
+}
@@ -0,0 +1,8 @@
+package com.swiftyticket.models;
+
+public enum RaffleJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
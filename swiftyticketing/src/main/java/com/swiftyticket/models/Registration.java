@@ -0,0 +1,83 @@
+package com.swiftyticket.models;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// A user's pre-registration for one zone of an event, and everything the raffle and the purchase do with it afterwards.
+// A user gets one registration per event. The ids are plain columns so loading a registration never loads anything else.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "registrations",
+    uniqueConstraints = @UniqueConstraint(name = "uk_registrations_event_user", columnNames = {"event_id", "user_id"}),
+    indexes = {
+        // next registrants by rank, and the winners of a zone
+        @Index(name = "idx_registrations_zone_rank", columnList = "zone_id, status, raffle_rank"),
+        // registrants of a zone in user id order (keyset paging), and "did this user win the zone?"
+        @Index(name = "idx_registrations_zone_user", columnList = "zone_id, status, user_id"),
+        // the zones a user joined or won
+        @Index(name = "idx_registrations_user", columnList = "user_id, status")
+    })
+public class Registration {
+    // registrations are also inserted in bulk by SQL, so the id comes from the column itself.
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "registration_id")
+    private Integer registrationId;
+
+    @Column(name = "event_id", nullable = false)
+    private Integer eventId;
+
+    @Column(name = "zone_id", nullable = false)
+    private Integer zoneId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private RegistrationStatus status;
+
+    // The registrant's permanent place in the zone's draw order, handed out once when the event closes (lower goes first).
+    // Every raffle round takes the next registrants by rank, so nothing has to be reshuffled.
+    @Column(name = "raffle_rank")
+    private Double raffleRank;
+
+    @Column(name = "registered_at", nullable = false)
+    private Date registeredAt;
+
+    @Column(name = "won_at")
+    private Date wonAt;
+
+    // Until when a winner can still buy their ticket, re-raffles keep the winners still inside it.
+    @Column(name = "purchase_deadline")
+    private Date purchaseDeadline;
+
+    // Until when a HELD seat is kept for the winner, past it any node may put the seat back on sale.
+    @Column(name = "hold_expires_at")
+    private Date holdExpiresAt;
+
+    public Registration(Integer eventId, Integer zoneId, Integer userId){
+        this.eventId = eventId;
+        this.zoneId = zoneId;
+        this.userId = userId;
+        this.status = RegistrationStatus.REGISTERED;
+        this.registeredAt = new Date();
+    }
+}
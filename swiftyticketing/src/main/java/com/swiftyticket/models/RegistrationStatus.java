@@ -0,0 +1,14 @@
+package com.swiftyticket.models;
+
+public enum RegistrationStatus {
+    // pre-registered, waiting to be drawn
+    REGISTERED,
+    // drawn in a raffle, can buy a ticket until the purchase deadline
+    WON,
+    // won and holding a seat while they pay for it, back to WON if the hold expires
+    HELD,
+    // bought their ticket
+    PURCHASED,
+    // won, but lost the seat to a re-raffle before buying
+    FORFEITED
+}
@@ -8,6 +8,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -21,7 +22,12 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "tickets")
+@Table(name = "tickets",
+    indexes = {
+        // tickets of a zone, and of a user, in ticket id order (keyset paging)
+        @Index(name = "idx_tickets_zone", columnList = "zonet_id, ticket_id"),
+        @Index(name = "idx_tickets_user_email", columnList = "user_email, ticket_id")
+    })
 public class Ticket {
     
     @Id
@@ -43,9 +49,15 @@ public class Ticket {
     @JoinColumn(name = "usert_id", nullable = false)
     private User forUser;
 
+    @Column(name = "user_email")
     private String userEmail;
     private String tiedPhoneNumber;
 
+    // signed code shown at the gate, checked there without the DB; only sent to the buyer with the purchase
+    @JsonIgnore
+    @Column(name = "code", length = 64)
+    private String code;
+
     @JsonIgnore
     public Ticket(Zones zone, User user){
         this.forZone = zone;
@@ -22,7 +22,6 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.ManyToMany;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
@@ -61,18 +60,9 @@ public class User implements UserDetails {
     private Role role;
     //lock users until they verify with OTP (set it to false)
     private boolean verified = false;
-
-
-    @ManyToMany(mappedBy = "preRegisteredUsers4Zone", fetch = FetchType.EAGER)
-    private List<Zones> preRegisteredZones = new ArrayList<>();
-
-
-    @ManyToMany(mappedBy = "preRegisteredUsers4Event", fetch = FetchType.EAGER)
-    private List<Event> preRegisteredEvents = new ArrayList<>();
-
-
-    @ManyToMany(mappedBy = "winnerList", fetch = FetchType.EAGER)
-    private List<Zones> zonesWon = new ArrayList<>();
+    // Odds multiplier in raffles, e.g. 2.0 for fan club members. Everyone starts at 1.0 (even odds).
+    @Column(name = "raffle_weight", nullable = false)
+    private double raffleWeight = 1.0;
 
 
     @OneToMany(mappedBy = "forUser",
@@ -90,10 +80,7 @@ public class User implements UserDetails {
         this.phoneNumber = phoneNumber;
         this.role = role;
         this.verified = verified;
-        this.preRegisteredZones = new ArrayList<>();;
-        this.preRegisteredEvents = new ArrayList<>();
         this.ticketsBought = new ArrayList<>();
-        this.zonesWon = new ArrayList<>();
     }
 
     @JsonIgnore
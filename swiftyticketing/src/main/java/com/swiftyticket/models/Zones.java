@@ -14,9 +14,8 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.JoinTable;
-import jakarta.persistence.ManyToMany;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
@@ -31,7 +30,8 @@ import lombok.Setter;
 @Entity
 @AllArgsConstructor
 @NoArgsConstructor
-@Table(name = "zones")
+// the zones of an event (e.g. to list an event's tickets)
+@Table(name = "zones", indexes = @Index(name = "idx_zones_event", columnList = "events_id"))
 public class Zones {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -47,14 +47,17 @@ public class Zones {
     @Column(name = "zone_date")
     private Date zoneDate;
 
-    @Column(name = "tickets_left")
-    private Integer ticketsLeft;    
+    // Only ever changed by the repositories' guarded updates (claims, releases, refunds), saving a zone or its event
+    // never writes a stale count back.
+    @Column(name = "tickets_left", updatable = false)
+    private Integer ticketsLeft;
 
     @NonNull
     @Column(name = "zone_name")
     private String zoneName;
 
-    @Column(name = "register_count")
+    // Only ever changed by the repositories' atomic updates, saving a zone never writes it back.
+    @Column(name = "register_count", updatable = false)
     private int user_count;
 
     @Column(name = "ticket_price")
@@ -65,27 +68,6 @@ public class Zones {
     @JsonIgnore
     private Event event;
 
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JsonIgnore
-    @JoinTable(name = "zones_users",
-        joinColumns=
-            @JoinColumn(name="zones_id"),
-        inverseJoinColumns=
-            @JoinColumn(name="user_id"))
-    @Column(name = "preRegistered_users")
-    private List<User> preRegisteredUsers4Zone = new ArrayList<>();
-
-    @ManyToMany(fetch = FetchType.EAGER)
-    @JsonIgnore
-    @JoinTable(name = "zones_winners",
-            joinColumns=
-            @JoinColumn(name="zoneWin_id"),
-        inverseJoinColumns=
-            @JoinColumn(name="userWin_id"))
-    @Column(name = "winning_users")
-    private List<User> winnerList;
-
-
     @JsonIgnore
     @OneToMany(mappedBy = "forZone",
                 fetch = FetchType.EAGER,
@@ -100,7 +82,6 @@ public class Zones {
         this.zoneDate = date;
         this.ticket_price = ticketPrice;
         this.ticketsLeft = zoneCapacity;
-        this.winnerList = new ArrayList<>();
         this.ticketList = new ArrayList<>();
         this.user_count = 0;
     }
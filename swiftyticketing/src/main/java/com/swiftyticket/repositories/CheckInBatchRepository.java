@@ -0,0 +1,53 @@
+package com.swiftyticket.repositories;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.models.CheckIn;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class CheckInBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Writes a batch of check-ins in one transaction. A ticket already checked in (e.g. on another node) keeps its first check-in.
+     * @param checkIns -> the check-ins, oldest first
+     */
+    @Transactional
+    public void saveCheckIns(List<CheckIn> checkIns) {
+        List<Object[]> rows = new ArrayList<>(checkIns.size());
+        for(CheckIn checkIn : checkIns){
+            rows.add(new Object[]{checkIn.getTicketId(), checkIn.getEventId(), new Timestamp(checkIn.getCheckedInAt().getTime())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO check_ins (ticket_id, event_id, checked_in_at) VALUES (?, ?, ?) ON CONFLICT (ticket_id) DO NOTHING", rows);
+    }
+
+    /**
+     * Streams every check-in, without loading them all at once.
+     * @param checkIn -> called with (event id, ticket id) of each check-in
+     */
+    public void forEachCheckIn(BiConsumer<Integer, Integer> checkIn) {
+        jdbcTemplate.query("SELECT event_id, ticket_id FROM check_ins ORDER BY event_id",
+                (RowCallbackHandler) rs -> checkIn.accept(rs.getInt(1), rs.getInt(2)));
+    }
+
+    /**
+     * Streams the ids of the tickets revoked because their payment was declined.
+     * @param ticketId -> called with each revoked ticket id
+     */
+    public void forEachRevokedTicket(IntConsumer ticketId) {
+        jdbcTemplate.query("SELECT ticket_id FROM payments WHERE status = 'DECLINED' AND ticket_id IS NOT NULL",
+                (RowCallbackHandler) rs -> ticketId.accept(rs.getInt(1)));
+    }
+}
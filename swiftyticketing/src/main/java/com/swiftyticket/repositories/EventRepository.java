@@ -1,9 +1,53 @@
 package com.swiftyticket.repositories;
 
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.swiftyticket.dto.event.EventSummary;
 import com.swiftyticket.models.Event;
 
+import jakarta.transaction.Transactional;
+
 @Repository
-public interface EventRepository extends JpaRepository<Event, Integer> {}
+public interface EventRepository extends JpaRepository<Event, Integer> {
+    // Moves an event on to its next raffle round without re-saving its zones and registrants:
+    @Transactional
+    @Modifying
+    @Query("UPDATE Event e SET e.raffleRound = e.raffleRound + 1 WHERE e.eventId = :eventId")
+    int finishRaffleRound(@Param("eventId") Integer eventId);
+
+    // Adds `delta` (negative to take away) to an event's user count in one statement, so concurrent joins don't lose updates:
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE events SET user_count = user_count + :delta WHERE event_id = :eventId", nativeQuery = true)
+    int addToUserCount(@Param("eventId") Integer eventId, @Param("delta") int delta);
+
+    // Sets every event's user count that drifted from its registrations back to the actual count.
+    // Returns how many events were corrected:
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE events e SET user_count = c.registered"
+            + " FROM (SELECT ee.event_id, count(r.registration_id) AS registered FROM events ee"
+            + "       LEFT JOIN registrations r ON r.event_id = ee.event_id AND r.status = 'REGISTERED' GROUP BY ee.event_id) c"
+            + " WHERE e.event_id = c.event_id AND e.user_count <> c.registered", nativeQuery = true)
+    int reconcileUserCounts();
+
+    // An event's name, without loading the event and its zones:
+    @Query("SELECT e.eventName FROM Event e WHERE e.eventId = :eventId")
+    Optional<String> findEventName(@Param("eventId") Integer eventId);
+
+    // An event's user count, without loading the event and its zones:
+    @Query("SELECT e.user_count FROM Event e WHERE e.eventId = :eventId")
+    Optional<Integer> findUserCount(@Param("eventId") Integer eventId);
+
+    // The event catalog, only the listed columns so the zones (and their tickets) are not loaded:
+    @Query("SELECT new com.swiftyticket.dto.event.EventSummary(e.eventId, e.eventName, e.artists, e.dates, e.venue,"
+            + " e.venueCapacity, e.open4Registration) FROM Event e ORDER BY e.eventId")
+    List<EventSummary> findSummaries();
+}
@@ -0,0 +1,29 @@
+package com.swiftyticket.repositories;
+
+import java.util.Date;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.models.IdempotencyRecord;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    // Records a response unless the key already has one (the first response is the one that is replayed):
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_records (idempotency_key, request, status, body, created_at)"
+            + " VALUES (:key, :request, :status, :body, :createdAt) ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("key") String key, @Param("request") String request, @Param("status") int status,
+                       @Param("body") String body, @Param("createdAt") Date createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") Date before);
+}
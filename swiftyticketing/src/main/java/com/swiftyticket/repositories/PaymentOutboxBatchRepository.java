@@ -0,0 +1,88 @@
+package com.swiftyticket.repositories;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.dto.payment.OutboxEntry;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class PaymentOutboxBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Claims the next payments due in the outbox, in one statement. The rows are picked with FOR UPDATE SKIP LOCKED,
+     * so pollers on other nodes skip them instead of waiting, and leased by pushing their next attempt past the lease:
+     * no lock is held while the gateway is called, and a worker that dies only delays its payments until the lease runs out.
+     * @param limit -> how many payments to claim at most
+     * @param lease -> how long the payments are left to this node
+     * @return List<OutboxEntry> -> the claimed payments, oldest first
+     */
+    @Transactional
+    public List<OutboxEntry> claimDue(int limit, Duration lease) {
+        return jdbcTemplate.query("WITH due AS ("
+                + "    SELECT outbox_id FROM payment_outbox WHERE next_attempt_at <= now()"
+                + "    ORDER BY next_attempt_at LIMIT ? FOR UPDATE SKIP LOCKED"
+                + ") UPDATE payment_outbox o SET next_attempt_at = now() + make_interval(secs => ?), attempts = o.attempts + 1"
+                + " FROM due d, payments p WHERE o.outbox_id = d.outbox_id AND p.payment_id = o.payment_id"
+                + " RETURNING o.outbox_id, o.payment_id, o.attempts, p.amount_paid, p.user_email",
+                (rs, i) -> new OutboxEntry(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getDouble(4), rs.getString(5)),
+                limit, lease.toMillis() / 1000.0);
+    }
+
+    /**
+     * Marks a payment captured and takes it out of the outbox, in one statement.
+     * @param outboxId -> the outbox entry of the payment
+     * @param paymentId -> the payment
+     * @param gatewayReference -> the gateway's reference for the charge
+     */
+    @Transactional
+    public void markCaptured(Integer outboxId, Integer paymentId, String gatewayReference) {
+        jdbcTemplate.update("WITH captured AS ("
+                + "    UPDATE payments SET status = 'CAPTURED', gateway_reference = ? WHERE payment_id = ? AND status = 'PENDING'"
+                + ") DELETE FROM payment_outbox WHERE outbox_id = ?",
+                gatewayReference, paymentId, outboxId);
+    }
+
+    /**
+     * Marks a payment declined and revokes what it paid for, in one statement: the ticket is deleted, the buyer is a
+     * winner again (they can still buy within their purchase window) and the seat goes back on sale.
+     * @param outboxId -> the outbox entry of the payment
+     * @param paymentId -> the payment
+     * @return List<Integer> -> the id of the revoked ticket (empty if the payment was not pending anymore)
+     */
+    @Transactional
+    public List<Integer> markDeclined(Integer outboxId, Integer paymentId) {
+        return jdbcTemplate.queryForList("WITH declined AS ("
+                + "    UPDATE payments SET status = 'DECLINED' WHERE payment_id = ? AND status = 'PENDING' RETURNING ticket_id"
+                + "), revoked AS ("
+                + "    DELETE FROM tickets t USING declined d WHERE t.ticket_id = d.ticket_id RETURNING t.zonet_id, t.usert_id"
+                + "), reopened AS ("
+                + "    UPDATE registrations r SET status = 'WON' FROM revoked v"
+                + "    WHERE r.zone_id = v.zonet_id AND r.user_id = v.usert_id AND r.status = 'PURCHASED'"
+                + "), returned AS ("
+                + "    UPDATE zones z SET tickets_left = z.tickets_left + 1 FROM revoked v WHERE z.zone_id = v.zonet_id"
+                + "), dequeued AS ("
+                + "    DELETE FROM payment_outbox WHERE outbox_id = ?"
+                + ") SELECT ticket_id FROM declined WHERE ticket_id IS NOT NULL",
+                Integer.class, paymentId, outboxId);
+    }
+
+    /**
+     * Puts a payment back in the outbox after a failed attempt.
+     * @param outboxId -> the outbox entry of the payment
+     * @param delay -> how long to wait before the next attempt
+     * @param error -> why the attempt failed
+     */
+    @Transactional
+    public void retryLater(Integer outboxId, Duration delay, String error) {
+        jdbcTemplate.update("UPDATE payment_outbox SET next_attempt_at = now() + make_interval(secs => ?), last_error = ? WHERE outbox_id = ?",
+                delay.toMillis() / 1000.0, error == null ? null : error.substring(0, Math.min(error.length(), 1000)), outboxId);
+    }
+}
@@ -0,0 +1,10 @@
+package com.swiftyticket.repositories;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.models.PaymentOutbox;
+
+@Repository
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutbox, Integer> {
+}
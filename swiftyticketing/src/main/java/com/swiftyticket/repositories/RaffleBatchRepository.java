@@ -0,0 +1,145 @@
+package com.swiftyticket.repositories;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.dto.raffle.ZoneRaffleInfo;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class RaffleBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads what a raffle needs to know about a zone and its event, without touching the zone's registrants.
+     * @param zoneId -> the zone to look up
+     * @return Optional<ZoneRaffleInfo> -> empty if there is no such zone
+     */
+    public Optional<ZoneRaffleInfo> findZoneInfo(Integer zoneId) {
+        return jdbcTemplate.query(
+                "SELECT z.zone_id, z.zone_name, z.tickets_left, e.event_id, e.event_name, e.raffle_round"
+                + " FROM zones z JOIN events e ON e.event_id = z.events_id WHERE z.zone_id = ?",
+                (rs, rowNum) -> ZoneRaffleInfo.builder()
+                        .zoneId(rs.getInt("zone_id"))
+                        .zoneName(rs.getString("zone_name"))
+                        .ticketsLeft(rs.getInt("tickets_left"))
+                        .eventId(rs.getInt("event_id"))
+                        .eventName(rs.getString("event_name"))
+                        .raffleRound(rs.getInt("raffle_round"))
+                        .build(),
+                zoneId).stream().findFirst();
+    }
+
+    /**
+     * Returns the ids of a zone's current winners.
+     * @param zoneId -> the zone to look at
+     * @return List<Integer> -> ids of the users who won the zone and have not bought their ticket yet
+     */
+    public List<Integer> findWinners(Integer zoneId) {
+        return jdbcTemplate.queryForList("SELECT user_id FROM registrations WHERE zone_id = ? AND status = 'WON'", Integer.class, zoneId);
+    }
+
+    /**
+     * Reads one page of a zone's registrants (ordered by user id, starting after `afterUserId`) and hands each one,
+     * with their raffle weight, to `registrant`. Paging by key keeps every page an index range scan.
+     * @param zoneId -> the zone whose registrants are read
+     * @param afterUserId -> the last user id of the previous page
+     * @param pageSize -> how many registrants to read
+     * @param registrant -> called with (user id, raffle weight) for every registrant on the page
+     * @return int -> the last user id on this page, or afterUserId if the page was empty
+     */
+    public int scanRegistrants(Integer zoneId, int afterUserId, int pageSize, ObjDoubleConsumer<Integer> registrant) {
+        int[] last = {afterUserId};
+        jdbcTemplate.query(
+                "SELECT r.user_id, u.raffle_weight FROM registrations r JOIN _user u ON u.user_id = r.user_id"
+                + " WHERE r.zone_id = ? AND r.status = 'REGISTERED' AND r.user_id > ? ORDER BY r.user_id LIMIT ?",
+                (RowCallbackHandler) rs -> {
+                    last[0] = rs.getInt(1);
+                    registrant.accept(last[0], rs.getDouble(2));
+                },
+                zoneId, afterUserId, pageSize);
+        return last[0];
+    }
+
+    /**
+     * Returns the current winners of a zone who can still buy their ticket.
+     * @param zoneId -> the zone to look at
+     * @return Set<Integer> -> ids of the winners whose purchase deadline has not passed yet
+     */
+    public Set<Integer> findOutstandingWinners(Integer zoneId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT user_id FROM registrations WHERE zone_id = ? AND status = 'WON' AND purchase_deadline > now()",
+                Integer.class, zoneId));
+    }
+
+    /**
+     * Writes the outcome of a zone's raffle as one unit of work, using JDBC batches instead of saving every winner.
+     * Forfeited winners lose their seat, the new winners' registrations are marked won (with their purchase deadline),
+     * then the zone's and the event's registration counts are updated once. Winners that are kept are not touched at all.
+     * @param zoneId -> the zone that was raffled
+     * @param eventId -> the event the zone belongs to
+     * @param winnerIds -> ids of the users who won a seat in the zone in this round
+     * @param forfeitedIds -> ids of the previous winners who lost their seat
+     * @param purchaseDeadline -> until when the new winners can buy their ticket
+     * @return int -> how many registrations were marked won
+     */
+    @Transactional
+    public int saveWinners(Integer zoneId, Integer eventId, int[] winnerIds, int[] forfeitedIds, Date purchaseDeadline) {
+        List<Object[]> forfeitedRows = new ArrayList<>(forfeitedIds.length);
+        for(int forfeitedId : forfeitedIds){
+            forfeitedRows.add(new Object[]{zoneId, forfeitedId});
+        }
+        jdbcTemplate.batchUpdate("UPDATE registrations SET status = 'FORFEITED' WHERE zone_id = ? AND user_id = ? AND status = 'WON'", forfeitedRows);
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        Timestamp deadline = new Timestamp(purchaseDeadline.getTime());
+        List<Object[]> winnerRows = new ArrayList<>(winnerIds.length);
+        for(int winnerId : winnerIds){
+            winnerRows.add(new Object[]{now, deadline, zoneId, winnerId});
+        }
+        int[] won = jdbcTemplate.batchUpdate("UPDATE registrations SET status = 'WON', won_at = ?, purchase_deadline = ?"
+                + " WHERE zone_id = ? AND user_id = ? AND status = 'REGISTERED'", winnerRows);
+
+        // the winners are no longer registrants, the counts are decremented in place (zones of the same event are raffled in parallel).
+        int wonCount = 0;
+        for(int rows : won){
+            wonCount += Math.max(rows, 0);
+        }
+        jdbcTemplate.update("UPDATE zones SET register_count = register_count - ? WHERE zone_id = ?", wonCount, zoneId);
+        jdbcTemplate.update("UPDATE events SET user_count = user_count - ? WHERE event_id = ?", wonCount, eventId);
+        return wonCount;
+    }
+
+    /**
+     * Runs the writes of a zone's raffle and records the zone as completed by its raffle job, in one transaction: either
+     * the winners are kept and a resumed job skips the zone, or neither is, and the zone is drawn again from scratch.
+     * A zone can only be recorded once per job (raffle_job_zones is keyed by both), so two runs of the same job can't
+     * both keep their winners.
+     * @param jobId -> the raffle job the zone is raffled for, null if there is none (the writes just run)
+     * @param zoneId -> the zone that was raffled
+     * @param writes -> the zone's raffle writes, they join this transaction
+     * @return T -> what the writes returned
+     */
+    @Transactional
+    public <T> T completeZone(Integer jobId, Integer zoneId, Supplier<T> writes) {
+        T result = writes.get();
+        if(jobId != null){
+            jdbcTemplate.update("INSERT INTO raffle_job_zones (job_id, zone_id) VALUES (?, ?)", jobId, zoneId);
+        }
+        return result;
+    }
+}
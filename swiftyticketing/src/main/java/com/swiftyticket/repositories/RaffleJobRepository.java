@@ -0,0 +1,49 @@
+package com.swiftyticket.repositories;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.models.RaffleJob;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface RaffleJobRepository extends JpaRepository<RaffleJob, Integer> {
+    Optional<RaffleJob> findByJobIdAndEventId(Integer jobId, Integer eventId);
+
+    // The job of an event that is still queued or running, if there is one:
+    Optional<RaffleJob> findByActiveEventId(Integer eventId);
+
+    // Claims the queued or running jobs whose lease has run out (their node went down) in one statement,
+    // so two nodes never resume the same job. Returns the ids of the claimed jobs:
+    @Transactional
+    @Query(value = "UPDATE raffle_jobs SET lease_until = :leaseUntil"
+            + " WHERE status IN ('QUEUED', 'RUNNING') AND (lease_until IS NULL OR lease_until < :now) RETURNING job_id", nativeQuery = true)
+    List<Integer> claimAbandoned(@Param("now") Date now, @Param("leaseUntil") Date leaseUntil);
+
+    // Keeps holding the jobs this node is still working on:
+    @Transactional
+    @Modifying
+    @Query("UPDATE RaffleJob j SET j.leaseUntil = :leaseUntil WHERE j.jobId IN :jobIds AND j.activeEventId IS NOT NULL")
+    int renewLeases(@Param("jobIds") Collection<Integer> jobIds, @Param("leaseUntil") Date leaseUntil);
+
+    // Zones finish concurrently, so progress is bumped in place instead of read-modify-write on the entity:
+    @Transactional
+    @Modifying
+    @Query("UPDATE RaffleJob j SET j.zonesDone = j.zonesDone + 1, j.winnersDrawn = j.winnersDrawn + :winners, "
+            + "j.notificationsQueued = j.notificationsQueued + :notifications WHERE j.jobId = :jobId")
+    void recordZoneDone(@Param("jobId") Integer jobId, @Param("winners") int winners, @Param("notifications") int notifications);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE RaffleJob j SET j.zonesFailed = j.zonesFailed + 1 WHERE j.jobId = :jobId")
+    void recordZoneFailed(@Param("jobId") Integer jobId);
+}
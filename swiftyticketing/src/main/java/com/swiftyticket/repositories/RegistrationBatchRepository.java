@@ -0,0 +1,231 @@
+package com.swiftyticket.repositories;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.dto.zone.PendingRegistration;
+import com.swiftyticket.dto.zone.RegistrationOutcome;
+import com.swiftyticket.dto.zone.RegistrationTarget;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class RegistrationBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Looks up the zone a pre-registration is for, making sure it belongs to the given event.
+     * @param eventId -> the event id from the request
+     * @param zoneId -> the zone id from the request
+     * @return Optional<RegistrationTarget> -> empty if there is no such zone in the event
+     */
+    public Optional<RegistrationTarget> findTarget(Integer eventId, Integer zoneId) {
+        return jdbcTemplate.query(
+                "SELECT z.zone_name, z.zone_date, e.event_name, e.open FROM zones z"
+                + " JOIN events e ON e.event_id = z.events_id WHERE z.zone_id = ? AND e.event_id = ?",
+                (rs, rowNum) -> {
+                    Timestamp zoneDate = rs.getTimestamp("zone_date");
+                    return RegistrationTarget.builder()
+                            .zoneName(rs.getString("zone_name"))
+                            .zoneDate(zoneDate == null ? null : new java.util.Date(zoneDate.getTime()))
+                            .eventName(rs.getString("event_name"))
+                            .open(rs.getBoolean("open"))
+                            .build();
+                },
+                zoneId, eventId).stream().findFirst();
+    }
+
+    /**
+     * Pre-registers a user for a zone in a single statement, without loading the event, zone or user.
+     * The statement looks up the zone (making sure it belongs to the event) and the user, inserts the registration if
+     * the event is open (the unique (event, user) constraint drops it if the user already has one), bumps the zone's
+     * and event's counts if it was inserted, and reports the zone of any earlier registration, so a retried request
+     * can be told apart from a join of another zone. The earlier registration is read from the statement's snapshot:
+     * if a concurrent request inserted it, this statement waits for it on the constraint but reports no earlier zone,
+     * callers have to read it again (see findRegisteredZoneId).
+     * @param eventId -> the event id from the request
+     * @param zoneId -> the zone id from the request
+     * @param email -> the email of the user joining
+     * @return Optional<RegistrationOutcome> -> empty if there is no such zone in the event
+     */
+    public Optional<RegistrationOutcome> registerOnce(Integer eventId, Integer zoneId, String email) {
+        return jdbcTemplate.query(
+                "WITH target AS ("
+                + "    SELECT z.zone_id, z.zone_name, z.zone_date, e.event_name, e.open FROM zones z"
+                + "    JOIN events e ON e.event_id = z.events_id WHERE z.zone_id = ? AND e.event_id = ?"
+                + "), joining AS ("
+                + "    SELECT user_id FROM _user WHERE email = ?"
+                + "), inserted AS ("
+                + "    INSERT INTO registrations (event_id, zone_id, user_id, status, registered_at)"
+                + "    SELECT ?, t.zone_id, j.user_id, 'REGISTERED', now() FROM target t, joining j WHERE t.open"
+                + "    ON CONFLICT (event_id, user_id) DO NOTHING RETURNING zone_id"
+                + "), zone_counted AS ("
+                + "    UPDATE zones SET register_count = register_count + 1 WHERE zone_id IN (SELECT zone_id FROM inserted)"
+                + "), event_counted AS ("
+                + "    UPDATE events SET user_count = user_count + 1 WHERE event_id = ? AND EXISTS (SELECT 1 FROM inserted)"
+                + ") SELECT t.zone_name, t.zone_date, t.event_name, t.open, j.user_id,"
+                + "    EXISTS (SELECT 1 FROM inserted) AS inserted,"
+                + "    (SELECT r.zone_id FROM registrations r WHERE r.event_id = ? AND r.user_id = j.user_id) AS registered_zone_id"
+                + " FROM target t LEFT JOIN joining j ON true",
+                (rs, rowNum) -> {
+                    Timestamp zoneDate = rs.getTimestamp("zone_date");
+                    return RegistrationOutcome.builder()
+                            .zoneName(rs.getString("zone_name"))
+                            .zoneDate(zoneDate == null ? null : new java.util.Date(zoneDate.getTime()))
+                            .eventName(rs.getString("event_name"))
+                            .open(rs.getBoolean("open"))
+                            .userId(rs.getObject("user_id", Integer.class))
+                            .inserted(rs.getBoolean("inserted"))
+                            .registeredZoneId(rs.getObject("registered_zone_id", Integer.class))
+                            .build();
+                },
+                zoneId, eventId, email, eventId, eventId, eventId).stream().findFirst();
+    }
+
+    // The zone a user is registered for in an event, if they registered for one:
+    public Optional<Integer> findRegisteredZoneId(Integer eventId, Integer userId) {
+        return jdbcTemplate.queryForList("SELECT zone_id FROM registrations WHERE event_id = ? AND user_id = ?", Integer.class, eventId, userId).stream().findFirst();
+    }
+
+    public Optional<String> findEventName(Integer eventId) {
+        return jdbcTemplate.queryForList("SELECT event_name FROM events WHERE event_id = ?", String.class, eventId).stream().findFirst();
+    }
+
+    public Optional<Integer> findUserId(String email) {
+        return jdbcTemplate.queryForList("SELECT user_id FROM _user WHERE email = ?", Integer.class, email).stream().findFirst();
+    }
+
+    /**
+     * Looks up the user ids of many emails in one query.
+     * @param emails -> the emails to look up, a few thousand at most
+     * @return Map<String, Integer> -> user id by email, emails without a user are left out
+     */
+    public Map<String, Integer> findUserIds(Collection<String> emails) {
+        Map<String, Integer> userIds = new HashMap<>();
+        if(emails.isEmpty()){
+            return userIds;
+        }
+        String placeholders = String.join(",", Collections.nCopies(emails.size(), "?"));
+        jdbcTemplate.query("SELECT email, user_id FROM _user WHERE email IN (" + placeholders + ")",
+                (RowCallbackHandler) rs -> userIds.put(rs.getString(1), rs.getInt(2)), emails.toArray());
+        return userIds;
+    }
+
+    // Whether an event is open for pre-registration, empty if there is no such event:
+    public Optional<Boolean> findOpenStatus(Integer eventId) {
+        return jdbcTemplate.queryForList("SELECT open FROM events WHERE event_id = ?", Boolean.class, eventId).stream().findFirst();
+    }
+
+    // The ids of an event's zones:
+    public Set<Integer> findZoneIds(Integer eventId) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT zone_id FROM zones WHERE events_id = ?", Integer.class, eventId));
+    }
+
+    /**
+     * Hands every registration in the DB, as (event id, user id), to `registration`, ordered by event.
+     * @param registration -> called for every registration
+     */
+    public void forEachRegistration(BiConsumer<Integer, Integer> registration) {
+        jdbcTemplate.query("SELECT event_id, user_id FROM registrations ORDER BY event_id",
+                (RowCallbackHandler) rs -> registration.accept(rs.getInt(1), rs.getInt(2)));
+    }
+
+    /**
+     * Writes a batch of queued pre-registrations in one transaction.
+     * Duplicates are dropped here rather than when the request came in: a user only gets in once per event,
+     * whether the other registration is in this batch or already in the DB (the unique (event, user) constraint decides,
+     * the first one wins). The zone and event counts are bumped once per zone / event.
+     * Registrations for an event that was closed after they were acknowledged are dropped too, and handed to `closed`:
+     * the registrants were already ranked, so they would never be drawn.
+     * @param batch -> the queued pre-registrations, oldest first
+     * @param closed -> called for every pre-registration dropped because its event is no longer open
+     * @return int -> how many of them were actually registered
+     */
+    @Transactional
+    public int saveRegistrations(List<PendingRegistration> batch, Consumer<PendingRegistration> closed) {
+        int registered = 0;
+        int[] inserted = insert(batch);
+        for(int i=0; i<inserted.length; i++){
+            if(inserted[i] < 0){
+                closed.accept(batch.get(i));
+            }
+            registered += Math.max(inserted[i], 0);
+        }
+        return registered;
+    }
+
+    /**
+     * Same as saveRegistrations, but reports for every pre-registration in the batch whether it was registered.
+     * @param batch -> the pre-registrations to write
+     * @return int[] -> 1 for every pre-registration that was registered, 0 for every duplicate, -1 for every one whose
+     *                  event is no longer open
+     */
+    @Transactional
+    public int[] saveEachRegistration(List<PendingRegistration> batch) {
+        return insert(batch);
+    }
+
+    private int[] insert(List<PendingRegistration> batch) {
+        // the open events are locked until the batch commits, so an event can't be closed (and ranked) in between:
+        // closing waits for the batch, or the batch sees the event closed.
+        Set<Integer> eventIds = new HashSet<>();
+        batch.forEach(registration -> eventIds.add(registration.getEventId()));
+        String placeholders = String.join(",", Collections.nCopies(eventIds.size(), "?"));
+        Set<Integer> openEvents = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT event_id FROM events WHERE event_id IN (" + placeholders + ") AND open ORDER BY event_id FOR NO KEY UPDATE",
+                Integer.class, eventIds.toArray()));
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        List<Integer> written = new ArrayList<>(batch.size());
+        int[] inserted = new int[batch.size()];
+        for(int i=0; i<inserted.length; i++){
+            PendingRegistration registration = batch.get(i);
+            if(!openEvents.contains(registration.getEventId())){
+                inserted[i] = -1;
+                continue;
+            }
+            rows.add(new Object[]{registration.getEventId(), registration.getZoneId(), registration.getUserId(), now});
+            written.add(i);
+        }
+        int[] rowCounts = jdbcTemplate.batchUpdate(
+                "INSERT INTO registrations (event_id, zone_id, user_id, status, registered_at) VALUES (?, ?, ?, 'REGISTERED', ?)"
+                + " ON CONFLICT (event_id, user_id) DO NOTHING", rows);
+
+        Map<Integer, Integer> perZone = new HashMap<>();
+        Map<Integer, Integer> perEvent = new HashMap<>();
+        for(int i=0; i<rowCounts.length; i++){
+            if(rowCounts[i] <= 0){
+                continue;
+            }
+            inserted[written.get(i)] = 1;
+            PendingRegistration registration = batch.get(written.get(i));
+            perZone.merge(registration.getZoneId(), 1, Integer::sum);
+            perEvent.merge(registration.getEventId(), 1, Integer::sum);
+        }
+
+        List<Object[]> zoneCounts = new ArrayList<>();
+        perZone.forEach((zoneId, count) -> zoneCounts.add(new Object[]{count, zoneId}));
+        jdbcTemplate.batchUpdate("UPDATE zones SET register_count = register_count + ? WHERE zone_id = ?", zoneCounts);
+        List<Object[]> eventCounts = new ArrayList<>();
+        perEvent.forEach((eventId, count) -> eventCounts.add(new Object[]{count, eventId}));
+        jdbcTemplate.batchUpdate("UPDATE events SET user_count = user_count + ? WHERE event_id = ?", eventCounts);
+        return inserted;
+    }
+}
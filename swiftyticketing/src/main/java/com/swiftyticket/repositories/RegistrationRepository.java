@@ -0,0 +1,66 @@
+package com.swiftyticket.repositories;
+
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.dto.raffle.Registrant;
+import com.swiftyticket.models.Registration;
+
+import jakarta.transaction.Transactional;
+
+@Repository
+public interface RegistrationRepository extends JpaRepository<Registration, Integer> {
+    // Turns a user's winning registration for a zone into a purchase, returns 0 if they have no win to purchase with:
+    @Transactional
+    @Modifying
+    @Query("UPDATE Registration r SET r.status = com.swiftyticket.models.RegistrationStatus.PURCHASED"
+            + " WHERE r.zoneId = :zoneId AND r.userId = :userId AND r.status = com.swiftyticket.models.RegistrationStatus.WON")
+    int markPurchased(@Param("zoneId") Integer zoneId, @Param("userId") Integer userId);
+
+    // Puts a user's winning registration for a zone on hold until `expiresAt` while they pay, returns 0 if they have no win to hold:
+    @Transactional
+    @Modifying
+    @Query("UPDATE Registration r SET r.status = com.swiftyticket.models.RegistrationStatus.HELD, r.holdExpiresAt = :expiresAt"
+            + " WHERE r.zoneId = :zoneId AND r.userId = :userId AND r.status = com.swiftyticket.models.RegistrationStatus.WON")
+    int markHeld(@Param("zoneId") Integer zoneId, @Param("userId") Integer userId, @Param("expiresAt") Date expiresAt);
+
+    // Turns a user's held registration for a zone into a purchase, returns 0 if there is no hold:
+    @Transactional
+    @Modifying
+    @Query("UPDATE Registration r SET r.status = com.swiftyticket.models.RegistrationStatus.PURCHASED"
+            + " WHERE r.zoneId = :zoneId AND r.userId = :userId AND r.status = com.swiftyticket.models.RegistrationStatus.HELD")
+    int markHeldPurchased(@Param("zoneId") Integer zoneId, @Param("userId") Integer userId);
+
+    // The users still waiting in a zone's raffle, with their raffle weight:
+    @Query("SELECT new com.swiftyticket.dto.raffle.Registrant(r.userId, u.raffleWeight) FROM Registration r, User u"
+            + " WHERE u.userId = r.userId AND r.zoneId = :zoneId AND r.status = com.swiftyticket.models.RegistrationStatus.REGISTERED")
+    List<Registrant> findRegistrants(@Param("zoneId") Integer zoneId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Registration r WHERE r.eventId = :eventId")
+    int deleteByEvent(@Param("eventId") Integer eventId);
+
+    // Hands every registrant of the event a random rank in their zone, in one statement.
+    // The rank is an exponential key scaled by the user's raffle weight (lower goes first), so taking ranks in order
+    // is the same weighted draw the raffle engine does. Users with no weight go last.
+    // Registrants ranked by an earlier close (the event was reopened in between) keep the rank they already had.
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE registrations r SET raffle_rank ="
+            + " CASE WHEN u.raffle_weight > 0 THEN -ln(1 - random()) / u.raffle_weight ELSE 'Infinity'::float8 END"
+            + " FROM _user u WHERE u.user_id = r.user_id AND r.event_id = :eventId"
+            + " AND r.status = 'REGISTERED' AND r.raffle_rank IS NULL", nativeQuery = true)
+    int assignRanks(@Param("eventId") Integer eventId);
+
+    // The next `winners` registrants of a zone that have not been drawn yet, walking the rank index in order.
+    @Query(value = "SELECT user_id FROM registrations WHERE zone_id = :zoneId AND status = 'REGISTERED'"
+            + " AND raffle_rank IS NOT NULL ORDER BY raffle_rank LIMIT :winners", nativeQuery = true)
+    List<Integer> findNextByRank(@Param("zoneId") Integer zoneId, @Param("winners") int winners);
+}
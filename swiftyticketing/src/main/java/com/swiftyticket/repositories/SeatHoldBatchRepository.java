@@ -0,0 +1,63 @@
+package com.swiftyticket.repositories;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class SeatHoldBatchRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Releases a batch of expired holds in one transaction: the holders are winners waiting to buy again and the seats
+     * go back to their zones, one update per zone.
+     * @param holds -> (zone id, user id) of every expired hold
+     * @return int -> how many seats were put back on sale
+     */
+    @Transactional
+    public int releaseHolds(List<int[]> holds) {
+        List<Object[]> rows = new ArrayList<>(holds.size());
+        for(int[] hold : holds){
+            rows.add(new Object[]{hold[0], hold[1]});
+        }
+        int[] released = jdbcTemplate.batchUpdate("UPDATE registrations SET status = 'WON', hold_expires_at = NULL WHERE zone_id = ? AND user_id = ? AND status = 'HELD'", rows);
+
+        Map<Integer, Integer> perZone = new HashMap<>();
+        int seats = 0;
+        for(int i=0; i<released.length; i++){
+            if(released[i] > 0){
+                perZone.merge(holds.get(i)[0], 1, Integer::sum);
+                seats++;
+            }
+        }
+        List<Object[]> zoneSeats = new ArrayList<>(perZone.size());
+        perZone.forEach((zoneId, count) -> zoneSeats.add(new Object[]{count, zoneId}));
+        jdbcTemplate.batchUpdate("UPDATE zones SET tickets_left = tickets_left + ? WHERE zone_id = ?", zoneSeats);
+        return seats;
+    }
+
+    /**
+     * Releases the holds in the DB whose deadline passed before `cutoff`, in one statement. Holds are timed in the
+     * memory of the node that made them, this catches the ones whose node went down (or restarted) before they expired.
+     * Holds still running, on this node or any other, are left alone.
+     * @param cutoff -> holds that expired before this are released
+     * @return int -> how many zones got seats back
+     */
+    @Transactional
+    public int releaseExpiredHolds(Date cutoff) {
+        return jdbcTemplate.update("WITH released AS ("
+                + "    UPDATE registrations SET status = 'WON', hold_expires_at = NULL WHERE status = 'HELD' AND hold_expires_at < ? RETURNING zone_id"
+                + "), per_zone AS ("
+                + "    SELECT zone_id, count(*) AS seats FROM released GROUP BY zone_id"
+                + ") UPDATE zones z SET tickets_left = z.tickets_left + p.seats FROM per_zone p WHERE z.zone_id = p.zone_id", cutoff);
+    }
+}
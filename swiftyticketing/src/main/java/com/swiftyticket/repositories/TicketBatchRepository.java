@@ -0,0 +1,90 @@
+package com.swiftyticket.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import com.swiftyticket.dto.ticket.TicketFilter;
+import com.swiftyticket.dto.ticket.TicketRow;
+
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+
+@Repository
+@RequiredArgsConstructor
+public class TicketBatchRepository {
+    // Rows the driver fetches at a time while exporting
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final String SELECT_TICKETS = "SELECT t.ticket_id, z.events_id, t.zonet_id, t.zone_name, t.user_email, t.tied_phone_number"
+            + " FROM tickets t JOIN zones z ON z.zone_id = t.zonet_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads a page of tickets after a cursor (keyset paging): the page starts right after the last ticket id of the
+     * previous one, so every page costs the same however deep it is, and tickets bought meanwhile are neither skipped
+     * nor repeated.
+     * @param filter -> which tickets to list
+     * @param after -> the last ticket id of the previous page, null for the first page
+     * @param limit -> how many tickets to read at most
+     * @return List<TicketRow> -> the tickets, in ticket id order
+     */
+    public List<TicketRow> findPage(TicketFilter filter, Integer after, int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT_TICKETS + where(filter, after, args) + " ORDER BY t.ticket_id LIMIT ?";
+        args.add(limit);
+        return jdbcTemplate.query(sql, (rs, i) -> toRow(rs), args.toArray());
+    }
+
+    /**
+     * Reads every ticket matching the filter through a forward-only cursor, handing them over one at a time: only one
+     * fetch of rows is in memory at once, however many tickets there are. The cursor needs a transaction to stay open.
+     * @param filter -> which tickets to read
+     * @param ticket -> called with each ticket, in ticket id order
+     */
+    @Transactional
+    public void forEachTicket(TicketFilter filter, Consumer<TicketRow> ticket) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT_TICKETS + where(filter, null, args) + " ORDER BY t.ticket_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(EXPORT_FETCH_SIZE);
+            for(int i=0; i<args.size(); i++){
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> ticket.accept(toRow(rs)));
+    }
+
+    private String where(TicketFilter filter, Integer after, List<Object> args) {
+        StringBuilder where = new StringBuilder(" WHERE true");
+        if(after != null){
+            where.append(" AND t.ticket_id > ?");
+            args.add(after);
+        }
+        if(filter.getEventId() != null){
+            where.append(" AND z.events_id = ?");
+            args.add(filter.getEventId());
+        }
+        if(filter.getZoneId() != null){
+            where.append(" AND t.zonet_id = ?");
+            args.add(filter.getZoneId());
+        }
+        if(filter.getEmail() != null){
+            where.append(" AND t.user_email = ?");
+            args.add(filter.getEmail());
+        }
+        return where.toString();
+    }
+
+    private TicketRow toRow(ResultSet rs) throws SQLException {
+        return new TicketRow(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getString(4), rs.getString(5), rs.getString(6));
+    }
+}
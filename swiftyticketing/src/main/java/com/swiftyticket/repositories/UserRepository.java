@@ -5,8 +5,11 @@ import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.swiftyticket.dto.ticket.TicketBuyer;
+
 import com.swiftyticket.models.User;
 
 import jakarta.transaction.Transactional;
@@ -16,6 +19,10 @@ public interface UserRepository  extends JpaRepository<User, Integer>{
     // We need a method that can find the user's by their email:
     Optional<User> findByEmail(String email);
 
+    // What a ticket needs to know about its buyer, without loading the user's tickets:
+    @Query("SELECT new com.swiftyticket.dto.ticket.TicketBuyer(u.userId, u.email, u.phoneNumber) FROM User u WHERE u.email = :email")
+    Optional<TicketBuyer> findBuyer(@Param("email") String email);
+
     @Transactional
     @Modifying
     @Query("UPDATE User a " +
@@ -2,15 +2,109 @@ package com.swiftyticket.repositories;
 
 import org.springframework.stereotype.Repository;
 
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.swiftyticket.dto.zone.ZoneCount;
+import com.swiftyticket.dto.zone.ZoneSummary;
 import com.swiftyticket.models.Event;
 import com.swiftyticket.models.Zones;
 
+import jakarta.transaction.Transactional;
+
 
 @Repository
 public interface ZoneRepository extends JpaRepository<Zones, Integer>{
     Optional<Zones> findByZoneIdAndEvent(Integer zoneID, Event event);
+
+    // A zone's name, making sure the zone belongs to the event, without loading the zone:
+    @Query("SELECT z.zoneName FROM Zones z WHERE z.zoneId = :zoneId AND z.event.eventId = :eventId")
+    Optional<String> findZoneName(@Param("zoneId") Integer zoneId, @Param("eventId") Integer eventId);
+
+    // A zone's ticket price, without loading the zone:
+    @Query("SELECT z.ticket_price FROM Zones z WHERE z.zoneId = :zoneId")
+    Optional<Double> findTicketPrice(@Param("zoneId") Integer zoneId);
+
+    // A zone's date, without loading the zone:
+    @Query("SELECT z.zoneDate FROM Zones z WHERE z.zoneId = :zoneId")
+    Optional<Date> findZoneDate(@Param("zoneId") Integer zoneId);
+
+    // Takes one seat of a zone if there is one left, in one statement. Returns 0 if the zone is sold out:
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE zones SET tickets_left = tickets_left - 1 WHERE zone_id = :zoneId AND tickets_left > 0", nativeQuery = true)
+    int claimSeat(@Param("zoneId") Integer zoneId);
+
+    // Zones a user is still pre-registered for:
+    @Query("SELECT z FROM Zones z, Registration r WHERE r.zoneId = z.zoneId AND r.userId = :userId"
+            + " AND r.status = com.swiftyticket.models.RegistrationStatus.REGISTERED")
+    List<Zones> findJoinedBy(@Param("userId") Integer userId);
+
+    // Number of users still pre-registered for a zone, without loading the zone's users:
+    @Query(value = "SELECT count(*) FROM registrations WHERE zone_id = :zoneId AND status = 'REGISTERED'", nativeQuery = true)
+    long countRegistrants(@Param("zoneId") Integer zoneId);
+
+    // Adds `delta` (negative to take away) to a zone's register count in one statement, so concurrent joins don't lose updates:
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE zones SET register_count = register_count + :delta WHERE zone_id = :zoneId", nativeQuery = true)
+    int addToRegisterCount(@Param("zoneId") Integer zoneId, @Param("delta") int delta);
+
+    // Sets every zone's register count that drifted from its registrations back to the actual count.
+    // Returns how many zones were corrected:
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE zones z SET register_count = c.registered"
+            + " FROM (SELECT zz.zone_id, count(r.registration_id) AS registered FROM zones zz"
+            + "       LEFT JOIN registrations r ON r.zone_id = zz.zone_id AND r.status = 'REGISTERED' GROUP BY zz.zone_id) c"
+            + " WHERE z.zone_id = c.zone_id AND z.register_count <> c.registered", nativeQuery = true)
+    int reconcileRegisterCounts();
+
+    // The register counts of an event's zones, without loading the zones:
+    @Query("SELECT new com.swiftyticket.dto.zone.ZoneCount(z.zoneId, z.zoneName, z.user_count) FROM Zones z"
+            + " WHERE z.event.eventId = :eventId ORDER BY z.zoneId")
+    List<ZoneCount> findRegisterCounts(@Param("eventId") Integer eventId);
+
+    // The zones of an event as listed in the catalog, without loading the zones, their event and tickets:
+    @Query("SELECT new com.swiftyticket.dto.zone.ZoneSummary(z.zoneId, z.zoneName, z.zoneDate, z.zoneCapacity, z.ticketsLeft,"
+            + " z.ticket_price) FROM Zones z WHERE z.event.eventId = :eventId ORDER BY z.zoneId")
+    List<ZoneSummary> findSummaries(@Param("eventId") Integer eventId);
+
+    // Set-based raffle done entirely inside the DB, in one statement:
+    // forfeit the previous winners, except the ones still inside their purchase window if `keepOutstanding` is set,
+    // pick registrants of the zone for the seats that are left (`winners` minus the kept ones) by their rank (the ones
+    // without a rank come last, in a random order derived from `seed`), mark them won with their purchase `deadline`
+    // and update the zone's and the event's register counts.
+    // Returns the ids of the users who won in this round.
+    @Transactional
+    @Query(value = "WITH outstanding AS ("
+            + "    SELECT user_id FROM registrations"
+            + "    WHERE zone_id = :zoneId AND status = 'WON' AND :keepOutstanding AND purchase_deadline > now()"
+            + "), forfeited AS ("
+            + "    UPDATE registrations SET status = 'FORFEITED'"
+            + "    WHERE zone_id = :zoneId AND status = 'WON' AND user_id NOT IN (SELECT user_id FROM outstanding)"
+            + "), picked AS ("
+            + "    SELECT registration_id FROM registrations"
+            + "    WHERE zone_id = :zoneId AND status = 'REGISTERED'"
+            + "    ORDER BY raffle_rank NULLS LAST, md5(CAST(user_id AS text) || CAST(:seed AS text))"
+            + "    LIMIT GREATEST(:winners - (SELECT count(*) FROM outstanding), 0)"
+            + "), won AS ("
+            + "    UPDATE registrations r SET status = 'WON', won_at = now(), purchase_deadline = :deadline"
+            + "    FROM picked p WHERE r.registration_id = p.registration_id RETURNING r.user_id"
+            + "), event_counted AS ("
+            + "    UPDATE events SET user_count = user_count - (SELECT count(*) FROM won)"
+            + "    WHERE event_id = :eventId"
+            + "), counted AS ("
+            + "    UPDATE zones SET register_count = register_count - (SELECT count(*) FROM won)"
+            + "    WHERE zone_id = :zoneId"
+            + ") SELECT user_id FROM won", nativeQuery = true)
+    List<Integer> raffleInDatabase(@Param("zoneId") Integer zoneId, @Param("eventId") Integer eventId,
+                                   @Param("winners") int winners, @Param("seed") long seed,
+                                   @Param("keepOutstanding") boolean keepOutstanding, @Param("deadline") Date deadline);
 }
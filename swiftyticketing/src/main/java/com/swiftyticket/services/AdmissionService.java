@@ -0,0 +1,9 @@
+package com.swiftyticket.services;
+
+import com.swiftyticket.dto.zone.AdmissionStats;
+
+public interface AdmissionService {
+    void admit(Integer eventId);
+    AdmissionStats getStats(Integer eventId);
+    void evictIdleLimiters();
+}
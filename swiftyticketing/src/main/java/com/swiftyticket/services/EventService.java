@@ -2,10 +2,12 @@ package com.swiftyticket.services;
 
 import java.util.List;
 
+import com.swiftyticket.dto.event.EventSummary;
 import com.swiftyticket.models.Event;
 
 public interface EventService {
     List<Event> listEvents();
+    List<EventSummary> listEventSummaries();
     Event getEvent(Integer id);
     Event addEvent(Event event);
     Event updateEvent(Integer id, Event event);
@@ -13,4 +15,5 @@ public interface EventService {
     public void openEvent(Integer id);
     public void closeEvent(Integer id);
     public void raffle(Integer id);
+    public void raffle(Integer id, RaffleProgress progress);
 }
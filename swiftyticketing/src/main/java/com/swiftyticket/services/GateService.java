@@ -0,0 +1,14 @@
+package com.swiftyticket.services;
+
+import java.util.List;
+
+import com.swiftyticket.dto.gate.GateScanRequest;
+import com.swiftyticket.dto.gate.ScanResult;
+
+public interface GateService {
+    List<ScanResult> verify(GateScanRequest scanRequest);
+    void revoke(Integer ticketId);
+    int flushCheckIns();
+    int refreshRevoked();
+    void rebuild();
+}
@@ -0,0 +1,10 @@
+package com.swiftyticket.services;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.ResponseEntity;
+
+public interface IdempotencyService {
+    ResponseEntity<?> execute(String owner, String key, String request, Supplier<ResponseEntity<?>> action);
+    int purgeExpired();
+}
@@ -0,0 +1,8 @@
+package com.swiftyticket.services;
+
+import com.swiftyticket.dto.payment.GatewayResult;
+import com.swiftyticket.dto.payment.PaymentCharge;
+
+public interface PaymentGateway {
+    GatewayResult charge(PaymentCharge charge);
+}
@@ -3,6 +3,7 @@ package com.swiftyticket.services;
 import java.util.List;
 
 import com.swiftyticket.models.Payment;
+import com.swiftyticket.models.Ticket;
 
 public interface PaymentService {
     List<Payment> listPayments();
@@ -10,4 +11,6 @@ public interface PaymentService {
     Payment addPayment(Payment payment);
     Payment updatePayment(Integer id, Payment payment);
     void deletePayment(Integer id);
+    Payment recordPayment(Ticket ticket, Integer zoneId);
+    int processOutbox();
 }
@@ -0,0 +1,14 @@
+package com.swiftyticket.services;
+
+public interface RaffleEngine {
+    // Picks up to `winners` distinct user ids out of the given pool, each with the same odds of winning.
+    // The returned array holds the winning ids (its length is min(winners, userIds.length)), the pool is left untouched.
+    int[] draw(int[] userIds, int winners);
+
+    // Same as above, but user i's odds are proportional to weights[i] (e.g. 2.0 for fan club members, 1.0 for everyone else).
+    // Users with a weight of 0 or less only win the seats nobody else can take.
+    int[] draw(int[] userIds, double[] weights, int winners);
+
+    // A sampler that picks `winners` users out of a pool too big to hold in memory, fed one registrant at a time.
+    RaffleSampler sampler(int winners);
+}
@@ -0,0 +1,9 @@
+package com.swiftyticket.services;
+
+import com.swiftyticket.dto.raffle.RaffleJobResponse;
+
+public interface RaffleJobService {
+    RaffleJobResponse submitRaffle(Integer eventId);
+    RaffleJobResponse getJob(Integer eventId, Integer jobId);
+    void resumeInterruptedJobs();
+}
@@ -0,0 +1,35 @@
+package com.swiftyticket.services;
+
+import java.util.List;
+import java.util.Set;
+
+import com.swiftyticket.models.User;
+
+// Hooks an event raffle reports to while its zones finish. Calls can come from several raffle threads at once.
+public interface RaffleProgress {
+    // The raffle job that records the zones it finishes (in the zone's own transaction), null if there is none:
+    Integer jobId();
+    // Zones an earlier (interrupted) run already raffled, these are not raffled again:
+    Set<Integer> completedZones();
+    void zoneDone(Integer zoneId, List<User> winners);
+    void zoneFailed(Integer zoneId);
+
+    // For raffles nobody is tracking:
+    RaffleProgress NONE = new RaffleProgress() {
+        @Override
+        public Integer jobId() {
+            return null;
+        }
+
+        @Override
+        public Set<Integer> completedZones() {
+            return Set.of();
+        }
+
+        @Override
+        public void zoneDone(Integer zoneId, List<User> winners) {}
+
+        @Override
+        public void zoneFailed(Integer zoneId) {}
+    };
+}
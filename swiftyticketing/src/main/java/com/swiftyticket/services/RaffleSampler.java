@@ -0,0 +1,10 @@
+package com.swiftyticket.services;
+
+// Streaming side of the raffle engine: registrants are offered one at a time (e.g. while paging through the DB)
+// and only the current winners are ever kept, so memory depends on the number of seats, not the number of registrants.
+public interface RaffleSampler {
+    void offer(int userId, double weight);
+
+    // The winners out of everyone offered so far.
+    int[] winners();
+}
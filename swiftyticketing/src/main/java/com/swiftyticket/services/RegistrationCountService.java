@@ -0,0 +1,8 @@
+package com.swiftyticket.services;
+
+import com.swiftyticket.dto.zone.RegistrationCounts;
+
+public interface RegistrationCountService {
+    RegistrationCounts getCounts(Integer eventId);
+    int reconcile();
+}
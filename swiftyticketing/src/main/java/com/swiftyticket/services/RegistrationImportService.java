@@ -0,0 +1,10 @@
+package com.swiftyticket.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.swiftyticket.dto.zone.ImportReport;
+
+public interface RegistrationImportService {
+    ImportReport importRegistrations(Integer eventId, InputStream upload, boolean ndjson) throws IOException;
+}
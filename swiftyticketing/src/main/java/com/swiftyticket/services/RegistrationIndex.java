@@ -0,0 +1,24 @@
+package com.swiftyticket.services;
+
+// Which users are registered for which events. Duplicate joins are turned away with it on the write-behind path only,
+// direct joins leave that to the DB's unique (event, user) constraint and just mark the index afterwards.
+public interface RegistrationIndex {
+    // Marks the user as registered for the event, unless they already were. Returns false if they were (a duplicate join).
+    // The check and the mark happen together, so two concurrent joins of the same user can't both get through.
+    boolean reserve(Integer eventId, Integer userId);
+
+    // Takes back a reservation whose registration could not be written.
+    void release(Integer eventId, Integer userId);
+
+    // Whether the user is known to be registered for the event.
+    boolean isRegistered(Integer eventId, Integer userId);
+
+    // Records a registration written by some other path (e.g. the write-behind flush).
+    void markRegistered(Integer eventId, Integer userId);
+
+    // Drops everything known about an event, once it is deleted.
+    void forgetEvent(Integer eventId);
+
+    // Reloads the index from the registrations in the DB.
+    void rebuild();
+}
@@ -0,0 +1,8 @@
+package com.swiftyticket.services;
+
+import com.swiftyticket.dto.zone.PreRegisterRequest;
+
+public interface RegistrationIntakeService {
+    public String submit(PreRegisterRequest registerRequest, Integer eventId, Integer zoneID);
+    public int flush();
+}
@@ -0,0 +1,12 @@
+package com.swiftyticket.services;
+
+import com.swiftyticket.dto.ticket.PurchaseTicketDTO;
+import com.swiftyticket.dto.ticket.SeatHold;
+import com.swiftyticket.models.Ticket;
+
+public interface SeatHoldService {
+    SeatHold holdSeat(PurchaseTicketDTO holdRequest, Integer eventId, Integer zoneId);
+    Ticket completeHold(Long holdId, PurchaseTicketDTO purchaseRequest);
+    int expireHolds();
+    void releaseAbandonedHolds();
+}
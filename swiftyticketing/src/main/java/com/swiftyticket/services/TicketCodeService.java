@@ -0,0 +1,13 @@
+package com.swiftyticket.services;
+
+import java.util.Date;
+
+import com.swiftyticket.dto.gate.TicketClaims;
+
+public interface TicketCodeService {
+    // Signs a ticket code for the ticket, for its zone, event and date.
+    String issue(Integer ticketId, Integer zoneId, Integer eventId, Date zoneDate);
+
+    // Reads a ticket code back. Returns null if it is not a code or its signature does not match.
+    TicketClaims verify(String code);
+}
@@ -1,13 +1,17 @@
 package com.swiftyticket.services;
 
+import java.io.OutputStream;
 import java.util.List;
 
-
 import com.swiftyticket.dto.ticket.PurchaseTicketDTO;
+import com.swiftyticket.dto.ticket.TicketFilter;
+import com.swiftyticket.dto.ticket.TicketPage;
 import com.swiftyticket.models.Ticket;
 
 public interface TicketService {
     List<Ticket> listTickets();
+    TicketPage listTickets(TicketFilter filter, Integer after, int limit);
+    long exportTickets(TicketFilter filter, OutputStream out);
     Ticket getTicket(Integer id);
     Ticket purchaseTicket(PurchaseTicketDTO purchaseTicketRequest, Integer eventId, Integer zoneId);
     List<Ticket> getAllUserTickets(String email);
@@ -11,5 +11,6 @@ public interface UserService {
     User getUserByEmail(String email);
     User updateUser(String email, User user);
     void deleteUser(String email);
+    User setRaffleWeight(String email, double raffleWeight);
     UserDetailsService userDetailsService();
 }
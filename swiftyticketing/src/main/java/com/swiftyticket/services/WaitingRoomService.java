@@ -0,0 +1,11 @@
+package com.swiftyticket.services;
+
+import com.swiftyticket.dto.ticket.QueuePosition;
+import com.swiftyticket.dto.ticket.QueueToken;
+
+public interface WaitingRoomService {
+    QueueToken join(Integer eventId, Integer zoneId, String email);
+    QueuePosition getPosition(String token);
+    void checkReleased(String token, Integer eventId, Integer zoneId, String email);
+    long releaseTokens();
+}
@@ -4,14 +4,19 @@ import java.util.List;
 
 import com.swiftyticket.dto.zone.PreRegisterRequest;
 import com.swiftyticket.dto.zone.ZoneRequest;
+import com.swiftyticket.dto.zone.ZoneSummary;
 import com.swiftyticket.models.Event;
+import com.swiftyticket.models.User;
 import com.swiftyticket.models.Zones;
 
 public interface ZoneService {
     public Zones addZone(ZoneRequest zoneReq, Event event);
     public List<Zones> listZones(Event event);
+    public List<ZoneSummary> listZoneSummaries(Integer eventId);
     public String joinRaffle(PreRegisterRequest registerRequest, Integer id, Integer zoneID);
-    public void raffle(Zones zone);
+    public List<User> raffle(Zones zone);
+    public List<User> raffle(Integer zoneID);
+    public List<User> raffle(Integer zoneID, Integer jobId);
     public List<Zones> userJoinedZones(String userEmail);
     public Event getCorrespondingEvent(Integer zoneID);
 }
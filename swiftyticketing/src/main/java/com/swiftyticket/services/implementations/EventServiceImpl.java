@@ -1,25 +1,49 @@
 package com.swiftyticket.services.implementations;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
+import com.swiftyticket.dto.event.EventSummary;
 import com.swiftyticket.exceptions.EventNotFoundException;
 import com.swiftyticket.exceptions.OpenRegistrationRaffleException;
 import com.swiftyticket.models.Event;
+import com.swiftyticket.models.User;
+import com.swiftyticket.models.Zones;
 import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.RegistrationRepository;
 import com.swiftyticket.services.EventService;
+import com.swiftyticket.services.RaffleProgress;
+import com.swiftyticket.services.RegistrationIndex;
+
+import lombok.extern.slf4j.Slf4j;
 
 
 
 @Service
+@Slf4j
 public class EventServiceImpl implements EventService{
     private EventRepository eventRepository;
     private ZoneServiceImpl zoneService;
+    private ExecutorService raffleExecutor;
+    private RegistrationRepository registrationRepository;
+    private RegistrationIndex registrationIndex;
 
-    public EventServiceImpl(EventRepository eventRepository, ZoneServiceImpl zoneService) {
+    public EventServiceImpl(EventRepository eventRepository, ZoneServiceImpl zoneService, @Qualifier("raffleExecutor") ExecutorService raffleExecutor,
+                            RegistrationRepository registrationRepository, RegistrationIndex registrationIndex) {
         this.eventRepository = eventRepository;
         this.zoneService = zoneService;
+        this.raffleExecutor = raffleExecutor;
+        this.registrationRepository = registrationRepository;
+        this.registrationIndex = registrationIndex;
     }
 
     /**
@@ -31,6 +55,16 @@ public class EventServiceImpl implements EventService{
         return eventRepository.findAll();
     }
 
+    /**
+     * Returns the event catalog: the listed columns of every event, read with one query
+     * instead of loading the events with their zones.
+     * @return List<EventSummary>
+     */
+    @Override
+    public List<EventSummary> listEventSummaries() {
+        return eventRepository.findSummaries();
+    }
+
     /**
      * Returns a single event based on the event ID.
      * @param id -> Integer event ID (Unique identifier)
@@ -53,7 +87,6 @@ public class EventServiceImpl implements EventService{
     @Override 
     public Event addEvent(Event event) {
         event.setZoneList(new ArrayList<>());
-        event.setPreRegisteredUsers4Event(new ArrayList<>());
         return eventRepository.save(event);
     }
 
@@ -86,7 +119,10 @@ public class EventServiceImpl implements EventService{
         //check that event exists
         Event e = eventRepository.findById(id).orElseThrow(() -> new EventNotFoundException(id));
         // if exists error won't be thrown and we can proceed to delete
+        // registrations only hold the event's id, so they are cleared first.
+        registrationRepository.deleteByEvent(id);
         eventRepository.deleteById(id);
+        registrationIndex.forgetEvent(id);
     }
 
     /**
@@ -104,6 +140,7 @@ public class EventServiceImpl implements EventService{
 
     /**
      * Closes an event so that users can no more pre-register for zones in the event.
+     * Every registrant also gets their permanent random rank in their zone, the raffle rounds just follow that order.
      * @param id -> Integer event ID (Unique identifier)
      * @throws EventNotFoundException -> if the event ID does not exist in the DB
      */
@@ -113,6 +150,8 @@ public class EventServiceImpl implements EventService{
         // if exists error won't be thrown and we can proceed to update (yipee)
         e.setOpen4Registration(false);
         eventRepository.save(e);
+        int ranked = registrationRepository.assignRanks(id);
+        log.info("ranked " + ranked + " registrants of event " + id);
     }
 
     /**
@@ -122,6 +161,21 @@ public class EventServiceImpl implements EventService{
      * @throws OpenRegistrationRaffleException -> if the event is still open for registration
      */
     public void raffle(Integer id){
+        raffle(id, RaffleProgress.NONE);
+    }
+
+    /**
+     * Raffles every zone of the event, reporting each finished zone to the given progress tracker.
+     * Zones are raffled concurrently on the raffle executor, each one in its own transaction. A zone that fails
+     * is logged and skipped, the other zones still keep their winners.
+     * Zones the tracker reports as already completed (by an interrupted earlier run) are not raffled again.
+     * Once every zone is done, the event moves on to its next raffle round.
+     * @param id -> Integer event ID (Unique identifier)
+     * @param progress -> tracker that gets told about every zone that finishes or fails
+     * @throws EventNotFoundException -> if the event ID does not exist in the DB
+     * @throws OpenRegistrationRaffleException -> if the event is still open for registration
+     */
+    public void raffle(Integer id, RaffleProgress progress){
         Event event = eventRepository.findById(id).orElseThrow(() -> new EventNotFoundException(id));
 
         // to do: make sure event is closed before raffle is commenced.
@@ -129,12 +183,42 @@ public class EventServiceImpl implements EventService{
             throw new OpenRegistrationRaffleException("please close the event before raffling.");
         }
 
-        for(int i=0; i<event.getZoneList().size(); i++){
-            zoneService.raffle(event.getZoneList().get(i));
+        // kick off every zone's raffle at once, the executor bounds how many actually run in parallel.
+        // zones finished by an earlier run are left as they are.
+        Set<Integer> completedZones = progress.completedZones();
+        Map<Integer, CompletableFuture<List<User>>> zoneRaffles = new LinkedHashMap<>();
+        for(Zones zone : event.getZoneList()){
+            Integer zoneId = zone.getZoneId();
+            if(completedZones.contains(zoneId)){
+                continue;
+            }
+            zoneRaffles.put(zoneId, CompletableFuture.supplyAsync(() -> zoneService.raffle(zoneId, progress.jobId()), raffleExecutor)
+                    .whenComplete((winners, error) -> {
+                        if(error == null){
+                            progress.zoneDone(zoneId, winners);
+                        } else {
+                            progress.zoneFailed(zoneId);
+                        }
+                    }));
+        }
+
+        // wait for all of them, a failing zone should not stop us from waiting for the others.
+        List<Integer> failedZones = new ArrayList<>();
+        for(Map.Entry<Integer, CompletableFuture<List<User>>> zoneRaffle : zoneRaffles.entrySet()){
+            try {
+                zoneRaffle.getValue().join();
+            } catch (CompletionException e) {
+                log.error("raffle for zone " + zoneRaffle.getKey() + " of event " + id + " failed", e.getCause());
+                failedZones.add(zoneRaffle.getKey());
+            }
+        }
+        if(!failedZones.isEmpty()){
+            log.warn("event " + id + " raffled with " + failedZones.size() + " failed zone(s): " + failedZones);
         }
 
+        // saving the whole event would merge its stale zones (and their tickets) back over the raffle results.
         event.setRaffleRound(event.getRaffleRound() + 1);
-        eventRepository.save(event);
+        eventRepository.finishRaffleRound(event.getEventId());
         return;
     }
 }
@@ -0,0 +1,195 @@
+package com.swiftyticket.services.implementations;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.GateConfig;
+import com.swiftyticket.dto.gate.GateScanRequest;
+import com.swiftyticket.dto.gate.ScanResult;
+import com.swiftyticket.dto.gate.ScanStatus;
+import com.swiftyticket.dto.gate.TicketClaims;
+import com.swiftyticket.models.CheckIn;
+import com.swiftyticket.repositories.CheckInBatchRepository;
+import com.swiftyticket.services.GateService;
+import com.swiftyticket.services.TicketCodeService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Checks tickets in at the venue gates without touching the DB on the request path.
+ * A scanned code is verified by its signature alone, and whether the ticket already got in is answered from a
+ * compressed bitmap (Roaring) of the ticket ids admitted to each event. Check-ins are queued and written to the DB in
+ * batches in the background; the bitmaps are loaded back from them on start up.
+ * A bitmap is only read or changed while holding it, once per request rather than once per code.
+ * Admissions are per node: scanners of an event should report to the same node, the check-ins table keeps the first
+ * check-in of a ticket if two nodes admit it. Tickets revoked by a declined payment are read back from the DB every
+ * `gate.revokedRefreshIntervalMillis`, so a gate also turns away tickets whose payment was declined on another node.
+ */
+@Service
+@Slf4j
+public class GateServiceImpl implements GateService {
+    private final TicketCodeService ticketCodeService;
+    private final CheckInBatchRepository checkInBatchRepository;
+    private final GateConfig gateConfig;
+    private final Map<Integer, RoaringBitmap> admitted = new ConcurrentHashMap<>();
+    // guarded by itself
+    private final RoaringBitmap revoked = new RoaringBitmap();
+    private final BlockingQueue<CheckIn> pending;
+
+    public GateServiceImpl(TicketCodeService ticketCodeService, CheckInBatchRepository checkInBatchRepository, GateConfig gateConfig) {
+        this.ticketCodeService = ticketCodeService;
+        this.checkInBatchRepository = checkInBatchRepository;
+        this.gateConfig = gateConfig;
+        this.pending = new ArrayBlockingQueue<>(gateConfig.getQueueCapacity());
+    }
+
+    /**
+     * Verifies a batch of codes scanned at an event's gate and admits the valid ones, once each.
+     * @param scanRequest -> the event of the gate and the codes scanned there
+     * @return List<ScanResult> -> a verdict per code, in the order they were sent
+     */
+    @Override
+    public List<ScanResult> verify(GateScanRequest scanRequest) {
+        Integer eventId = scanRequest.getEventId();
+        LocalDate today = LocalDate.now();
+        List<ScanResult> results = new ArrayList<>(scanRequest.getCodes().size());
+        List<ScanResult> toAdmit = new ArrayList<>();
+        for(String code : scanRequest.getCodes()){
+            TicketClaims claims = code == null ? null : ticketCodeService.verify(code);
+            ScanResult result;
+            if(claims == null){
+                result = new ScanResult(code, ScanStatus.INVALID, null, null);
+            } else if(!claims.getEventId().equals(eventId)){
+                result = new ScanResult(code, ScanStatus.WRONG_EVENT, claims.getTicketId(), claims.getZoneId());
+            } else if(gateConfig.isCheckDate() && !claims.getDate().equals(today)){
+                result = new ScanResult(code, ScanStatus.WRONG_DATE, claims.getTicketId(), claims.getZoneId());
+            } else {
+                result = new ScanResult(code, ScanStatus.ADMITTED, claims.getTicketId(), claims.getZoneId());
+                toAdmit.add(result);
+            }
+            results.add(result);
+        }
+        if(toAdmit.isEmpty()){
+            return results;
+        }
+
+        synchronized(revoked){
+            for(ScanResult result : toAdmit){
+                if(revoked.contains(result.getTicketId())){
+                    result.setStatus(ScanStatus.REVOKED);
+                }
+            }
+        }
+        List<CheckIn> checkIns = new ArrayList<>(toAdmit.size());
+        Date now = new Date();
+        RoaringBitmap eventAdmitted = admitted.computeIfAbsent(eventId, id -> new RoaringBitmap());
+        synchronized(eventAdmitted){
+            for(ScanResult result : toAdmit){
+                if(result.getStatus() != ScanStatus.ADMITTED){
+                    continue;
+                }
+                if(eventAdmitted.checkedAdd(result.getTicketId())){
+                    checkIns.add(new CheckIn(result.getTicketId(), eventId, now));
+                } else {
+                    result.setStatus(ScanStatus.ALREADY_ADMITTED);
+                }
+            }
+        }
+        for(CheckIn checkIn : checkIns){
+            if(!pending.offer(checkIn)){
+                // the writer is behind, this one is written on the request instead of dropped
+                checkInBatchRepository.saveCheckIns(List.of(checkIn));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stops a ticket from getting in, e.g. once its payment is declined.
+     * @param ticketId -> the ticket to turn away
+     */
+    @Override
+    public void revoke(Integer ticketId) {
+        synchronized(revoked){
+            revoked.add(ticketId);
+        }
+    }
+
+    /**
+     * Writes the queued check-ins to the DB, in batches.
+     * If a batch can't be written, it is queued again for the next flush.
+     * @return int -> how many check-ins were written
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${gate.flushIntervalMillis:200}")
+    public int flushCheckIns() {
+        int written = 0;
+        List<CheckIn> batch = new ArrayList<>(Math.min(gateConfig.getFlushBatchSize(), pending.size() + 1));
+        while(pending.drainTo(batch, gateConfig.getFlushBatchSize()) > 0){
+            try {
+                checkInBatchRepository.saveCheckIns(batch);
+                written += batch.size();
+            } catch (RuntimeException e) {
+                log.error("writing " + batch.size() + " check-ins failed, retrying on the next flush", e);
+                batch.forEach(pending::offer);
+                break;
+            }
+            batch.clear();
+        }
+        return written;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushCheckIns();
+    }
+
+    /**
+     * Reads the tickets revoked by declined payments back from the DB, including those declined on other nodes.
+     * @return int -> how many tickets are revoked
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${gate.revokedRefreshIntervalMillis:5000}")
+    public int refreshRevoked() {
+        RoaringBitmap loadedRevoked = new RoaringBitmap();
+        checkInBatchRepository.forEachRevokedTicket(loadedRevoked::add);
+        synchronized(revoked){
+            revoked.or(loadedRevoked);
+            return revoked.getCardinality();
+        }
+    }
+
+    /**
+     * Loads every check-in and revoked ticket in the DB once the application is up.
+     * The bitmaps are built on the side and merged in, so tickets admitted while this runs are not lost.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Integer, RoaringBitmap> loaded = new HashMap<>();
+        checkInBatchRepository.forEachCheckIn((eventId, ticketId) -> loaded.computeIfAbsent(eventId, id -> new RoaringBitmap()).add(ticketId));
+        for(Map.Entry<Integer, RoaringBitmap> event : loaded.entrySet()){
+            RoaringBitmap eventAdmitted = admitted.computeIfAbsent(event.getKey(), id -> new RoaringBitmap());
+            synchronized(eventAdmitted){
+                eventAdmitted.or(event.getValue());
+                eventAdmitted.runOptimize();
+            }
+        }
+        int revokedTickets = refreshRevoked();
+        log.info("gate loaded the check-ins of " + loaded.size() + " events and " + revokedTickets + " revoked tickets");
+    }
+}
@@ -0,0 +1,166 @@
+package com.swiftyticket.services.implementations;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftyticket.config.IdempotencyConfig;
+import com.swiftyticket.exceptions.InvalidIdempotencyKeyException;
+import com.swiftyticket.models.IdempotencyRecord;
+import com.swiftyticket.repositories.IdempotencyRecordRepository;
+import com.swiftyticket.services.IdempotencyService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a request sent with an Idempotency-Key once, and replays its response to every retry.
+ * Responses are recorded in the same transaction as the request's own writes, so a request that went through always
+ * has its response recorded. Retries are answered from a bounded LRU of recent responses, falling back to the DB
+ * for the ones that were evicted (or recorded before a restart). Duplicates that arrive while the first one is still
+ * running wait for it and get its outcome instead of running again.
+ * Only responses are recorded: a request that fails is not, so a retry runs it again.
+ */
+@Service
+@Slf4j
+public class IdempotencyServiceImpl implements IdempotencyService {
+    // Sent with replayed responses
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final IdempotencyConfig idempotencyConfig;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, IdempotencyRecord> recent;
+    private final Map<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository, IdempotencyConfig idempotencyConfig,
+                                  ObjectMapper objectMapper, PlatformTransactionManager transactionManager) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.idempotencyConfig = idempotencyConfig;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        int cacheSize = idempotencyConfig.getCacheSize();
+        this.recent = Collections.synchronizedMap(new LinkedHashMap<String, IdempotencyRecord>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Runs a request once per key, or replays the response it got the first time.
+     * @param owner -> who sent the request (keys are only unique per user)
+     * @param key -> the Idempotency-Key sent with the request
+     * @param request -> method and path of the request, a key can't be reused for another one
+     * @param action -> runs the request
+     * @throws InvalidIdempotencyKeyException -> if the key is blank, too long or was used for another request
+     * @return ResponseEntity<?> -> the response of the request, replayed as the JSON recorded the first time
+     */
+    @Override
+    public ResponseEntity<?> execute(String owner, String key, String request, Supplier<ResponseEntity<?>> action) {
+        if(key.isBlank() || key.length() > MAX_KEY_LENGTH){
+            throw new InvalidIdempotencyKeyException("it must be 1 to " + MAX_KEY_LENGTH + " characters long");
+        }
+        String scopedKey = owner + ":" + key;
+        IdempotencyRecord recorded = lookup(scopedKey);
+        if(recorded != null){
+            return replay(recorded, request);
+        }
+
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(scopedKey, mine);
+        if(running != null){
+            try {
+                return replay(running.join(), request);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            // the first request may have finished between the lookup and this one taking over the key
+            recorded = lookup(scopedKey);
+            if(recorded != null){
+                mine.complete(recorded);
+                return replay(recorded, request);
+            }
+            IdempotencyRecord[] record = new IdempotencyRecord[1];
+            ResponseEntity<?> response = transactionTemplate.execute(status -> {
+                ResponseEntity<?> result = action.get();
+                record[0] = new IdempotencyRecord(scopedKey, request, result.getStatusCode().value(), toJson(result.getBody()), new Date());
+                idempotencyRecordRepository.insertIfAbsent(scopedKey, request, record[0].getStatus(), record[0].getBody(), record[0].getCreatedAt());
+                return result;
+            });
+            recent.put(scopedKey, record[0]);
+            mine.complete(record[0]);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    /**
+     * Deletes the recorded responses that are past their ttl.
+     * @return int -> how many were deleted
+     */
+    @Override
+    @Scheduled(fixedRateString = "${idempotency.purgeIntervalMillis:3600000}")
+    public int purgeExpired() {
+        int purged = idempotencyRecordRepository.deleteCreatedBefore(new Date(System.currentTimeMillis() - idempotencyConfig.getTtl().toMillis()));
+        if(purged > 0){
+            log.info("purged " + purged + " expired idempotency records");
+        }
+        return purged;
+    }
+
+    private IdempotencyRecord lookup(String scopedKey) {
+        IdempotencyRecord recorded = recent.get(scopedKey);
+        if(recorded == null){
+            recorded = idempotencyRecordRepository.findById(scopedKey).orElse(null);
+            if(recorded == null){
+                return null;
+            }
+            recent.put(scopedKey, recorded);
+        }
+        if(System.currentTimeMillis() - recorded.getCreatedAt().getTime() > idempotencyConfig.getTtl().toMillis()){
+            return null;
+        }
+        return recorded;
+    }
+
+    private ResponseEntity<?> replay(IdempotencyRecord recorded, String request) {
+        if(!recorded.getRequest().equals(request)){
+            throw new InvalidIdempotencyKeyException("it was already used for another request");
+        }
+        return ResponseEntity.status(recorded.getStatus())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(REPLAYED_HEADER, "true")
+                .body(recorded.getBody());
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("could not record the response", e);
+        }
+    }
+}
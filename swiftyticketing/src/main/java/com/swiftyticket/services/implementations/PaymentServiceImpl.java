@@ -0,0 +1,196 @@
+package com.swiftyticket.services.implementations;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.PaymentConfig;
+import com.swiftyticket.dto.payment.GatewayResult;
+import com.swiftyticket.dto.payment.OutboxEntry;
+import com.swiftyticket.dto.payment.PaymentCharge;
+import com.swiftyticket.exceptions.PaymentNotFoundException;
+import com.swiftyticket.models.Payment;
+import com.swiftyticket.models.PaymentOutbox;
+import com.swiftyticket.models.PaymentStatus;
+import com.swiftyticket.models.Ticket;
+import com.swiftyticket.repositories.PaymentOutboxBatchRepository;
+import com.swiftyticket.repositories.PaymentOutboxRepository;
+import com.swiftyticket.repositories.PaymentRepository;
+import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.GateService;
+import com.swiftyticket.services.PaymentGateway;
+import com.swiftyticket.services.PaymentService;
+
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Payments for purchased tickets, sent to the payment gateway through a transactional outbox.
+ * A purchase writes its ticket, a pending payment and an outbox entry in its own transaction and returns; the gateway
+ * is never called on the request path. The outbox is polled and drained by a pool of workers: a captured payment is
+ * marked so, a declined one revokes its ticket (at the gate too), and an attempt that fails is retried with a growing backoff until
+ * it is given up and declined. Entries are claimed with SKIP LOCKED, so any number of nodes can drain the same outbox.
+ * An entry can be sent twice if a worker dies after charging it, the payment id is passed as the gateway's idempotency key.
+ */
+@Service
+@Slf4j
+public class PaymentServiceImpl implements PaymentService {
+    private final PaymentRepository paymentRepository;
+    private final PaymentOutboxRepository paymentOutboxRepository;
+    private final PaymentOutboxBatchRepository paymentOutboxBatchRepository;
+    private final ZoneRepository zoneRepository;
+    private final PaymentGateway paymentGateway;
+    private final GateService gateService;
+    private final PaymentConfig paymentConfig;
+    private final ExecutorService paymentExecutor;
+    // payments claimed by this node that a worker has not finished yet
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public PaymentServiceImpl(PaymentRepository paymentRepository, PaymentOutboxRepository paymentOutboxRepository,
+                              PaymentOutboxBatchRepository paymentOutboxBatchRepository, ZoneRepository zoneRepository,
+                              PaymentGateway paymentGateway, GateService gateService, PaymentConfig paymentConfig,
+                              @Qualifier("paymentExecutor") ExecutorService paymentExecutor) {
+        this.paymentRepository = paymentRepository;
+        this.paymentOutboxRepository = paymentOutboxRepository;
+        this.paymentOutboxBatchRepository = paymentOutboxBatchRepository;
+        this.zoneRepository = zoneRepository;
+        this.paymentGateway = paymentGateway;
+        this.gateService = gateService;
+        this.paymentConfig = paymentConfig;
+        this.paymentExecutor = paymentExecutor;
+    }
+
+    /**
+     * Returns a list of all payments in the DB.
+     * @return List<Payment>
+     */
+    @Override
+    public List<Payment> listPayments() {
+        return paymentRepository.findAll();
+    }
+
+    /**
+     * Returns a single payment based on the payment ID.
+     * @param id -> Integer payment ID (Unique identifier)
+     * @throws PaymentNotFoundException -> if the payment ID does not exist in the DB
+     * @return Payment -> Payment object with the specified ID
+     */
+    @Override
+    public Payment getPayment(Integer id) {
+        return paymentRepository.findById(id).orElseThrow(() -> new PaymentNotFoundException(id));
+    }
+
+    @Override
+    public Payment addPayment(Payment payment) {
+        return paymentRepository.save(payment);
+    }
+
+    /**
+     * Updates the date and amount of a payment.
+     * @param id -> Integer payment ID (Unique identifier)
+     * @param newPaymentInfo -> the new date and amount
+     * @throws PaymentNotFoundException -> if the payment ID does not exist in the DB
+     * @return Payment -> the updated payment
+     */
+    @Override
+    public Payment updatePayment(Integer id, Payment newPaymentInfo) {
+        Payment payment = getPayment(id);
+        payment.setPurchaseDate(newPaymentInfo.getPurchaseDate());
+        payment.setAmountPaid(newPaymentInfo.getAmountPaid());
+        return paymentRepository.save(payment);
+    }
+
+    @Override
+    public void deletePayment(Integer id) {
+        if(!paymentRepository.existsById(id)){
+            throw new PaymentNotFoundException(id);
+        }
+        paymentRepository.deleteById(id);
+    }
+
+    /**
+     * Records the pending payment for a ticket that was just purchased, and queues it for the gateway.
+     * Joins the purchase's transaction, so the ticket, the payment and the outbox entry are kept or lost together.
+     * @param ticket -> the ticket that was purchased (already saved)
+     * @param zoneId -> the zone of the ticket, for its price
+     * @return Payment -> the pending payment
+     */
+    @Override
+    @Transactional
+    public Payment recordPayment(Ticket ticket, Integer zoneId) {
+        Payment payment = Payment.builder()
+                .purchaseDate(new Date())
+                .amountPaid(zoneRepository.findTicketPrice(zoneId).orElse(0.0))
+                .status(PaymentStatus.PENDING)
+                .ticketId(ticket.getTicketId())
+                .userEmail(ticket.getUserEmail())
+                .build();
+        paymentRepository.save(payment);
+        paymentOutboxRepository.save(new PaymentOutbox(payment.getId()));
+        return payment;
+    }
+
+    /**
+     * Claims the payments that are due in the outbox and hands them to the worker pool, without waiting for them.
+     * A node never has more than `payments.batchSize` payments claimed and unfinished, so a poll only claims what
+     * the workers have room for, and the scheduler thread is free again as soon as they are handed over.
+     * @return int -> how many payments were claimed
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${payments.pollIntervalMillis:500}")
+    public int processOutbox() {
+        int room = paymentConfig.getBatchSize() - inFlight.get();
+        if(room <= 0){
+            return 0;
+        }
+        List<OutboxEntry> claimed = paymentOutboxBatchRepository.claimDue(room, paymentConfig.getLease());
+        inFlight.addAndGet(claimed.size());
+        for(OutboxEntry entry : claimed){
+            paymentExecutor.execute(() -> {
+                try {
+                    send(entry);
+                } catch (RuntimeException e) {
+                    // the lease runs out and the entry is claimed again
+                    log.error("sending payment " + entry.getPaymentId() + " failed", e);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        return claimed.size();
+    }
+
+    private void send(OutboxEntry entry) {
+        GatewayResult result;
+        try {
+            result = paymentGateway.charge(new PaymentCharge(entry.getPaymentId(), entry.getAmount(), entry.getUserEmail()));
+        } catch (RuntimeException e) {
+            if(entry.getAttempts() >= paymentConfig.getMaxAttempts()){
+                log.error("giving up on payment " + entry.getPaymentId() + " after " + entry.getAttempts() + " attempts", e);
+                decline(entry);
+                return;
+            }
+            Duration backoff = paymentConfig.getRetryBackoff().multipliedBy(1L << Math.min(entry.getAttempts() - 1, 20));
+            log.warn("payment " + entry.getPaymentId() + " failed, retrying in " + backoff + ": " + e.getMessage());
+            paymentOutboxBatchRepository.retryLater(entry.getOutboxId(), backoff, e.getMessage());
+            return;
+        }
+        if(result.isApproved()){
+            paymentOutboxBatchRepository.markCaptured(entry.getOutboxId(), entry.getPaymentId(), result.getReference());
+        } else {
+            log.warn("payment " + entry.getPaymentId() + " was declined: " + result.getDeclineReason());
+            decline(entry);
+        }
+    }
+
+    // the revoked ticket is turned away at the gate too, its signed code stays valid otherwise
+    private void decline(OutboxEntry entry) {
+        paymentOutboxBatchRepository.markDeclined(entry.getOutboxId(), entry.getPaymentId()).forEach(gateService::revoke);
+    }
+}
@@ -0,0 +1,211 @@
+package com.swiftyticket.services.implementations;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.RaffleConfig;
+import com.swiftyticket.dto.raffle.RaffleJobResponse;
+import com.swiftyticket.exceptions.EventNotFoundException;
+import com.swiftyticket.exceptions.OpenRegistrationRaffleException;
+import com.swiftyticket.exceptions.RaffleJobNotFoundException;
+import com.swiftyticket.models.Event;
+import com.swiftyticket.models.RaffleJob;
+import com.swiftyticket.models.RaffleJobStatus;
+import com.swiftyticket.models.User;
+import com.swiftyticket.repositories.RaffleJobRepository;
+import com.swiftyticket.services.EventService;
+import com.swiftyticket.services.RaffleJobService;
+import com.swiftyticket.services.RaffleProgress;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@Slf4j
+public class RaffleJobServiceImpl implements RaffleJobService {
+    private final RaffleJobRepository raffleJobRepository;
+    private final EventService eventService;
+    private final ExecutorService raffleJobExecutor;
+    private final RaffleConfig raffleConfig;
+
+    // Jobs this node has queued or is running, their leases are renewed until they end
+    private final Set<Integer> ownJobs = ConcurrentHashMap.newKeySet();
+
+    public RaffleJobServiceImpl(RaffleJobRepository raffleJobRepository, EventService eventService, @Qualifier("raffleJobExecutor") ExecutorService raffleJobExecutor,
+                                RaffleConfig raffleConfig) {
+        this.raffleJobRepository = raffleJobRepository;
+        this.eventService = eventService;
+        this.raffleJobExecutor = raffleJobExecutor;
+        this.raffleConfig = raffleConfig;
+    }
+
+    /**
+     * Queues up the raffle of an event as a background job and returns straight away.
+     * The checks that used to fail the raffle request (unknown event, event still open) are still done up front.
+     * An event only ever has one job queued or running: submitting again returns that job instead of starting
+     * a second raffle over the same registrants (the unique active_event_id column holds this across nodes too).
+     * @param eventId -> Integer event ID (Unique identifier)
+     * @throws EventNotFoundException -> if the event ID does not exist in the DB
+     * @throws OpenRegistrationRaffleException -> if the event is still open for registration
+     * @return RaffleJobResponse -> the queued (or already active) job, its id can be used to poll its progress
+     */
+    @Override
+    public RaffleJobResponse submitRaffle(Integer eventId) {
+        Event event = eventService.getEvent(eventId);
+        if(event.getOpenStatus()){
+            throw new OpenRegistrationRaffleException("please close the event before raffling.");
+        }
+
+        RaffleJob active = raffleJobRepository.findByActiveEventId(eventId).orElse(null);
+        if(active != null){
+            log.info("raffle job " + active.getJobId() + " is already active for event " + eventId);
+            return toResponse(active);
+        }
+
+        RaffleJob job;
+        try {
+            job = raffleJobRepository.save(new RaffleJob(eventId, event.getZoneList().size(), leaseUntil()));
+        } catch (DataIntegrityViolationException e) {
+            // another request queued a job for the event in between.
+            return raffleJobRepository.findByActiveEventId(eventId).map(this::toResponse).orElseThrow(() -> e);
+        }
+        Integer jobId = job.getJobId();
+        ownJobs.add(jobId);
+        raffleJobExecutor.submit(() -> runJob(jobId));
+        log.info("queued raffle job " + jobId + " for event " + eventId);
+        return toResponse(job);
+    }
+
+    /**
+     * Returns the progress of a raffle job.
+     * @param eventId -> the event the job belongs to
+     * @param jobId -> the unique identifier of the job
+     * @throws RaffleJobNotFoundException -> if there is no such job for the event
+     * @return RaffleJobResponse -> zones done, winners drawn, notifications queued and time elapsed so far
+     */
+    @Override
+    public RaffleJobResponse getJob(Integer eventId, Integer jobId) {
+        return raffleJobRepository.findByJobIdAndEventId(jobId, eventId)
+                .map(this::toResponse)
+                .orElseThrow(() -> new RaffleJobNotFoundException(eventId, jobId));
+    }
+
+    /**
+     * Renews the leases of the jobs this node is working on, then picks up the jobs still queued or running
+     * whose lease ran out because the node that had them went down.
+     * Claiming is one conditional update, so every job is resumed by exactly one node.
+     * Zones they had already finished are skipped, the rest of the event is raffled as usual.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${raffle.jobResumeIntervalMillis:30000}")
+    public void resumeInterruptedJobs() {
+        if(!ownJobs.isEmpty()){
+            raffleJobRepository.renewLeases(Set.copyOf(ownJobs), leaseUntil());
+        }
+
+        List<Integer> interrupted = raffleJobRepository.claimAbandoned(new Date(), leaseUntil());
+        for(Integer jobId : interrupted){
+            log.info("resuming raffle job " + jobId);
+            ownJobs.add(jobId);
+            raffleJobExecutor.submit(() -> runJob(jobId));
+        }
+    }
+
+    /**
+     * Runs a raffle job on a worker thread, recording every finished zone as it goes.
+     * @param jobId -> the unique identifier of the job
+     */
+    private void runJob(Integer jobId) {
+        try {
+            RaffleJob job = raffleJobRepository.findById(jobId).orElse(null);
+            if(job != null && job.getActiveEventId() != null){
+                runJob(job);
+            }
+        } finally {
+            ownJobs.remove(jobId);
+        }
+    }
+
+    private void runJob(RaffleJob job) {
+        Integer jobId = job.getJobId();
+        job.setStatus(RaffleJobStatus.RUNNING);
+        if(job.getStartedAt() == null){
+            job.setStartedAt(new Date());
+        }
+        job = raffleJobRepository.save(job);
+
+        Set<Integer> completedZones = new HashSet<>(job.getCompletedZones());
+        RaffleJobStatus outcome = RaffleJobStatus.COMPLETED;
+        try {
+            eventService.raffle(job.getEventId(), new RaffleProgress() {
+                @Override
+                public Integer jobId() {
+                    return jobId;
+                }
+
+                @Override
+                public Set<Integer> completedZones() {
+                    return completedZones;
+                }
+
+                @Override
+                public void zoneDone(Integer zoneId, List<User> winners) {
+                    // the zone itself was already recorded as completed, together with its winners.
+                    // every winner with a phone number gets a congratulation SMS queued.
+                    int notifications = (int) winners.stream().filter(u -> u.getPhoneNumber() != null).count();
+                    raffleJobRepository.recordZoneDone(jobId, winners.size(), notifications);
+                }
+
+                @Override
+                public void zoneFailed(Integer zoneId) {
+                    raffleJobRepository.recordZoneFailed(jobId);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("raffle job " + jobId + " failed", e);
+            outcome = RaffleJobStatus.FAILED;
+        }
+
+        // reload, the progress counters were bumped in the DB while the raffle ran.
+        RaffleJob finished = raffleJobRepository.findById(jobId).orElse(job);
+        finished.setStatus(outcome);
+        finished.setFinishedAt(new Date());
+        finished.setActiveEventId(null);
+        raffleJobRepository.save(finished);
+        log.info("raffle job " + jobId + " " + outcome + ": " + finished.getWinnersDrawn() + " winners drawn");
+    }
+
+    private Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + raffleConfig.getJobLease().toMillis());
+    }
+
+    private RaffleJobResponse toResponse(RaffleJob job) {
+        long elapsed = 0;
+        if(job.getStartedAt() != null){
+            Date end = job.getFinishedAt() != null ? job.getFinishedAt() : new Date();
+            elapsed = end.getTime() - job.getStartedAt().getTime();
+        }
+        return RaffleJobResponse.builder()
+                .jobId(job.getJobId())
+                .eventId(job.getEventId())
+                .status(job.getStatus())
+                .zonesTotal(job.getZonesTotal())
+                .zonesDone(job.getZonesDone())
+                .zonesFailed(job.getZonesFailed())
+                .winnersDrawn(job.getWinnersDrawn())
+                .notificationsQueued(job.getNotificationsQueued())
+                .elapsedMillis(elapsed)
+                .build();
+    }
+}
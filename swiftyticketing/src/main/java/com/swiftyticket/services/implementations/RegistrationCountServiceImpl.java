@@ -0,0 +1,55 @@
+package com.swiftyticket.services.implementations;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.dto.zone.RegistrationCounts;
+import com.swiftyticket.exceptions.EventNotFoundException;
+import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.RegistrationCountService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the zones' and events' registration counts and keeps them honest.
+ * The counts are maintained with atomic increments and decrements as users join and win, a count can still drift
+ * (e.g. a join whose increment failed after its registration was written), so they are periodically recounted.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegistrationCountServiceImpl implements RegistrationCountService {
+    private final EventRepository eventRepository;
+    private final ZoneRepository zoneRepository;
+
+    /**
+     * Returns how many users are pre-registered for an event and for each of its zones.
+     * Only the counter columns are read, none of the event's zones or registrations are loaded.
+     * @param eventId -> Integer event ID (Unique identifier)
+     * @throws EventNotFoundException -> if the event ID does not exist in the DB
+     * @return RegistrationCounts -> the event's count and its zones' counts
+     */
+    @Override
+    public RegistrationCounts getCounts(Integer eventId) {
+        int registered = eventRepository.findUserCount(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+        return new RegistrationCounts(eventId, registered, zoneRepository.findRegisterCounts(eventId));
+    }
+
+    /**
+     * Corrects the counts that drifted from the registrations.
+     * A join committed while this runs can be overwritten by a count taken just before it, that is corrected on the next run.
+     * @return int -> how many zones and events were corrected
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${registration.reconcileIntervalMillis:300000}")
+    public int reconcile() {
+        int zones = zoneRepository.reconcileRegisterCounts();
+        int events = eventRepository.reconcileUserCounts();
+        if(zones + events > 0){
+            log.warn("reconciled the registration counts of " + zones + " zones and " + events + " events");
+        }
+        return zones + events;
+    }
+}
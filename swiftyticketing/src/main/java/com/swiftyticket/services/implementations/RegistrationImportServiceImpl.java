@@ -0,0 +1,209 @@
+package com.swiftyticket.services.implementations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.dto.zone.ImportRejection;
+import com.swiftyticket.dto.zone.ImportReport;
+import com.swiftyticket.dto.zone.ImportRow;
+import com.swiftyticket.dto.zone.PendingRegistration;
+import com.swiftyticket.exceptions.EventClosedException;
+import com.swiftyticket.exceptions.EventNotFoundException;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+import com.swiftyticket.services.RegistrationImportService;
+import com.swiftyticket.services.RegistrationIndex;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports pre-registrations in bulk (e.g. from partner box offices), from a CSV (`email,zoneId`) or NDJSON
+ * (`{"email": ..., "zoneId": ...}`) upload.
+ * The upload is read line by line and handled importBatchSize rows at a time: the emails of a batch are looked up in
+ * one query and its valid rows are written in one batch insert, so only one batch (and the rejections) is ever held in
+ * memory. Rows go through the same checks as a single join: the zone must be part of the event and a user is only
+ * registered once per event, whether the other registration is in the DB or earlier in the upload.
+ */
+@Service
+@Slf4j
+public class RegistrationImportServiceImpl implements RegistrationImportService {
+    private final RegistrationBatchRepository registrationBatchRepository;
+    private final RegistrationConfig registrationConfig;
+    private final RegistrationIndex registrationIndex;
+    private final ObjectMapper objectMapper;
+
+    public RegistrationImportServiceImpl(RegistrationBatchRepository registrationBatchRepository, RegistrationConfig registrationConfig,
+                                         RegistrationIndex registrationIndex, ObjectMapper objectMapper) {
+        this.registrationBatchRepository = registrationBatchRepository;
+        this.registrationConfig = registrationConfig;
+        this.registrationIndex = registrationIndex;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Pre-registers every valid row of an upload for the event and reports the rows that were not.
+     * @param eventId -> the event the rows are for
+     * @param upload -> the uploaded rows, one per line (a CSV may start with a header line)
+     * @param ndjson -> true if the upload is NDJSON, false if it is CSV
+     * @throws EventNotFoundException -> if the event ID does not exist in the DB
+     * @throws EventClosedException -> if the event is not open for pre-registration
+     * @return ImportReport -> how many rows were read and registered, and the rejected rows
+     */
+    @Override
+    public ImportReport importRegistrations(Integer eventId, InputStream upload, boolean ndjson) throws IOException {
+        boolean open = registrationBatchRepository.findOpenStatus(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+        if(!open){
+            throw new EventClosedException();
+        }
+        Import run = new Import(eventId, registrationBatchRepository.findZoneIds(eventId));
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(upload, StandardCharsets.UTF_8));
+        String line;
+        long row = 0;
+        while((line = reader.readLine()) != null){
+            row++;
+            if(line.isBlank() || (!ndjson && row == 1 && line.trim().toLowerCase().startsWith("email"))){
+                continue;
+            }
+            run.report.setRowsRead(run.report.getRowsRead() + 1);
+            ImportRow parsed = ndjson ? parseJson(line) : parseCsv(line);
+            if(parsed == null || parsed.getEmail() == null || parsed.getEmail().isBlank() || parsed.getZoneId() == null){
+                run.reject(row, parsed, "malformed row");
+                continue;
+            }
+            if(!run.zoneIds.contains(parsed.getZoneId())){
+                run.reject(row, parsed, "zone is not part of this event");
+                continue;
+            }
+            run.rows.add(new PendingRow(row, parsed.getEmail().trim(), parsed.getZoneId()));
+            if(run.rows.size() >= registrationConfig.getImportBatchSize()){
+                saveBatch(run);
+            }
+        }
+        saveBatch(run);
+        log.info("imported " + run.report.getRegistered() + " of " + run.report.getRowsRead() + " pre-registrations for event " + eventId);
+        return run.report;
+    }
+
+    private void saveBatch(Import run) {
+        if(run.rows.isEmpty()){
+            return;
+        }
+        Set<String> emails = new HashSet<>();
+        run.rows.forEach(pending -> emails.add(pending.email));
+        Map<String, Integer> userIds = registrationBatchRepository.findUserIds(emails);
+
+        List<PendingRow> valid = new ArrayList<>(run.rows.size());
+        List<PendingRegistration> batch = new ArrayList<>(run.rows.size());
+        for(PendingRow pending : run.rows){
+            Integer userId = userIds.get(pending.email);
+            if(userId == null){
+                run.reject(pending, "no user with this email");
+            } else if(!run.taken.checkedAdd(userId)){
+                run.reject(pending, "already registered for this event");
+            } else {
+                valid.add(pending);
+                batch.add(new PendingRegistration(run.eventId, pending.zoneId, userId));
+            }
+        }
+
+        int[] inserted = batch.isEmpty() ? new int[0] : registrationBatchRepository.saveEachRegistration(batch);
+        for(int i=0; i<inserted.length; i++){
+            if(inserted[i] < 0){
+                // the event was closed while the upload was being imported
+                run.reject(valid.get(i), "pre-registration for this event is closed");
+                continue;
+            }
+            registrationIndex.markRegistered(run.eventId, batch.get(i).getUserId());
+            if(inserted[i] == 1){
+                run.report.setRegistered(run.report.getRegistered() + 1);
+            } else {
+                run.reject(valid.get(i), "already registered for this event");
+            }
+        }
+        run.rows.clear();
+    }
+
+    private static ImportRow parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if(fields.length != 2){
+            return null;
+        }
+        try {
+            return new ImportRow(unquote(fields[0]), Integer.valueOf(unquote(fields[1])));
+        } catch (NumberFormatException e) {
+            return new ImportRow(unquote(fields[0]), null);
+        }
+    }
+
+    private ImportRow parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ImportRow.class);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static String unquote(String field) {
+        String trimmed = field.trim();
+        if(trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")){
+            return trimmed.substring(1, trimmed.length() - 1).trim();
+        }
+        return trimmed;
+    }
+
+    // A row that passed the checks that need no DB, waiting for its batch.
+    private static class PendingRow {
+        private final long row;
+        private final String email;
+        private final Integer zoneId;
+
+        private PendingRow(long row, String email, Integer zoneId) {
+            this.row = row;
+            this.email = email;
+            this.zoneId = zoneId;
+        }
+    }
+
+    // The state of one import as it goes through the upload.
+    private class Import {
+        private final Integer eventId;
+        private final Set<Integer> zoneIds;
+        private final List<PendingRow> rows = new ArrayList<>();
+        // users registered by this upload so far
+        private final RoaringBitmap taken = new RoaringBitmap();
+        private final ImportReport report;
+
+        private Import(Integer eventId, Set<Integer> zoneIds) {
+            this.eventId = eventId;
+            this.zoneIds = zoneIds;
+            this.report = new ImportReport(eventId, 0, 0, 0, new ArrayList<>(), false);
+        }
+
+        private void reject(PendingRow pending, String reason) {
+            reject(pending.row, new ImportRow(pending.email, pending.zoneId), reason);
+        }
+
+        private void reject(long row, ImportRow parsed, String reason) {
+            report.setRejected(report.getRejected() + 1);
+            if(report.getRejections().size() >= registrationConfig.getImportMaxReportedRejections()){
+                report.setRejectionsTruncated(true);
+                return;
+            }
+            report.getRejections().add(new ImportRejection(row, parsed == null ? null : parsed.getEmail(), parsed == null ? null : parsed.getZoneId(), reason));
+        }
+    }
+}
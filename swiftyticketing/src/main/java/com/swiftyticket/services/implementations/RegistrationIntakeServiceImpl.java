@@ -0,0 +1,337 @@
+package com.swiftyticket.services.implementations;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.dto.zone.PendingRegistration;
+import com.swiftyticket.dto.zone.PreRegisterRequest;
+import com.swiftyticket.dto.zone.RegistrationTarget;
+import com.swiftyticket.exceptions.AlreadyPreRegisteredException;
+import com.swiftyticket.exceptions.EventClosedException;
+import com.swiftyticket.exceptions.EventNotFoundException;
+import com.swiftyticket.exceptions.RegistrationQueueFullException;
+import com.swiftyticket.exceptions.UserNotFoundException;
+import com.swiftyticket.exceptions.ZoneNotFoundException;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+import com.swiftyticket.services.RegistrationIndex;
+import com.swiftyticket.services.RegistrationIntakeService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Takes pre-registrations during on-sale surges without a DB round trip per write.
+ * A pre-registration is checked, appended to a journal file and queued in memory, then acknowledged; a scheduled
+ * flush writes the queue to the DB in batches. Before every flush the journal is rotated into a segment holding
+ * exactly what is about to be written, and the segment is only deleted once all of it is in the DB, so whatever was
+ * acknowledged but not written when the application went down is replayed on the next start.
+ */
+@Service
+@Slf4j
+public class RegistrationIntakeServiceImpl implements RegistrationIntakeService {
+    private static final String SEGMENT_SUFFIX = ".flushing";
+
+    private final RegistrationBatchRepository registrationBatchRepository;
+    private final RegistrationConfig registrationConfig;
+    private final RegistrationIndex registrationIndex;
+    private final BlockingQueue<PendingRegistration> queue;
+    // segments rotated out of the journal that are not fully in the DB yet, oldest first
+    private final Deque<JournalSegment> pendingSegments = new ArrayDeque<>();
+    // zone of every acknowledged registration that is not in the DB yet, by event and user, so a retried join
+    // can be told apart from a join of another zone before it is flushed
+    private final Map<Long, Integer> pendingZones = new ConcurrentHashMap<>();
+    // guards the journal and the queue so every queued registration is in the journal it will be rotated with
+    private final Object journalLock = new Object();
+    private FileChannel journal;
+    private long segmentSequence;
+
+    public RegistrationIntakeServiceImpl(RegistrationBatchRepository registrationBatchRepository, RegistrationConfig registrationConfig,
+                                         RegistrationIndex registrationIndex) {
+        this.registrationBatchRepository = registrationBatchRepository;
+        this.registrationConfig = registrationConfig;
+        this.registrationIndex = registrationIndex;
+        this.queue = new ArrayBlockingQueue<>(registrationConfig.getQueueCapacity());
+    }
+
+    /**
+     * Checks a pre-registration and queues it to be written with the next flush.
+     * The event is checked to be open and the user to exist, same as a direct join, and the registration index turns
+     * away users already registered for the event, except a retry of a join of the same zone, which gets the same
+     * acknowledgement again without being queued twice. A user the index doesn't know about (e.g. registered on
+     * another node) is only caught once the registration is flushed, the duplicate is then dropped.
+     * @param registerRequest -> the email of the user joining
+     * @param eventId -> the event the user is joining
+     * @param zoneID -> the zone of the event the user is joining
+     * @throws EventNotFoundException -> if the event ID does not exist in the DB
+     * @throws ZoneNotFoundException -> if the zone is not part of the event
+     * @throws EventClosedException -> if pre-registration for the event is closed
+     * @throws UserNotFoundException -> if there is no user with the email
+     * @throws AlreadyPreRegisteredException -> if the user is already registered for another zone of the event
+     * @throws RegistrationQueueFullException -> if the queue is full, the client should retry later
+     * @return String -> acknowledgement that the pre-registration was received
+     */
+    @Override
+    public String submit(PreRegisterRequest registerRequest, Integer eventId, Integer zoneID) {
+        RegistrationTarget target = registrationBatchRepository.findTarget(eventId, zoneID).orElseThrow(() -> {
+            String eventName = registrationBatchRepository.findEventName(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+            return new ZoneNotFoundException("Invalid zone for " + eventName);
+        });
+        if(!target.isOpen()){
+            log.info("User tried to join when pre-registration was closed, Denied.");
+            throw new EventClosedException();
+        }
+        Integer userId = registrationBatchRepository.findUserId(registerRequest.getEmail()).orElseThrow(() -> new UserNotFoundException());
+
+        if(!registrationIndex.reserve(eventId, userId)){
+            // a retry of a join that was already acknowledged gets the same answer as the first attempt.
+            if(zoneID.equals(registeredZone(eventId, userId))){
+                return acknowledgement(target);
+            }
+            log.info("User tried to join when already pre-registered, Denied.");
+            throw new AlreadyPreRegisteredException(target.getEventName());
+        }
+        PendingRegistration registration = new PendingRegistration(eventId, zoneID, userId);
+        try {
+            synchronized(journalLock){
+                if(queue.remainingCapacity() == 0){
+                    throw new RegistrationQueueFullException();
+                }
+                appendToJournal(registration);
+                queue.add(registration);
+                pendingZones.put(key(registration), zoneID);
+            }
+        } catch (RuntimeException e) {
+            registrationIndex.release(eventId, userId);
+            throw e;
+        }
+        return acknowledgement(target);
+    }
+
+    /**
+     * Writes everything queued so far to the DB in batches of flushBatchSize.
+     * If a batch fails the rest is kept (in memory and on disk) and retried on the next flush, writing a batch twice is harmless.
+     * Registrations for an event that was closed after they were acknowledged are dropped and logged, the users are
+     * taken out of the registration index again.
+     * @return int -> how many pre-registrations were registered, duplicates and dropped ones not included
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${registration.flushIntervalMillis:200}")
+    public synchronized int flush() {
+        rotateJournal();
+        int registered = 0;
+        List<PendingRegistration> closed = new ArrayList<>();
+        while(!pendingSegments.isEmpty()){
+            JournalSegment segment = pendingSegments.peekFirst();
+            try {
+                while(!segment.registrations.isEmpty()){
+                    int size = Math.min(registrationConfig.getFlushBatchSize(), segment.registrations.size());
+                    List<PendingRegistration> batch = segment.registrations.subList(0, size);
+                    registered += registrationBatchRepository.saveRegistrations(new ArrayList<>(batch), closed::add);
+                    closed.forEach(registration -> registrationIndex.release(registration.getEventId(), registration.getUserId()));
+                    if(!closed.isEmpty()){
+                        log.warn("dropped " + closed.size() + " pre-registrations for events that closed before they were flushed: " + closed);
+                        closed.clear();
+                    }
+                    batch.forEach(registration -> pendingZones.remove(key(registration), registration.getZoneId()));
+                    batch.clear();
+                }
+                if(segment.path != null){
+                    Files.deleteIfExists(segment.path);
+                }
+            } catch (RuntimeException | IOException e) {
+                log.error("flushing pre-registrations from " + segment.path + " failed, retrying on the next flush", e);
+                break;
+            }
+            pendingSegments.pollFirst();
+        }
+        if(registered > 0){
+            log.info("flushed " + registered + " pre-registrations");
+        }
+        return registered;
+    }
+
+    /**
+     * Replays the journal segments left behind by the last run (and whatever is still in the journal) on start up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void replayJournal() {
+        Path journalPath = Paths.get(registrationConfig.getJournalPath());
+        Path directory = journalPath.toAbsolutePath().getParent();
+        if(directory == null || !Files.isDirectory(directory)){
+            return;
+        }
+        List<Path> leftovers = new ArrayList<>();
+        try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory, journalPath.getFileName() + ".*" + SEGMENT_SUFFIX)) {
+            segments.forEach(leftovers::add);
+        } catch (IOException e) {
+            log.error("could not list the pre-registration journal segments in " + directory, e);
+            return;
+        }
+        leftovers.sort(null);
+        if(Files.exists(journalPath)){
+            Path segmentPath = nextSegmentPath();
+            try {
+                Files.move(journalPath, segmentPath);
+                leftovers.add(segmentPath);
+            } catch (IOException e) {
+                log.error("could not rotate the pre-registration journal " + journalPath, e);
+            }
+        }
+        for(Path path : leftovers){
+            try {
+                List<PendingRegistration> registrations = readSegment(path);
+                // these were acknowledged, so the users count as registered before they are written.
+                registrations.forEach(registration -> {
+                    registrationIndex.markRegistered(registration.getEventId(), registration.getUserId());
+                    pendingZones.put(key(registration), registration.getZoneId());
+                });
+                pendingSegments.addLast(new JournalSegment(path, registrations));
+            } catch (IOException e) {
+                log.error("could not read the pre-registration journal segment " + path, e);
+            }
+        }
+        if(!pendingSegments.isEmpty()){
+            log.info("replaying " + pendingSegments.size() + " pre-registration journal segments");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        synchronized(journalLock){
+            closeJournal();
+        }
+    }
+
+    // The zone the user is registered for in the event: queued here, or else already in the DB.
+    private Integer registeredZone(Integer eventId, Integer userId) {
+        Integer pendingZone = pendingZones.get(key(eventId, userId));
+        return pendingZone != null ? pendingZone : registrationBatchRepository.findRegisteredZoneId(eventId, userId).orElse(null);
+    }
+
+    private static String acknowledgement(RegistrationTarget target) {
+        return "Received your pre-registration for: " + target.getZoneName() + " on " + target.getZoneDate() + " for " + target.getEventName();
+    }
+
+    private static long key(PendingRegistration registration) {
+        return key(registration.getEventId(), registration.getUserId());
+    }
+
+    private static long key(Integer eventId, Integer userId) {
+        return ((long) eventId << 32) | (userId & 0xffffffffL);
+    }
+
+    // Must be called holding journalLock.
+    private void appendToJournal(PendingRegistration registration) {
+        String line = registration.getEventId() + "," + registration.getZoneId() + "," + registration.getUserId() + "\n";
+        try {
+            if(journal == null){
+                Path journalPath = Paths.get(registrationConfig.getJournalPath());
+                Path directory = journalPath.toAbsolutePath().getParent();
+                if(directory != null){
+                    Files.createDirectories(directory);
+                }
+                journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+            while(buffer.hasRemaining()){
+                journal.write(buffer);
+            }
+            if(registrationConfig.isJournalSync()){
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            // without the journal entry the registration could be lost, so it is not acknowledged.
+            log.error("could not write to the pre-registration journal", e);
+            throw new RegistrationQueueFullException();
+        }
+    }
+
+    // Moves the journal and everything queued with it into a new pending segment.
+    private void rotateJournal() {
+        synchronized(journalLock){
+            if(queue.isEmpty()){
+                return;
+            }
+            List<PendingRegistration> drained = new ArrayList<>(queue.size());
+            queue.drainTo(drained);
+            closeJournal();
+            Path journalPath = Paths.get(registrationConfig.getJournalPath());
+            Path segmentPath = nextSegmentPath();
+            try {
+                Files.move(journalPath, segmentPath);
+            } catch (IOException e) {
+                // the entries stay in the journal and are replayed (again, harmlessly) on the next start.
+                log.error("could not rotate the pre-registration journal " + journalPath, e);
+                segmentPath = null;
+            }
+            pendingSegments.addLast(new JournalSegment(segmentPath, drained));
+        }
+    }
+
+    private void closeJournal() {
+        if(journal == null){
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            log.error("could not close the pre-registration journal", e);
+        }
+        journal = null;
+    }
+
+    // Segment names sort in the order they were rotated in.
+    private Path nextSegmentPath() {
+        segmentSequence++;
+        return Paths.get(registrationConfig.getJournalPath() + "." + String.format("%020d", System.currentTimeMillis()) + "-" + String.format("%06d", segmentSequence) + SEGMENT_SUFFIX);
+    }
+
+    private static List<PendingRegistration> readSegment(Path path) throws IOException {
+        List<PendingRegistration> registrations = new ArrayList<>();
+        for(String line : Files.readAllLines(path, StandardCharsets.UTF_8)){
+            String[] fields = line.split(",");
+            // a line cut short by a crash was never acknowledged, skip it.
+            if(fields.length != 3){
+                continue;
+            }
+            try {
+                registrations.add(new PendingRegistration(Integer.valueOf(fields[0]), Integer.valueOf(fields[1]), Integer.valueOf(fields[2])));
+            } catch (NumberFormatException e) {
+                log.warn("skipping malformed pre-registration journal line: " + line);
+            }
+        }
+        return registrations;
+    }
+
+    private static class JournalSegment {
+        private final Path path;
+        private final List<PendingRegistration> registrations;
+
+        private JournalSegment(Path path, List<PendingRegistration> registrations) {
+            this.path = path;
+            this.registrations = registrations;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.swiftyticket.services.implementations;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.services.RaffleEngine;
+import com.swiftyticket.services.RaffleSampler;
+
+@Service
+public class ReservoirRaffleEngine implements RaffleEngine {
+
+    /**
+     * Draws the winners of a raffle using reservoir sampling (Algorithm R).
+     * Every user in the pool ends up in the reservoir with probability winners / pool size,
+     * which is the same winner/loser split the old "roll a number and remove the winner" loop produced,
+     * but in a single O(n) pass and with only O(k) extra memory (the reservoir itself).
+     * @param userIds -> ids of all the users taking part in the raffle
+     * @param winners -> number of seats up for grabs
+     * @return int[] -> ids of the winning users
+     */
+    @Override
+    public int[] draw(int[] userIds, int winners) {
+        int k = Math.max(0, Math.min(winners, userIds.length));
+        // everyone wins if there are enough seats (and nobody does if there are none), no need to roll anything.
+        int[] reservoir = Arrays.copyOf(userIds, k);
+        if (k == 0 || k == userIds.length) {
+            return reservoir;
+        }
+
+        ThreadLocalRandom rand = ThreadLocalRandom.current();
+        for (int i = k; i < userIds.length; i++) {
+            // roll a number between 0 -> i, if it lands inside the reservoir the current user takes that seat.
+            int luckyNumber = rand.nextInt(i + 1);
+            if (luckyNumber < k) {
+                reservoir[luckyNumber] = userIds[i];
+            }
+        }
+        return reservoir;
+    }
+
+    /**
+     * Draws the winners of a weighted raffle using the exponential-key scheme of Efraimidis and Spirakis.
+     * Every user gets the key ln(u) / weight for a random u in (0, 1], the k users with the highest keys win.
+     * That is exactly weighted sampling without replacement, and keeping only the top k keys in a min-heap
+     * makes it a single O(n log k) pass.
+     * @param userIds -> ids of all the users taking part in the raffle
+     * @param weights -> the odds of each user, weights[i] belongs to userIds[i]
+     * @param winners -> number of seats up for grabs
+     * @return int[] -> ids of the winning users
+     */
+    @Override
+    public int[] draw(int[] userIds, double[] weights, int winners) {
+        int k = Math.max(0, Math.min(winners, userIds.length));
+        if (k == 0 || k == userIds.length) {
+            return Arrays.copyOf(userIds, k);
+        }
+
+        RaffleSampler sampler = sampler(k);
+        for (int i = 0; i < userIds.length; i++) {
+            sampler.offer(userIds[i], weights[i]);
+        }
+        return sampler.winners();
+    }
+
+    /**
+     * Returns a bounded sampler for pools that are streamed in rather than held in an array.
+     * It uses the same exponential keys as the weighted draw, with every weight at 1 that is a plain uniform draw.
+     * @param winners -> number of seats up for grabs
+     * @return RaffleSampler -> keeps at most `winners` users at any time
+     */
+    @Override
+    public RaffleSampler sampler(int winners) {
+        return new TopKeySampler(Math.max(0, winners));
+    }
+
+    private static class TopKeySampler implements RaffleSampler {
+        private final int k;
+        // heap entries are {key, user id}, the lowest key sits on top so it can be pushed out.
+        private final PriorityQueue<double[]> top;
+        private final ThreadLocalRandom rand = ThreadLocalRandom.current();
+
+        TopKeySampler(int k) {
+            this.k = k;
+            this.top = new PriorityQueue<>(Math.max(1, k), (a, b) -> Double.compare(a[0], b[0]));
+        }
+
+        @Override
+        public void offer(int userId, double weight) {
+            if (k == 0) {
+                return;
+            }
+            double u = 1.0 - rand.nextDouble();
+            double key = weight > 0 ? Math.log(u) / weight : Double.NEGATIVE_INFINITY;
+            if (top.size() < k) {
+                top.add(new double[]{key, userId});
+            } else if (key > top.peek()[0]) {
+                top.poll();
+                top.add(new double[]{key, userId});
+            }
+        }
+
+        @Override
+        public int[] winners() {
+            int[] drawn = new int[top.size()];
+            int n = 0;
+            for (double[] entry : top) {
+                drawn[n++] = (int) entry[1];
+            }
+            return drawn;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.swiftyticket.services.implementations;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+import com.swiftyticket.services.RegistrationIndex;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps, for every event, a compressed bitmap (Roaring) of the ids of the users registered for it, so "has this user
+ * already joined the event?" is answered in memory in constant time instead of with a DB round trip.
+ * A bitmap is only read or changed while holding its event's lock. The locks are striped: events share a fixed
+ * number of them, so joins for the same event queue up on the bitmap but joins for other events mostly don't.
+ * The index is only a fast path, the unique (event, user) constraint on registrations still has the final say,
+ * e.g. for users who joined through another node or before the index was loaded.
+ */
+@Service
+@Slf4j
+public class RoaringRegistrationIndex implements RegistrationIndex {
+    private final RegistrationBatchRepository registrationBatchRepository;
+    private final Map<Integer, RoaringBitmap> registered = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+
+    public RoaringRegistrationIndex(RegistrationBatchRepository registrationBatchRepository, RegistrationConfig registrationConfig) {
+        this.registrationBatchRepository = registrationBatchRepository;
+        this.stripes = new ReentrantLock[Math.max(registrationConfig.getIndexLockStripes(), 1)];
+        for(int i=0; i<stripes.length; i++){
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public boolean reserve(Integer eventId, Integer userId) {
+        ReentrantLock lock = lockFor(eventId);
+        lock.lock();
+        try {
+            return registered.computeIfAbsent(eventId, id -> new RoaringBitmap()).checkedAdd(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void release(Integer eventId, Integer userId) {
+        ReentrantLock lock = lockFor(eventId);
+        lock.lock();
+        try {
+            RoaringBitmap users = registered.get(eventId);
+            if(users != null){
+                users.remove(userId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRegistered(Integer eventId, Integer userId) {
+        ReentrantLock lock = lockFor(eventId);
+        lock.lock();
+        try {
+            RoaringBitmap users = registered.get(eventId);
+            return users != null && users.contains(userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void markRegistered(Integer eventId, Integer userId) {
+        reserve(eventId, userId);
+    }
+
+    @Override
+    public void forgetEvent(Integer eventId) {
+        ReentrantLock lock = lockFor(eventId);
+        lock.lock();
+        try {
+            registered.remove(eventId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads every registration in the DB into the index once the application is up.
+     * The bitmaps are built on the side and merged in event by event, so joins made while this runs are not lost.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Integer, RoaringBitmap> loaded = new HashMap<>();
+        registrationBatchRepository.forEachRegistration((eventId, userId) -> loaded.computeIfAbsent(eventId, id -> new RoaringBitmap()).add(userId));
+        long users = 0;
+        for(Map.Entry<Integer, RoaringBitmap> event : loaded.entrySet()){
+            RoaringBitmap bitmap = event.getValue();
+            bitmap.runOptimize();
+            users += bitmap.getLongCardinality();
+            ReentrantLock lock = lockFor(event.getKey());
+            lock.lock();
+            try {
+                registered.merge(event.getKey(), bitmap, (current, fromDb) -> {
+                    current.or(fromDb);
+                    return current;
+                });
+            } finally {
+                lock.unlock();
+            }
+        }
+        log.info("registration index loaded " + users + " registrations for " + loaded.size() + " events");
+    }
+
+    private ReentrantLock lockFor(Integer eventId) {
+        return stripes[Math.floorMod(eventId.hashCode(), stripes.length)];
+    }
+}
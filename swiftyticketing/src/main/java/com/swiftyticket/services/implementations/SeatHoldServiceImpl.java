@@ -0,0 +1,211 @@
+package com.swiftyticket.services.implementations;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.HoldConfig;
+import com.swiftyticket.dto.ticket.PurchaseTicketDTO;
+import com.swiftyticket.dto.ticket.SeatHold;
+import com.swiftyticket.dto.ticket.TicketBuyer;
+import com.swiftyticket.exceptions.EventNotFoundException;
+import com.swiftyticket.exceptions.HoldNotFoundException;
+import com.swiftyticket.exceptions.PurchaseException;
+import com.swiftyticket.exceptions.SoldOutException;
+import com.swiftyticket.exceptions.UserNotFoundException;
+import com.swiftyticket.exceptions.ZoneNotFoundException;
+import com.swiftyticket.models.Ticket;
+import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.RegistrationRepository;
+import com.swiftyticket.repositories.SeatHoldBatchRepository;
+import com.swiftyticket.repositories.TicketRepository;
+import com.swiftyticket.repositories.UserRepository;
+import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.PaymentService;
+import com.swiftyticket.services.SeatHoldService;
+import com.swiftyticket.services.TicketCodeService;
+
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds a seat for a winner while they pay for it.
+ * Holding a seat takes it off sale right away (the winner's registration goes HELD and the zone's tickets_left goes
+ * down), the hold itself only lives in memory with its time to live. Completing the hold turns it into a ticket and queues its payment.
+ * Expiries are driven by a hierarchical timing wheel advanced every tick, so there is no task per hold and no polling
+ * of the DB; the holds that expired in a tick are released together, one batch per tick.
+ * Releasing is conditional on the registration still being HELD, so releasing a hold that was completed meanwhile is
+ * harmless. The hold's deadline is also kept on the HELD registration, so holds whose node went down before they
+ * expired are released by a periodic sweep on any node once their deadline has passed.
+ */
+@Service
+@Slf4j
+public class SeatHoldServiceImpl implements SeatHoldService {
+    private final ZoneRepository zoneRepository;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final RegistrationRepository registrationRepository;
+    private final TicketRepository ticketRepository;
+    private final SeatHoldBatchRepository seatHoldBatchRepository;
+    private final PaymentService paymentService;
+    private final TicketCodeService ticketCodeService;
+    private final HoldConfig holdConfig;
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final AtomicLong holdIds = new AtomicLong();
+    // guarded by itself
+    private final TimingWheel<Hold> expiries;
+
+    public SeatHoldServiceImpl(ZoneRepository zoneRepository, EventRepository eventRepository, UserRepository userRepository,
+                               RegistrationRepository registrationRepository, TicketRepository ticketRepository,
+                               SeatHoldBatchRepository seatHoldBatchRepository, PaymentService paymentService, TicketCodeService ticketCodeService,
+                               HoldConfig holdConfig) {
+        this.zoneRepository = zoneRepository;
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.registrationRepository = registrationRepository;
+        this.ticketRepository = ticketRepository;
+        this.seatHoldBatchRepository = seatHoldBatchRepository;
+        this.paymentService = paymentService;
+        this.ticketCodeService = ticketCodeService;
+        this.holdConfig = holdConfig;
+        this.expiries = new TimingWheel<>(holdConfig.getTickMillis(), holdConfig.getWheelSize(), holdConfig.getWheelLevels(), System.currentTimeMillis());
+    }
+
+    /**
+     * Holds a seat of a zone for one of its winners, for the hold's time to live.
+     * @param holdRequest -> the email of the winner
+     * @param eventId -> the event id of the zone
+     * @param zoneId -> the zone id of the zone the winner won
+     * @throws PurchaseException -> if the user is not a winner for the zone (or already holds or bought a seat)
+     * @throws SoldOutException -> if the zone has no tickets left
+     * @throws EventNotFoundException -> if the event ID does not exist in the DB
+     * @throws ZoneNotFoundException -> if the zone ID does not exist in the DB
+     * @throws UserNotFoundException -> if the user does not exist in the DB
+     * @return SeatHold -> the hold, complete it before it expires
+     */
+    @Override
+    @Transactional
+    public SeatHold holdSeat(PurchaseTicketDTO holdRequest, Integer eventId, Integer zoneId) {
+        String zoneName = zoneRepository.findZoneName(zoneId, eventId).orElseThrow(() -> {
+            String eventName = eventRepository.findEventName(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+            return new ZoneNotFoundException("Invalid zone for " + eventName);
+        });
+        TicketBuyer buyer = userRepository.findBuyer(holdRequest.getEmail()).orElseThrow(() -> new UserNotFoundException());
+
+        long expiresAt = System.currentTimeMillis() + holdConfig.getTtl().toMillis();
+        if(registrationRepository.markHeld(zoneId, buyer.getUserId(), new Date(expiresAt)) == 0){
+            log.info("user tried to hold a seat for zone they didn't win.");
+            throw new PurchaseException();
+        }
+        if(zoneRepository.claimSeat(zoneId) == 0){
+            throw new SoldOutException(zoneName);
+        }
+
+        Hold hold = new Hold(holdIds.incrementAndGet(), eventId, zoneId, zoneName, buyer);
+        holds.put(hold.holdId, hold);
+        synchronized(expiries){
+            expiries.schedule(hold, expiresAt);
+        }
+        return new SeatHold(hold.holdId, eventId, zoneId, zoneName, new Date(expiresAt));
+    }
+
+    /**
+     * Completes a hold once it is paid for: the winner gets their ticket.
+     * @param holdId -> the hold, as returned by holdSeat
+     * @param purchaseRequest -> the email of the winner holding the seat
+     * @throws HoldNotFoundException -> if the hold expired, was already completed or is not this user's
+     * @return Ticket -> the ticket that was purchased
+     */
+    @Override
+    @Transactional
+    public Ticket completeHold(Long holdId, PurchaseTicketDTO purchaseRequest) {
+        Hold hold = holds.get(holdId);
+        if(hold == null || !hold.buyer.getEmail().equals(purchaseRequest.getEmail()) || !holds.remove(holdId, hold)){
+            throw new HoldNotFoundException(holdId);
+        }
+        // the timer is left to run out, releasing a completed hold does nothing.
+        if(registrationRepository.markHeldPurchased(hold.zoneId, hold.buyer.getUserId()) == 0){
+            throw new HoldNotFoundException(holdId);
+        }
+        Ticket purchasedTicket = new Ticket(null, hold.zoneName, zoneRepository.getReferenceById(hold.zoneId), userRepository.getReferenceById(hold.buyer.getUserId()),
+                hold.buyer.getEmail(), hold.buyer.getPhoneNumber(), null);
+        ticketRepository.save(purchasedTicket);
+        purchasedTicket.setCode(ticketCodeService.issue(purchasedTicket.getTicketId(), hold.zoneId, hold.eventId, zoneRepository.findZoneDate(hold.zoneId).orElseThrow()));
+        paymentService.recordPayment(purchasedTicket, hold.zoneId);
+        return purchasedTicket;
+    }
+
+    /**
+     * Releases the holds that expired since the last tick, in one batch.
+     * If the batch can't be written, its holds are tried again a second later.
+     * @return int -> how many seats were put back on sale
+     */
+    @Override
+    @Scheduled(fixedRateString = "${holds.tickMillis:100}")
+    public int expireHolds() {
+        long now = System.currentTimeMillis();
+        List<Hold> expired;
+        synchronized(expiries){
+            expired = expiries.advance(now);
+        }
+        if(expired.isEmpty()){
+            return 0;
+        }
+        List<int[]> released = new ArrayList<>(expired.size());
+        for(Hold hold : expired){
+            holds.remove(hold.holdId, hold);
+            released.add(new int[]{hold.zoneId, hold.buyer.getUserId()});
+        }
+        try {
+            int seats = seatHoldBatchRepository.releaseHolds(released);
+            if(seats > 0){
+                log.info("released " + seats + " expired seat holds");
+            }
+            return seats;
+        } catch (RuntimeException e) {
+            log.error("releasing " + expired.size() + " expired seat holds failed, retrying", e);
+            synchronized(expiries){
+                expired.forEach(hold -> expiries.schedule(hold, now + 1000));
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Releases the holds that are still HELD in the DB well past their deadline, i.e. whose node went down before
+     * they expired. Runs on start up and then every sweepIntervalMillis.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${holds.sweepIntervalMillis:60000}")
+    public void releaseAbandonedHolds() {
+        int zones = seatHoldBatchRepository.releaseExpiredHolds(new Date(System.currentTimeMillis() - holdConfig.getSweepGrace().toMillis()));
+        if(zones > 0){
+            log.info("released abandoned seat holds in " + zones + " zones");
+        }
+    }
+
+    private static class Hold {
+        private final long holdId;
+        private final Integer eventId;
+        private final Integer zoneId;
+        private final String zoneName;
+        private final TicketBuyer buyer;
+
+        private Hold(long holdId, Integer eventId, Integer zoneId, String zoneName, TicketBuyer buyer) {
+            this.holdId = holdId;
+            this.eventId = eventId;
+            this.zoneId = zoneId;
+            this.zoneName = zoneName;
+            this.buyer = buyer;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import java.util.*;
 import java.security.SecureRandom;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.swiftyticket.config.TwilioConfig;
@@ -123,9 +124,11 @@ public class SmsServiceImpl {
 
 	/**
 	 * This method sends a congratulatory SMS to the user's phone number if they have won a raffle.
+	 * The SMS is queued on the notification executor, so the raffle does not wait for Twilio.
 	 * @param message -> String message to be sent
 	 * @param phoneNumber -> String phone number of the user
 	 */
+	@Async("notificationExecutor")
 	public void sendCongratz(String message, String phoneNumber) {
 		try {
 			// get the to and from number for the message function later
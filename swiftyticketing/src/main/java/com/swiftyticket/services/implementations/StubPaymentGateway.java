@@ -0,0 +1,35 @@
+package com.swiftyticket.services.implementations;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.PaymentConfig;
+import com.swiftyticket.dto.payment.GatewayResult;
+import com.swiftyticket.dto.payment.PaymentCharge;
+import com.swiftyticket.services.PaymentGateway;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local stand-in for a payment gateway: approves every charge after a short delay, like a real gateway round trip.
+ */
+@Service
+@ConditionalOnProperty(prefix = "payments", name = "gateway", havingValue = "stub", matchIfMissing = true)
+@Slf4j
+public class StubPaymentGateway implements PaymentGateway {
+    private final PaymentConfig paymentConfig;
+
+    public StubPaymentGateway(PaymentConfig paymentConfig) {
+        this.paymentConfig = paymentConfig;
+    }
+
+    @Override
+    public GatewayResult charge(PaymentCharge charge) {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(paymentConfig.getStubLatencyMillis()));
+        log.info("stub gateway charged " + charge.getAmount() + " for payment " + charge.getPaymentId());
+        return GatewayResult.approved("stub-" + charge.getPaymentId());
+    }
+}
@@ -1,24 +1,40 @@
 package com.swiftyticket.services.implementations;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.swiftyticket.dto.ticket.PurchaseTicketDTO;
+import com.swiftyticket.dto.ticket.TicketBuyer;
+import com.swiftyticket.dto.ticket.TicketFilter;
+import com.swiftyticket.dto.ticket.TicketPage;
+import com.swiftyticket.dto.ticket.TicketRow;
 import org.springframework.stereotype.Service;
 import com.swiftyticket.exceptions.EventNotFoundException;
 import com.swiftyticket.exceptions.PurchaseException;
+import com.swiftyticket.exceptions.SoldOutException;
 import com.swiftyticket.exceptions.TicketNotFoundException;
 import com.swiftyticket.exceptions.UserNotFoundException;
 import com.swiftyticket.exceptions.ZoneNotFoundException;
-import com.swiftyticket.models.Event;
 import com.swiftyticket.models.Ticket;
 import com.swiftyticket.models.User;
-import com.swiftyticket.models.Zones;
 import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.RegistrationRepository;
+import com.swiftyticket.repositories.TicketBatchRepository;
 import com.swiftyticket.repositories.TicketRepository;
 import com.swiftyticket.repositories.UserRepository;
 import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.PaymentService;
+import com.swiftyticket.services.TicketCodeService;
 import com.swiftyticket.services.TicketService;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -30,6 +46,14 @@ public class TicketServiceImpl implements TicketService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final ZoneRepository zoneRepository;
+    private final RegistrationRepository registrationRepository;
+    private final PaymentService paymentService;
+    private final TicketCodeService ticketCodeService;
+    private final TicketBatchRepository ticketBatchRepository;
+    private final ObjectMapper objectMapper;
+
+    // Most tickets listed in one page
+    public static final int MAX_PAGE_SIZE = 1000;
 
     /**
      * Returns a list of all tickets in the DB irrespective of zones.
@@ -40,6 +64,50 @@ public class TicketServiceImpl implements TicketService {
         return ticketRepo.findAll();
     }
 
+    /**
+     * Returns a page of tickets, in ticket id order.
+     * @param filter -> optional event, zone and user email the tickets must match
+     * @param after -> the nextCursor of the previous page, null for the first page
+     * @param limit -> how many tickets per page (at most MAX_PAGE_SIZE)
+     * @return TicketPage -> the tickets, and the cursor of the next page (null if this is the last one)
+     */
+    @Override
+    public TicketPage listTickets(TicketFilter filter, Integer after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // one more than asked for tells whether there is a next page
+        List<TicketRow> tickets = ticketBatchRepository.findPage(filter, after, pageSize + 1);
+        if(tickets.size() <= pageSize){
+            return new TicketPage(tickets, null);
+        }
+        tickets = tickets.subList(0, pageSize);
+        return new TicketPage(tickets, tickets.get(pageSize - 1).getTicketId());
+    }
+
+    /**
+     * Writes every ticket matching the filter as newline-delimited JSON, one line per ticket as it is read from the DB.
+     * Memory use stays flat however many tickets there are.
+     * @param filter -> optional event, zone and user email the tickets must match
+     * @param out -> where to write the tickets
+     * @return long -> how many tickets were written
+     */
+    @Override
+    public long exportTickets(TicketFilter filter, OutputStream out) {
+        ObjectWriter writer = objectMapper.writerFor(TicketRow.class);
+        AtomicLong written = new AtomicLong();
+        ticketBatchRepository.forEachTicket(filter, ticket -> {
+            try {
+                out.write(writer.writeValueAsBytes(ticket));
+                out.write('\n');
+                written.incrementAndGet();
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("could not write ticket " + ticket.getTicketId(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return written.get();
+    }
+
     /**
      * Returns a single ticket based on the ticket ID.
      * @param id -> Integer ticket ID (Unique identifier)
@@ -54,54 +122,48 @@ public class TicketServiceImpl implements TicketService {
 
     /**
      * This function is to allow a user to purchase a ticket for an event.
+     * The purchase is one transaction: the user's win is turned into a purchase, a seat is claimed with a conditional
+     * update (so concurrent purchases can never oversell the zone), the ticket is inserted with its signed gate code and
+     * its payment is queued for the payment gateway (charged in the background). If any step fails, nothing is kept. The zone and the user are never loaded, only the columns the ticket needs are read.
      * @param purchaseTickerRequest -> the email of the user who's trying to purchase the ticket
      * @param eventId -> the event id of the zone the user is trying to purchase the ticket for
      * @param zoneId -> the zone id of the zone the user is trying to purchase the ticket for
      * @throws PurchaseException -> if the user is not a winner for the zone
+     * @throws SoldOutException -> if the zone has no tickets left
      * @throws EventNotFoundException -> if the event ID does not exist in the DB
      * @throws UserNotFoundException -> if the user does not exist in the DB
      * @throws ZoneNotFoundException -> if the zone ID does not exist in the DB
      * @return Ticket -> the ticket that was purchased
      */
     @Override
+    @Transactional
     public Ticket purchaseTicket(PurchaseTicketDTO purchaseTicketRequest, Integer eventId, Integer zoneId) {
         log.info(purchaseTicketRequest.getEmail());
-        String userEmail = purchaseTicketRequest.getEmail();
-        // get Event and user respectively.
-        Event purchase4Event = eventRepository.findById(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
-        User purchasingUser = userRepository.findByEmail(userEmail).orElseThrow(() -> new UserNotFoundException());
         // we search for zone using both event and zoneid to make sure the zone is in the specified event.
-        Zones purchase4Zone = zoneRepository.findByZoneIdAndEvent(zoneId, purchase4Event).orElseThrow(() -> new ZoneNotFoundException("Invalid zone for " + purchase4Event.getEventName()));
+        String zoneName = zoneRepository.findZoneName(zoneId, eventId).orElseThrow(() -> {
+            String eventName = eventRepository.findEventName(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+            return new ZoneNotFoundException("Invalid zone for " + eventName);
+        });
+        TicketBuyer buyer = userRepository.findBuyer(purchaseTicketRequest.getEmail()).orElseThrow(() -> new UserNotFoundException());
 
-        // create the ticket object, give it to respective zone & user.
-        // begin by checking if the user who's trying to buy the ticket is a winner for the zone
-        log.info("" + purchasingUser);
-        log.info(""+purchasingUser.getUserId());
-        if( !( purchase4Zone.getWinnerList().contains(purchasingUser) ) ){
+        // only a winner for the zone can buy, and only once: their win is used up right here.
+        if(registrationRepository.markPurchased(zoneId, buyer.getUserId()) == 0){
             log.info("user tried to purchase ticket for zone they didn't win. get outta here!");
-            
             throw new PurchaseException();
         }
-        // if reach this part of the code, means the user is a winner, we can continue with the purchase.
-        Ticket purchasedTicket = new Ticket(purchase4Zone, purchasingUser);
-        ticketRepo.save(purchasedTicket);
-        // assign to corresponding zone and user for the relationship
-        purchasingUser.getTicketsBought().add(purchasedTicket);
-        purchase4Zone.getTicketList().add(purchasedTicket);
-
-        // reduce the amount of tickets available for purchase in that zone by 1.
-        purchase4Zone.setTicketsLeft(purchase4Zone.getTicketsLeft() - 1);
-
-        // now that they have purchased a ticket, remove them from the winnerList for zone and zonesWon for user.
-        // this is to prevent them from purchasing another ticket again.
-        purchase4Zone.getWinnerList().remove(purchasingUser);
-        purchasingUser.getZonesWon().remove(purchase4Zone);
-
-        // now save em in the repo and we gucci
-        userRepository.save(purchasingUser);
-        zoneRepository.save(purchase4Zone);
+        // reduce the amount of tickets available for purchase in that zone by 1, if there is one left.
+        if(zoneRepository.claimSeat(zoneId) == 0){
+            log.info("user tried to purchase ticket for a sold out zone.");
+            throw new SoldOutException(zoneName);
+        }
 
-        //return the purchased ticket
+        // the ticket only points at the zone and user, neither is loaded.
+        Ticket purchasedTicket = new Ticket(null, zoneName, zoneRepository.getReferenceById(zoneId), userRepository.getReferenceById(buyer.getUserId()),
+                buyer.getEmail(), buyer.getPhoneNumber(), null);
+        ticketRepo.save(purchasedTicket);
+        // the code signs the ticket id, which the save has just drawn.
+        purchasedTicket.setCode(ticketCodeService.issue(purchasedTicket.getTicketId(), zoneId, eventId, zoneRepository.findZoneDate(zoneId).orElseThrow()));
+        paymentService.recordPayment(purchasedTicket, zoneId);
         return purchasedTicket;
     }
 
@@ -0,0 +1,159 @@
+package com.swiftyticket.services.implementations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: keeps a large number of timers and hands back the ones that are due, with O(1) work to
+ * add or cancel a timer and O(1) amortized work per timer to expire it, whatever the number of timers.
+ * Time moves in ticks. Level 0 has one bucket per tick for the next `wheelSize` ticks; every level above has buckets
+ * `wheelSize` times as wide as the level below. A timer goes into the finest level its delay fits in and is moved down
+ * (cascaded) a level each time the bucket it sits in comes up, until it expires from level 0.
+ * Buckets are intrusive doubly-linked lists, so a timer is cancelled by unlinking it.
+ * Not thread safe on its own, the caller guards it.
+ * @param <T> -> what is kept with a timer and handed back when it expires
+ */
+public class TimingWheel<T> {
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final int levels;
+    private final Timer<T>[][] buckets;
+    // the last tick that was processed
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if(Integer.bitCount(wheelSize) != 1 || levels < 1 || tickMillis < 1){
+            throw new IllegalArgumentException("the wheel size must be a power of two, with at least one level and a tick of at least 1ms");
+        }
+        this.tickMillis = tickMillis;
+        this.bits = Integer.numberOfTrailingZeros(wheelSize);
+        this.mask = wheelSize - 1;
+        this.levels = levels;
+        this.buckets = new Timer[levels][wheelSize];
+        for(int level=0; level<levels; level++){
+            for(int i=0; i<wheelSize; i++){
+                Timer<T> sentinel = new Timer<>(null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                buckets[level][i] = sentinel;
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Adds a timer. A timer that is already due expires on the next advance.
+     * @param item -> handed back when the timer expires
+     * @param expiresAtMillis -> when the timer expires (it can expire up to a tick later, never earlier)
+     * @return Timer<T> -> the timer, to cancel it with
+     */
+    public Timer<T> schedule(T item, long expiresAtMillis) {
+        // the first tick at or after the expiry time
+        long expiryTick = Math.max(Math.floorDiv(expiresAtMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timer<T> timer = new Timer<>(item, expiryTick);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Cancels a timer that has not expired yet.
+     * @param timer -> the timer, as returned by schedule
+     * @return boolean -> false if the timer already expired or was cancelled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if(timer.next == null){
+            return false;
+        }
+        unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel on to the given time.
+     * @param nowMillis -> the current time
+     * @return List<T> -> the items of the timers that expired, soonest first
+     */
+    public List<T> advance(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while(currentTick < targetTick){
+            currentTick++;
+            // the coarser buckets coming up are spread over the finer levels first, top down
+            for(int level=levels-1; level>0; level--){
+                if((currentTick & ((1L << (bits * level)) - 1)) == 0){
+                    Timer<T> sentinel = buckets[level][(int) ((currentTick >>> (bits * level)) & mask)];
+                    Timer<T> timer = sentinel.next;
+                    while(timer != sentinel){
+                        Timer<T> next = timer.next;
+                        unlink(timer);
+                        place(timer);
+                        timer = next;
+                    }
+                }
+            }
+            Timer<T> sentinel = buckets[0][(int) (currentTick & mask)];
+            Timer<T> timer = sentinel.next;
+            while(timer != sentinel){
+                Timer<T> next = timer.next;
+                unlink(timer);
+                size--;
+                expired.add(timer.item);
+                timer = next;
+            }
+        }
+        return expired;
+    }
+
+    // how many timers are waiting to expire
+    public int size() {
+        return size;
+    }
+
+    private void place(Timer<T> timer) {
+        long delay = timer.expiryTick - currentTick;
+        if(delay <= 0){
+            // only when cascading: due on this very tick, so it goes in the level 0 bucket processed right after
+            link(buckets[0][(int) (currentTick & mask)], timer);
+            return;
+        }
+        for(int level=0; level<levels; level++){
+            if(delay < (1L << (bits * (level + 1))) || level == levels - 1){
+                // past the top level, it waits in the last top bucket of the rotation and is placed again from there
+                long tick = delay < (1L << (bits * (level + 1))) ? timer.expiryTick : currentTick + (1L << (bits * levels)) - 1;
+                link(buckets[level][(int) ((tick >>> (bits * level)) & mask)], timer);
+                return;
+            }
+        }
+    }
+
+    private static <T> void link(Timer<T> sentinel, Timer<T> timer) {
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private static <T> void unlink(Timer<T> timer) {
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    public static class Timer<T> {
+        private final T item;
+        private final long expiryTick;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(T item, long expiryTick) {
+            this.item = item;
+            this.expiryTick = expiryTick;
+        }
+    }
+}
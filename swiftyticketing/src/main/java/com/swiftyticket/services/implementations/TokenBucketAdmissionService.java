@@ -0,0 +1,203 @@
+package com.swiftyticket.services.implementations;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.AdmissionConfig;
+import com.swiftyticket.dto.zone.AdmissionStats;
+import com.swiftyticket.exceptions.TooManyRegistrationsException;
+import com.swiftyticket.services.AdmissionService;
+
+/**
+ * Per-event admission control for pre-registrations, so an event going on sale can't take the whole DB pool.
+ * Every event gets a token bucket (kept as a single "next free slot" timestamp, the GCRA form of a token bucket),
+ * taken from with a compare-and-set, so letting a request through never takes a lock.
+ * A request over the limit takes the next free slot and waits for it, as long as the wait is short enough and not too
+ * many requests are waiting already, of the event and over all events (a waiting request holds a request thread, so
+ * one hot event must not park them all); otherwise it is turned away with a 429 and how long to wait.
+ * Limiters of events that went quiet are dropped, and only so many are kept at once: the event ids come straight from
+ * the request path, so events past that share one limiter.
+ */
+@Service
+public class TokenBucketAdmissionService implements AdmissionService {
+    private final AdmissionConfig admissionConfig;
+    private final Map<Integer, EventLimiter> limiters = new ConcurrentHashMap<>();
+    private final EventLimiter overflow;
+    private final AtomicInteger waitingTotal = new AtomicInteger();
+
+    public TokenBucketAdmissionService(AdmissionConfig admissionConfig) {
+        this.admissionConfig = admissionConfig;
+        this.overflow = new EventLimiter(admissionConfig.getPermitsPerSecond(), admissionConfig.getBurst());
+    }
+
+    /**
+     * Lets a pre-registration for an event through, right away or once it is its turn.
+     * @param eventId -> the event the pre-registration is for
+     * @throws TooManyRegistrationsException -> if the event is over its limit and the request can't wait for a slot
+     */
+    @Override
+    public void admit(Integer eventId) {
+        if(!admissionConfig.isEnabled()){
+            return;
+        }
+        EventLimiter limiter = limiterFor(eventId);
+        long maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(admissionConfig.getMaxWaitMillis());
+        while(true){
+            long now = System.nanoTime();
+            long current = limiter.nextSlot.get();
+            long start = current - now > 0 ? current : now;
+            long wait = start - limiter.toleranceNanos - now;
+            if(wait <= 0){
+                if(limiter.nextSlot.compareAndSet(current, start + limiter.intervalNanos)){
+                    limiter.admitted.increment();
+                    return;
+                }
+                continue;
+            }
+            if(wait > maxWaitNanos){
+                throw reject(limiter, wait);
+            }
+            if(!holdBack(limiter)){
+                throw reject(limiter, wait);
+            }
+            if(!limiter.nextSlot.compareAndSet(current, start + limiter.intervalNanos)){
+                letGo(limiter);
+                continue;
+            }
+            try {
+                awaitSlot(now + wait);
+            } finally {
+                letGo(limiter);
+            }
+            limiter.delayed.increment();
+            limiter.admitted.increment();
+            return;
+        }
+    }
+
+    /**
+     * Returns how an event's pre-registrations fared against its limit, to size the limits with.
+     * @param eventId -> the event to report on
+     * @return AdmissionStats -> the event's limit and counters (all zero if none of its pre-registrations came in yet)
+     */
+    @Override
+    public AdmissionStats getStats(Integer eventId) {
+        EventLimiter limiter = limiters.get(eventId);
+        if(limiter == null){
+            AdmissionConfig.Limit limit = limitFor(eventId);
+            return new AdmissionStats(eventId, limit.getPermitsPerSecond(), limit.getBurst(), 0, 0, 0, 0);
+        }
+        return AdmissionStats.builder()
+                .eventId(eventId)
+                .permitsPerSecond(limiter.permitsPerSecond)
+                .burst(limiter.burst)
+                .admitted(limiter.admitted.sum())
+                .delayed(limiter.delayed.sum())
+                .rejected(limiter.rejected.sum())
+                .waiting(limiter.waiting.get())
+                .build();
+    }
+
+    /**
+     * Drops the limiters of events without pre-registrations for idleEvictMillis. A limiter that has been idle that
+     * long has its whole burst back, so a new one for the event lets through exactly what the old one would have.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${admission.idleEvictMillis:300000}")
+    public void evictIdleLimiters() {
+        long idleSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(admissionConfig.getIdleEvictMillis());
+        limiters.values().removeIf(limiter -> limiter.waiting.get() == 0 && limiter.nextSlot.get() - idleSince < 0);
+    }
+
+    private EventLimiter limiterFor(Integer eventId) {
+        EventLimiter limiter = limiters.get(eventId);
+        if(limiter != null){
+            return limiter;
+        }
+        if(limiters.size() >= admissionConfig.getMaxEvents()){
+            return overflow;
+        }
+        return limiters.computeIfAbsent(eventId, this::newLimiter);
+    }
+
+    // Counts a request in as waiting, unless its event or all events together already have as many waiting as allowed.
+    private boolean holdBack(EventLimiter limiter) {
+        if(limiter.waiting.incrementAndGet() > admissionConfig.getMaxQueued()){
+            limiter.waiting.decrementAndGet();
+            return false;
+        }
+        if(waitingTotal.incrementAndGet() > admissionConfig.getMaxQueuedTotal()){
+            waitingTotal.decrementAndGet();
+            limiter.waiting.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void letGo(EventLimiter limiter) {
+        waitingTotal.decrementAndGet();
+        limiter.waiting.decrementAndGet();
+    }
+
+    private EventLimiter newLimiter(Integer eventId) {
+        AdmissionConfig.Limit limit = limitFor(eventId);
+        return new EventLimiter(limit.getPermitsPerSecond(), limit.getBurst());
+    }
+
+    private AdmissionConfig.Limit limitFor(Integer eventId) {
+        AdmissionConfig.Limit limit = admissionConfig.getEvents().get(eventId);
+        if(limit != null){
+            return limit;
+        }
+        limit = new AdmissionConfig.Limit();
+        limit.setPermitsPerSecond(admissionConfig.getPermitsPerSecond());
+        limit.setBurst(admissionConfig.getBurst());
+        return limit;
+    }
+
+    private static TooManyRegistrationsException reject(EventLimiter limiter, long waitNanos) {
+        limiter.rejected.increment();
+        return new TooManyRegistrationsException(Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    // The slot is already taken, so an interrupt only cuts the wait short (and is passed on), it doesn't give the slot back.
+    private static void awaitSlot(long deadline) {
+        long remaining;
+        while((remaining = deadline - System.nanoTime()) > 0){
+            LockSupport.parkNanos(remaining);
+            if(Thread.interrupted()){
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static class EventLimiter {
+        private final double permitsPerSecond;
+        private final int burst;
+        private final long intervalNanos;
+        // how far ahead of now the next free slot may be and still be let through right away (the burst)
+        private final long toleranceNanos;
+        private final AtomicLong nextSlot;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder delayed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private EventLimiter(double permitsPerSecond, int burst) {
+            this.permitsPerSecond = permitsPerSecond;
+            this.burst = Math.max(burst, 1);
+            this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+            this.toleranceNanos = (this.burst - 1) * intervalNanos;
+            this.nextSlot = new AtomicLong(System.nanoTime());
+        }
+    }
+}
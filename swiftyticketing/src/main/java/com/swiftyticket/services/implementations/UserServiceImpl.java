@@ -7,6 +7,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
 import com.swiftyticket.exceptions.DuplicateUserException;
+import com.swiftyticket.exceptions.InvalidRaffleWeightException;
 import com.swiftyticket.exceptions.UserNotFoundException;
 import com.swiftyticket.models.User;
 import com.swiftyticket.repositories.UserRepository;
@@ -69,6 +70,25 @@ public class UserServiceImpl implements UserService {
         }).orElseThrow(UserNotFoundException::new);
     }
 
+    /**
+     * Sets the odds multiplier a user gets in raffles (e.g. 2.0 for fan club members).
+     * @param email -> String user email (Unique identifier)
+     * @param raffleWeight -> the new weight, has to be above 0
+     * @throws InvalidRaffleWeightException -> if the weight is 0 or less
+     * @throws UserNotFoundException -> if the user email does not exist in the DB
+     * @return User -> the updated user
+     */
+    @Override
+    public User setRaffleWeight(String email, double raffleWeight){
+        if(!(raffleWeight > 0)){
+            throw new InvalidRaffleWeightException(raffleWeight);
+        }
+        return userRepository.findByEmail(email).map(user -> {
+            user.setRaffleWeight(raffleWeight);
+            return userRepository.save(user);
+        }).orElseThrow(UserNotFoundException::new);
+    }
+
     /**
      * Deletes the user with the specified email.
      * @param email -> String user email (Unique identifier)
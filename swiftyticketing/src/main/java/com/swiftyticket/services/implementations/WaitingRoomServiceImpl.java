@@ -0,0 +1,238 @@
+package com.swiftyticket.services.implementations;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.swiftyticket.config.WaitingRoomConfig;
+import com.swiftyticket.dto.ticket.QueuePosition;
+import com.swiftyticket.dto.ticket.QueueToken;
+import com.swiftyticket.exceptions.InvalidQueueTokenException;
+import com.swiftyticket.exceptions.QueueTokenNotReleasedException;
+import com.swiftyticket.services.WaitingRoomService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Waiting room in front of ticket purchases.
+ * Every zone has a FIFO queue: joining it hands out the next place as a signed token, and the places are released
+ * at the zone's rate by a scheduled tick. A purchase is only let through with a released token for its zone and email.
+ * Everything is kept in memory and checking a token is an HMAC plus a comparison with the zone's release counter, so
+ * buyers who come too early are turned away without any DB work. Queues are per node: a token carries the id of the
+ * waiting room that issued it and is only accepted there, so a zone's queue, purchases and holds must be routed to the
+ * same node (sticky routing). Tokens are signed with the configured `waiting-room.signingKey`.
+ */
+@Service
+@Slf4j
+public class WaitingRoomServiceImpl implements WaitingRoomService {
+    private static final String HMAC = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final WaitingRoomConfig waitingRoomConfig;
+    // made up at start up: the queues are in memory, so tokens issued before a restart or by another node are refused
+    private final String instanceId;
+    private final ThreadLocal<Mac> macs;
+    private final Map<Integer, ZoneQueue> queues = new ConcurrentHashMap<>();
+
+    public WaitingRoomServiceImpl(WaitingRoomConfig waitingRoomConfig) {
+        this.waitingRoomConfig = waitingRoomConfig;
+        byte[] instance = new byte[6];
+        new SecureRandom().nextBytes(instance);
+        this.instanceId = ENCODER.encodeToString(instance);
+        SecretKeySpec signingKey = new SecretKeySpec(Base64.getDecoder().decode(waitingRoomConfig.getSigningKey()), HMAC);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC);
+                mac.init(signingKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 is not available", e);
+            }
+        });
+    }
+
+    /**
+     * Joins the waiting room of a zone. Joining again returns the same place.
+     * @param eventId -> the event id of the zone
+     * @param zoneId -> the zone the user wants to buy a ticket for
+     * @param email -> the email of the user
+     * @return QueueToken -> the signed token for the place, with how far it is from the front
+     */
+    @Override
+    public QueueToken join(Integer eventId, Integer zoneId, String email) {
+        ZoneQueue queue = queues.computeIfAbsent(zoneId, id -> new ZoneQueue());
+        long now = System.currentTimeMillis();
+        queue.lastJoinedAt = now;
+        String token = queue.places.computeIfAbsent(email, e -> sign(eventId, zoneId, queue.issued.incrementAndGet(), now, e));
+        long position = positionOf(queue, parse(token).place);
+        return new QueueToken(token, position, waitSeconds(zoneId, position));
+    }
+
+    /**
+     * Returns where a token is in its queue, from memory.
+     * @param token -> the token, as returned by join
+     * @throws InvalidQueueTokenException -> if the token was not issued by this waiting room
+     * @return QueuePosition -> the position of the token, 0 once it is released
+     */
+    @Override
+    public QueuePosition getPosition(String token) {
+        ParsedToken parsed = parse(token);
+        ZoneQueue queue = queues.get(parsed.zoneId);
+        if(queue == null){
+            throw new InvalidQueueTokenException("the queue it was issued for is gone");
+        }
+        long position = positionOf(queue, parsed.place);
+        return new QueuePosition(position, position == 0, waitSeconds(parsed.zoneId, position));
+    }
+
+    /**
+     * Lets a purchase through only if it comes with a released token for its zone and user.
+     * @param token -> the queue token sent with the purchase, null if there was none
+     * @param eventId -> the event id of the zone being bought
+     * @param zoneId -> the zone being bought
+     * @param email -> the email of the buyer
+     * @throws InvalidQueueTokenException -> if the token is missing, forged, too old or for another zone or user
+     * @throws QueueTokenNotReleasedException -> if the token has not been released yet
+     */
+    @Override
+    public void checkReleased(String token, Integer eventId, Integer zoneId, String email) {
+        if(!waitingRoomConfig.isEnabled()){
+            return;
+        }
+        if(token == null || token.isBlank()){
+            throw new InvalidQueueTokenException("no token was sent");
+        }
+        ParsedToken parsed = parse(token);
+        if(!parsed.eventId.equals(eventId) || !parsed.zoneId.equals(zoneId) || !parsed.email.equals(email)){
+            throw new InvalidQueueTokenException("the token is for another zone or user");
+        }
+        if(System.currentTimeMillis() - parsed.issuedAt > waitingRoomConfig.getTokenMaxAge().toMillis()){
+            throw new InvalidQueueTokenException("the token has expired");
+        }
+        ZoneQueue queue = queues.get(zoneId);
+        if(queue == null){
+            throw new InvalidQueueTokenException("the queue it was issued for is gone");
+        }
+        long position = positionOf(queue, parsed.place);
+        if(position > 0){
+            throw new QueueTokenNotReleasedException(position, Math.max(waitSeconds(zoneId, position), 1));
+        }
+    }
+
+    /**
+     * Releases the next places of every queue, at each zone's rate. Queues nobody joined for longer than a token
+     * lives are dropped.
+     * @return long -> how many places were released in this tick
+     */
+    @Override
+    @Scheduled(fixedRateString = "${waiting-room.releaseIntervalMillis:100}")
+    public long releaseTokens() {
+        long now = System.currentTimeMillis();
+        long releasedNow = 0;
+        Iterator<Map.Entry<Integer, ZoneQueue>> it = queues.entrySet().iterator();
+        while(it.hasNext()){
+            Map.Entry<Integer, ZoneQueue> entry = it.next();
+            ZoneQueue queue = entry.getValue();
+            long issued = queue.issued.get();
+            if(queue.released >= issued){
+                // credit is not banked while nobody waits, a quiet queue can't let a burst through later
+                queue.credit = 0;
+                if(now - queue.lastJoinedAt > waitingRoomConfig.getTokenMaxAge().toMillis()){
+                    it.remove();
+                }
+                continue;
+            }
+            queue.credit += releaseRate(entry.getKey()) * waitingRoomConfig.getReleaseIntervalMillis() / 1000.0;
+            long release = Math.min((long) queue.credit, issued - queue.released);
+            queue.credit -= release;
+            queue.released += release;
+            releasedNow += release;
+        }
+        return releasedNow;
+    }
+
+    private long positionOf(ZoneQueue queue, long place) {
+        return Math.max(place - queue.released, 0);
+    }
+
+    private double releaseRate(Integer zoneId) {
+        return waitingRoomConfig.getZones().getOrDefault(zoneId, waitingRoomConfig.getReleasePerSecond());
+    }
+
+    private long waitSeconds(Integer zoneId, long position) {
+        return (long) Math.ceil(position / releaseRate(zoneId));
+    }
+
+    // token: instanceId.eventId.zoneId.place.issuedAt.base64(email).base64(hmac of everything before it)
+    private String sign(Integer eventId, Integer zoneId, long place, long issuedAt, String email) {
+        String payload = instanceId + "." + eventId + "." + zoneId + "." + place + "." + issuedAt + "."
+                + ENCODER.encodeToString(email.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    private ParsedToken parse(String token) {
+        int dot = token.lastIndexOf('.');
+        String[] fields = dot < 0 ? new String[0] : token.substring(0, dot).split("\\.");
+        if(fields.length != 6){
+            throw new InvalidQueueTokenException("the token is malformed");
+        }
+        try {
+            String payload = token.substring(0, dot);
+            if(!MessageDigest.isEqual(mac(payload), DECODER.decode(token.substring(dot + 1)))){
+                throw new InvalidQueueTokenException("the token was not issued by this waiting room");
+            }
+            // its place only means something in the queue it was issued by
+            if(!fields[0].equals(instanceId)){
+                throw new InvalidQueueTokenException("the token was issued by another node, or before a restart");
+            }
+            return new ParsedToken(Integer.valueOf(fields[1]), Integer.valueOf(fields[2]), Long.parseLong(fields[3]),
+                    Long.parseLong(fields[4]), new String(DECODER.decode(fields[5]), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueueTokenException("the token is malformed");
+        }
+    }
+
+    private byte[] mac(String payload) {
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class ZoneQueue {
+        // the last place handed out
+        private final AtomicLong issued = new AtomicLong();
+        // every place up to this one is released; only written by the release tick
+        private volatile long released;
+        // places owed to the queue but not released yet (the rate is rarely a whole number per tick)
+        private double credit;
+        private volatile long lastJoinedAt;
+        private final Map<String, String> places = new ConcurrentHashMap<>();
+    }
+
+    private static class ParsedToken {
+        private final Integer eventId;
+        private final Integer zoneId;
+        private final long place;
+        private final long issuedAt;
+        private final String email;
+
+        private ParsedToken(Integer eventId, Integer zoneId, long place, long issuedAt, String email) {
+            this.eventId = eventId;
+            this.zoneId = zoneId;
+            this.place = place;
+            this.issuedAt = issuedAt;
+            this.email = email;
+        }
+    }
+}
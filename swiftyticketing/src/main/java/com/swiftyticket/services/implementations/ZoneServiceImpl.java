@@ -1,19 +1,35 @@
 package com.swiftyticket.services.implementations;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.springframework.stereotype.Service;
 
+import com.swiftyticket.config.RaffleConfig;
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.dto.raffle.Registrant;
+import com.swiftyticket.dto.raffle.ZoneRaffleInfo;
 import com.swiftyticket.dto.zone.PreRegisterRequest;
+import com.swiftyticket.dto.zone.RegistrationOutcome;
 import com.swiftyticket.dto.zone.ZoneRequest;
+import com.swiftyticket.dto.zone.ZoneSummary;
 import com.swiftyticket.models.Event;
 import com.swiftyticket.models.User;
 import com.swiftyticket.models.Zones;
 import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.RaffleBatchRepository;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+import com.swiftyticket.repositories.RegistrationRepository;
 import com.swiftyticket.repositories.UserRepository;
 import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.RaffleEngine;
+import com.swiftyticket.services.RaffleSampler;
+import com.swiftyticket.services.RegistrationIndex;
+import com.swiftyticket.services.RegistrationIntakeService;
 import com.swiftyticket.services.ZoneService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,6 +51,14 @@ public class ZoneServiceImpl implements ZoneService {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final SmsServiceImpl smsServ;
+    private final RaffleEngine raffleEngine;
+    private final RaffleConfig raffleConfig;
+    private final RaffleBatchRepository raffleBatchRepository;
+    private final RegistrationRepository registrationRepository;
+    private final RegistrationBatchRepository registrationBatchRepository;
+    private final RegistrationConfig registrationConfig;
+    private final RegistrationIntakeService registrationIntakeService;
+    private final RegistrationIndex registrationIndex;
 
     /**
      * Adds a new zone to a specified event.
@@ -69,135 +93,239 @@ public class ZoneServiceImpl implements ZoneService {
         return event.getZoneList();
     }
 
+    /**
+     * Returns the zones of an event as listed in the catalog, read with one query instead of loading the event.
+     * Only an event without zones costs a second query, to tell it apart from an event that does not exist.
+     * @param eventId -> the unique identifier of the event
+     * @throws EventNotFoundException -> if the event ID does not exist in the DB
+     * @return List<ZoneSummary> -> the event's zones in zone id order
+     */
+    public List<ZoneSummary> listZoneSummaries(Integer eventId){
+        List<ZoneSummary> zones = zoneRepository.findSummaries(eventId);
+        if (zones.isEmpty() && !eventRepository.existsById(eventId)) throw new EventNotFoundException(eventId);
+        return zones;
+    }
+
     /**
      * Allows a user to join the raffle for a specified zone.
+     * With write-behind registration on, the join is only checked and queued here (see RegistrationIntakeServiceImpl).
+     * Joining is idempotent either way: repeating a join of the same zone (e.g. a client retrying after a timeout)
+     * succeeds again without registering twice, only joining a different zone of the same event is rejected.
+     * A write-behind duplicate the registration index can't see (e.g. the user joined through another node) is only
+     * caught when the queue is flushed, and is then dropped.
+     * The registration index is only consulted on the write-behind path. A direct join is a single statement in which
+     * the unique (event, user) constraint decides duplicates: checking the index first would cost an extra query for
+     * the user id on every join, just to save that one statement for the rare duplicate. The index is still marked
+     * here so it stays complete for write-behind joins.
      * @param registerRequest -> PreRegisterRequest object containing the user's email
      * @param eventId -> the event id of the zone the user is trying to join the raffle for
      * @param zoneID -> the zone id of the zone the user is trying to join the raffle for
      * @throws EventNotFoundException -> if the event ID does not exist in the DB
      * @throws UserNotFoundException -> if the user does not exist in the DB
      * @throws ZoneNotFoundException -> if the zone ID does not exist in the DB
-     * @throws AlreadyPreRegisteredException -> if the user has already pre-registered for the event
+     * @throws AlreadyPreRegisteredException -> if the user has already pre-registered for another zone of the event
      * @throws EventClosedException -> if the event is not open for pre-registration
      * @return String message to indicate success or failure
      */
     public String joinRaffle(PreRegisterRequest registerRequest, Integer eventId, Integer zoneID){
-        // get Event and user respectively.
-        Event joinEvent = eventRepository.findById(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
-        // we search for zone using both event and zoneid to make sure the zone is in the specified event.
-        Zones joinZone = zoneRepository.findByZoneIdAndEvent(zoneID, joinEvent).orElseThrow(() -> new ZoneNotFoundException("Invalid zone for " + joinEvent.getEventName()));
-
-        if(!joinEvent.getOpenStatus()){
-            log.info("User tried to join when pre-registration was closed, Denied.");
-            throw new EventClosedException();
+        if(registrationConfig.isWriteBehind()){
+            return registrationIntakeService.submit(registerRequest, eventId, zoneID);
+        }
+        // the whole join is one statement: nothing is loaded, the unique (event, user) constraint decides duplicates.
+        RegistrationOutcome outcome = registrationBatchRepository.registerOnce(eventId, zoneID, registerRequest.getEmail()).orElseThrow(() -> {
+            String eventName = registrationBatchRepository.findEventName(eventId).orElseThrow(() -> new EventNotFoundException(eventId));
+            return new ZoneNotFoundException("Invalid zone for " + eventName);
+        });
+        if(outcome.getUserId() == null){
+            throw new UserNotFoundException();
         }
 
-        log.info(registerRequest.getEmail());
-        User joiningUser = userRepository.findByEmail(registerRequest.getEmail()).orElseThrow(() -> new UserNotFoundException());
-
-        if(joinEvent.getPreRegisteredUsers4Event().contains(joiningUser)){
-            log.info("User tried to join when already pre-registered, Denied.");
-            throw new AlreadyPreRegisteredException(joinEvent);
-            
+        // the statement reads the earlier registration from its own snapshot, so a retry racing the original request
+        // waits on its insert but does not see its row: read it again, now that the original has committed.
+        if(!outcome.isInserted() && outcome.getRegisteredZoneId() == null && outcome.isOpen()){
+            outcome.setRegisteredZoneId(registrationBatchRepository.findRegisteredZoneId(eventId, outcome.getUserId()).orElse(null));
         }
 
-        joinZone.getPreRegisteredUsers4Zone().add(joiningUser);
-        joiningUser.getPreRegisteredZones().add(joinZone);
-        joiningUser.getPreRegisteredEvents().add(joinEvent);
-        // also add user to event they joined so they cant join other zones with the same event
-        joinEvent.getPreRegisteredUsers4Event().add(joiningUser);
-        joinZone.setUser_count(joinZone.getPreRegisteredUsers4Zone().size());
-        joinEvent.setUser_count(joinEvent.getPreRegisteredUsers4Event().size());
-        eventRepository.save(joinEvent);
-        userRepository.save(joiningUser);
-        zoneRepository.save(joinZone);
-        return "Successfully joined the raffle for: " + joinZone.getZoneName() + " on " + joinZone.getZoneDate() + " for " + joinEvent.getEventName();
-        
+        // a retry of a join that already went through gets the same answer as the first attempt.
+        if(outcome.isInserted() || zoneID.equals(outcome.getRegisteredZoneId())){
+            registrationIndex.markRegistered(eventId, outcome.getUserId());
+            return "Successfully joined the raffle for: " + outcome.getZoneName() + " on " + outcome.getZoneDate() + " for " + outcome.getEventName();
+        }
+        if(!outcome.isOpen()){
+            log.info("User tried to join when pre-registration was closed, Denied.");
+            throw new EventClosedException();
+        }
+        // a user only gets one registration per event, so they cant join other zones with the same event.
+        log.info("User tried to join when already pre-registered, Denied.");
+        throw new AlreadyPreRegisteredException(outcome.getEventName());
     }
 
     /**
      * Below is our main ticketing algorithm to assign tickets to users who have won the raffle.
      * This function is to perform the raffling of each zone in the event once pre-registration is closed.
+     * Only the zone's registrants (ids and raffle weights) are read, the winners are marked in their registrations and
+     * only they are loaded afterwards, to message them.
+     * On a re-raffle, winners still inside their purchase window keep their seat (unless incremental re-raffles are
+     * turned off) and only the remaining seats are drawn again.
      * @param zone -> Zone object that the raffle should be performed on
      *             -> This function is called by the EventService class
      * @throws EventNotFoundException -> if the event ID does not exist in the DB
+     * @return List<User> -> the users who won a seat in this zone in this round
      */
-    public void raffle(Zones zone){
-        // get associated event with zone
-        Event event = zone.getEvent();
+    public List<User> raffle(Zones zone){
+        return raffle(toRaffleInfo(zone), zoneRepository.countRegistrants(zone.getZoneId()), null);
+    }
+
+    /**
+     * Raffles a single zone by its id, so the EventService can run zones in parallel threads.
+     * The zone entity is never loaded, and all of the zone's writes happen in one transaction of their own, so a
+     * failure in one zone only rolls back that zone.
+     * @param zoneID -> the unique identifier of the zone to raffle
+     * @throws ZoneNotFoundException -> if the zone ID does not exist in the DB
+     * @return List<User> -> the users who won a seat in this zone
+     */
+    public List<User> raffle(Integer zoneID){
+        return raffle(zoneID, null);
+    }
+
+    /**
+     * Raffles a single zone for a raffle job. The zone is recorded as completed by the job in the same transaction
+     * as its winners, so a job resumed after a crash never draws a zone twice.
+     * @param zoneID -> the unique identifier of the zone to raffle
+     * @param jobId -> the raffle job the zone is raffled for, null if there is none
+     * @throws ZoneNotFoundException -> if the zone ID does not exist in the DB
+     * @return List<User> -> the users who won a seat in this zone
+     */
+    public List<User> raffle(Integer zoneID, Integer jobId){
+        long registrants = zoneRepository.countRegistrants(zoneID);
+        ZoneRaffleInfo zone = raffleBatchRepository.findZoneInfo(zoneID).orElseThrow( () -> new ZoneNotFoundException("invalid zone") );
+        return raffle(zone, registrants, jobId);
+    }
+
+    /**
+     * Draws the seats of a zone that nobody is holding on to.
+     * Big zones are raffled inside the DB, zones above the stream threshold have their registrants streamed through a
+     * bounded sampler page by page, so memory only grows with the number of seats. Smaller zones are read in one go.
+     * Ranked zones don't need the registrants at all, their next winners come straight from the rank index.
+     * @param zone -> the zone that the raffle should be performed on
+     * @param registrants -> how many users are still waiting in the zone's raffle
+     * @param jobId -> the raffle job that records the zone as completed along with its winners, null if there is none
+     * @return List<User> -> the users who won a seat in this zone in this round
+     */
+    private List<User> raffle(ZoneRaffleInfo zone, long registrants, Integer jobId){
+        // big zones are raffled inside the DB, no point in pulling all their registrants through the JVM.
+        if(registrants >= raffleConfig.getSqlThreshold()){
+            return raffleInDatabase(zone, jobId);
+        }
+        Integer zoneId = zone.getZoneId();
 
         // if raffle round >= 1, means we have to clear the previous round winners.
-        if(event.getRaffleRound() >= 1){
-            // get previous list of users, clear this zone from their list.
-            List<User> previousWinners = zone.getWinnerList();  
-            for(User previousWin : previousWinners){
-                previousWin.getZonesWon().remove(zone);
-            }
-            zone.setWinnerList(new ArrayList<User>());
+        // the ones who can still buy their ticket keep their seat, only the others lose it.
+        Set<Integer> outstanding = Set.of();
+        int[] forfeitedIds = new int[0];
+        if(zone.getRaffleRound() >= 1){
+            Set<Integer> keep = raffleConfig.isIncrementalReraffle() ? raffleBatchRepository.findOutstandingWinners(zoneId) : Set.of();
+            forfeitedIds = raffleBatchRepository.findWinners(zoneId).stream().filter(id -> !keep.contains(id)).mapToInt(Integer::intValue).toArray();
+            outstanding = keep;
         }
 
-        // get list of users who have pre registered for this zone
-        // record size of the list of users.
-        List<User> toRaffle = zone.getPreRegisteredUsers4Zone();
-        List<User> userWinners = new ArrayList<>();
-
-        // get number of tickets/seats available (this is how many winners we will be selecting)
-        int ticketsLeft = zone.getTicketsLeft();
-
-        // if ticketsLeft > toRaffleSize (means no need to raffle, everyone wins!)
-        Random rand = new Random();
-
-        // count how many people have won so far, once == zoneCap stop. (no more tickets left to raffle!)
-        // select winners until there are no tickets left (until ticketsLeft <= count)
-        while(ticketsLeft > userWinners.size() && toRaffle.size()>0){
-            // this will roll a number between 0 -> (size of arraylist-1)
-            int luckyNumber = rand.nextInt(toRaffle.size());
-            User winner = toRaffle.get(luckyNumber);
-            userWinners.add(winner);
-            // remove winner from next draw, which will in turn update the size. 
-            toRaffle.remove(winner);
-            log.info("raffled! " + userWinners.size());
+        // get number of tickets/seats available that nobody is holding on to (this is how many winners we will be selecting)
+        int seats = Math.max(zone.getTicketsLeft() - outstanding.size(), 0);
+
+        // registrants were ranked when the event closed, so the winners are simply the next ones by rank.
+        // zones that were never ranked hand the ids over to the raffle engine, it picks min(seats, registrants) winners for us.
+        // every seat still held by an earlier winner means there is nothing to draw, only the forfeits are saved.
+        int[] winnerIds;
+        List<Integer> ranked = seats == 0 ? List.of() : registrationRepository.findNextByRank(zoneId, seats);
+        if(seats == 0){
+            winnerIds = new int[0];
+        } else if(!ranked.isEmpty()){
+            winnerIds = ranked.stream().mapToInt(Integer::intValue).toArray();
+        } else if(registrants >= raffleConfig.getStreamThreshold()){
+            RaffleSampler sampler = raffleEngine.sampler(seats);
+            int pages = 0;
+            int after = Integer.MIN_VALUE;
+            int last;
+            while((last = raffleBatchRepository.scanRegistrants(zoneId, after, raffleConfig.getStreamChunkSize(), sampler::offer)) != after){
+                after = last;
+                pages++;
+            }
+            winnerIds = sampler.winners();
+            log.info("streamed " + pages + " page(s) of registrants for zone " + zoneId);
+        } else {
+            List<Registrant> pool = registrationRepository.findRegistrants(zoneId);
+            int[] poolIds = new int[pool.size()];
+            for(int i=0; i<poolIds.length; i++){
+                poolIds[i] = pool.get(i).getUserId();
             }
-        // update zone preRegistered user list.
-        zone.setPreRegisteredUsers4Zone(toRaffle);
-        // update zone winnerlist
-        zone.setWinnerList(userWinners);
-        // update count for registered user for zone
-        zone.setUser_count(toRaffle.size());
-        zoneRepository.save(zone);
-
-        // for all winners, update their user class (and event class) accordingly.
-        // event class -> preRegisteredUsers4Event needs to be updated (remove winners)
-        // user class -> remove their zone and event pre-registration once they have won. 
-        // to do: add a field for users to check which zones they won (store zone id)
-        for(int i=0; i<userWinners.size(); i++){
-            User u = userWinners.get(i);
-            //remove their pre-registration once they won
-            u.getPreRegisteredEvents().remove(event);
-            u.getPreRegisteredZones().remove(zone);
-            // add the zone they won to zoneswon. (to facilitate ticket purchasing later)
-            u.getZonesWon().add(zone);
-            userRepository.save(u);
-
-            // remove accordingly from event pre-registration list.
-            event.getPreRegisteredUsers4Event().remove(u);
-            // update count for pre_registered users for an event.
-            event.setUser_count(event.getPreRegisteredUsers4Event().size());
-            eventRepository.save(event);
-            log.info("winner no." + i + " zones won" + u.getZonesWon());
-            log.info("winner no." + i + " preRegisteredZones" + u.getPreRegisteredZones());
-            log.info("winner no." + i + " preRegisteredEvent" + u.getPreRegisteredEvents());
+            // users with a raffle weight other than 1 (loyalty / priority) make it a weighted draw.
+            if(pool.stream().anyMatch(r -> r.getRaffleWeight() != 1.0)){
+                double[] weights = new double[poolIds.length];
+                for(int i=0; i<weights.length; i++){
+                    weights[i] = pool.get(i).getRaffleWeight();
+                }
+                winnerIds = raffleEngine.draw(poolIds, weights, seats);
+            } else {
+                winnerIds = raffleEngine.draw(poolIds, seats);
+            }
+        }
+        Arrays.sort(winnerIds);
+        log.info("raffled! " + winnerIds.length + " winners out of " + registrants + " for zone " + zone.getZoneName());
+
+        // the DB is updated with JDBC batches in one go
+        // (saving every winner and the zone's eager lists one by one was where the raffle spent its time).
+        Date purchaseDeadline = new Date(System.currentTimeMillis() + raffleConfig.getPurchaseWindow().toMillis());
+        int[] won = winnerIds;
+        int[] forfeited = forfeitedIds;
+        raffleBatchRepository.completeZone(jobId, zoneId,
+                () -> raffleBatchRepository.saveWinners(zoneId, zone.getEventId(), won, forfeited, purchaseDeadline));
 
         // now we want to message the winners who won
-        String congratz = "Congratulations " + u.getEmail() + "! You have won the raffle for the event: " + event.getEventName() + ", for the zone: " + zone.getZoneName();
-        smsServ.sendCongratz(congratz, u.getPhoneNumber());
+        return notifyWinners(zone, Arrays.stream(winnerIds).boxed().toList());
+    }
+
+    /**
+     * Set-based variant of the raffle for zones with a lot of registrants.
+     * Previous winners who can no longer buy their ticket are forfeited and the seats left are drawn by a single
+     * native statement, only the new winners themselves are loaded afterwards (to message them).
+     * @param zone -> the zone that the raffle should be performed on
+     * @param jobId -> the raffle job that records the zone as completed along with its winners, null if there is none
+     * @return List<User> -> the users who won a seat in this zone
+     */
+    private List<User> raffleInDatabase(ZoneRaffleInfo zone, Integer jobId){
+        // log the seed so a draw can be reproduced if it's ever disputed.
+        long seed = ThreadLocalRandom.current().nextLong();
+        log.info("raffling zone " + zone.getZoneId() + " in the DB with seed " + seed);
+        Date purchaseDeadline = new Date(System.currentTimeMillis() + raffleConfig.getPurchaseWindow().toMillis());
+        List<Integer> winnerIds = raffleBatchRepository.completeZone(jobId, zone.getZoneId(),
+                () -> zoneRepository.raffleInDatabase(zone.getZoneId(), zone.getEventId(), zone.getTicketsLeft(), seed,
+                        raffleConfig.isIncrementalReraffle(), purchaseDeadline));
+        log.info("raffled! " + winnerIds.size() + " winners for zone " + zone.getZoneName());
+        return notifyWinners(zone, winnerIds);
+    }
+
+    /**
+     * Loads the new winners of a zone (only them) and queues their congratulation SMS.
+     * @param zone -> the zone that was raffled
+     * @param winnerIds -> ids of the users who won
+     * @return List<User> -> the winners
+     */
+    private List<User> notifyWinners(ZoneRaffleInfo zone, List<Integer> winnerIds){
+        if(winnerIds.isEmpty()){
+            return new ArrayList<>();
+        }
+        List<User> userWinners = userRepository.findAllById(winnerIds);
+        for(User u : userWinners){
+            String congratz = "Congratulations " + u.getEmail() + "! You have won the raffle for the event: " + zone.getEventName() + ", for the zone: " + zone.getZoneName();
+            smsServ.sendCongratz(congratz, u.getPhoneNumber());
         }
+        return userWinners;
+    }
 
-        // check everything is updated accordingly.
-        log.info("event preResigtered list: " + event.getPreRegisteredUsers4Event());
-        log.info("zone preRegistered list: " + zone.getPreRegisteredUsers4Zone());
-        log.info("zone winner list:" + zone.getWinnerList());
-        return;
+    private static ZoneRaffleInfo toRaffleInfo(Zones zone){
+        Event event = zone.getEvent();
+        return new ZoneRaffleInfo(zone.getZoneId(), zone.getZoneName(), zone.getTicketsLeft(),
+                event.getEventId(), event.getEventName(), event.getRaffleRound());
     }
 
     /**
@@ -207,7 +335,7 @@ public class ZoneServiceImpl implements ZoneService {
      */
     public List<Zones> userJoinedZones(String email){
         User uzer = userRepository.findByEmail(email).orElseThrow(() -> new UserNotFoundException());
-        return uzer.getPreRegisteredZones();
+        return zoneRepository.findJoinedBy(uzer.getUserId());
     }
 
     /**
@@ -0,0 +1,190 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.swiftyticket.config.AdmissionConfig;
+import com.swiftyticket.dto.zone.AdmissionStats;
+import com.swiftyticket.exceptions.TooManyRegistrationsException;
+import com.swiftyticket.services.implementations.TokenBucketAdmissionService;
+
+class AdmissionServiceUnitTests {
+
+    private AdmissionConfig admissionConfig;
+
+    @BeforeEach
+    void setUp() {
+        admissionConfig = new AdmissionConfig();
+        admissionConfig.setPermitsPerSecond(1);
+        admissionConfig.setBurst(3);
+        admissionConfig.setMaxWaitMillis(0);
+        admissionConfig.setMaxQueued(10);
+    }
+
+    @Test
+    void admit_WithinBurst_LetThrough() {
+        // Arrange
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+
+        // Act
+        for(int i=0; i<3; i++){
+            admission.admit(1);
+        }
+
+        // Assert
+        AdmissionStats stats = admission.getStats(1);
+        assertEquals(3, stats.getAdmitted());
+        assertEquals(0, stats.getRejected());
+    }
+
+    @Test
+    void admit_OverLimit_RejectedWithRetryAfter() {
+        // Arrange
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+        for(int i=0; i<3; i++){
+            admission.admit(1);
+        }
+
+        // Act
+        TooManyRegistrationsException thrown = assertThrows(TooManyRegistrationsException.class, () -> admission.admit(1));
+
+        // Assert
+        // at one per second the next slot frees up within a second
+        assertEquals(1, thrown.getRetryAfterSeconds());
+        assertEquals(1, admission.getStats(1).getRejected());
+        // other events have their own bucket
+        assertDoesNotThrow(() -> admission.admit(2));
+    }
+
+    @Test
+    void admit_ShortWait_HeldBackThenLetThrough() {
+        // Arrange
+        admissionConfig.setPermitsPerSecond(50);
+        admissionConfig.setBurst(1);
+        admissionConfig.setMaxWaitMillis(1000);
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+        admission.admit(1);
+
+        // Act
+        long started = System.nanoTime();
+        admission.admit(1);
+        long waitedMillis = (System.nanoTime() - started) / 1000000;
+
+        // Assert
+        AdmissionStats stats = admission.getStats(1);
+        assertEquals(2, stats.getAdmitted());
+        assertEquals(1, stats.getDelayed());
+        assertEquals(0, stats.getWaiting());
+        // one slot every 20ms
+        assertTrue(waitedMillis >= 10, "waited " + waitedMillis + "ms");
+    }
+
+    @Test
+    void admit_QueueFull_Rejected() {
+        // Arrange
+        admissionConfig.setMaxWaitMillis(5000);
+        admissionConfig.setMaxQueued(0);
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+        for(int i=0; i<3; i++){
+            admission.admit(1);
+        }
+
+        // Act & Assert
+        assertThrows(TooManyRegistrationsException.class, () -> admission.admit(1));
+        assertEquals(0, admission.getStats(1).getDelayed());
+    }
+
+    @Test
+    void admit_OtherEventHoldsAllWaitingSlots_Rejected() throws Exception {
+        // Arrange
+        admissionConfig.setBurst(1);
+        admissionConfig.setMaxWaitMillis(5000);
+        admissionConfig.setMaxQueuedTotal(1);
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+        admission.admit(1);
+        Thread waiter = new Thread(() -> admission.admit(1));
+        waiter.start();
+        while(admission.getStats(1).getWaiting() == 0){
+            Thread.sleep(1);
+        }
+        admission.admit(2);
+
+        // Act & Assert
+        // event 2 may hold one back itself, but event 1 already takes the only waiting slot there is
+        assertThrows(TooManyRegistrationsException.class, () -> admission.admit(2));
+        assertEquals(0, admission.getStats(2).getDelayed());
+        waiter.join();
+    }
+
+    @Test
+    void evictIdleLimiters_QuietEvent_Dropped() throws Exception {
+        // Arrange
+        admissionConfig.setPermitsPerSecond(1000);
+        admissionConfig.setIdleEvictMillis(0);
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+        admission.admit(1);
+        Thread.sleep(5);
+
+        // Act
+        admission.evictIdleLimiters();
+
+        // Assert
+        assertEquals(0, admission.getStats(1).getAdmitted());
+    }
+
+    @Test
+    void admit_TooManyEvents_ShareOverflowLimiter() {
+        // Arrange
+        admissionConfig.setMaxEvents(1);
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+        admission.admit(1);
+
+        // Act
+        for(int i=0; i<3; i++){
+            admission.admit(2);
+        }
+
+        // Assert
+        // events past the first one are not tracked on their own, they use up one shared bucket
+        assertEquals(0, admission.getStats(2).getAdmitted());
+        assertThrows(TooManyRegistrationsException.class, () -> admission.admit(3));
+    }
+
+    @Test
+    void admit_EventWithOwnLimit_UsesIt() {
+        // Arrange
+        AdmissionConfig.Limit headline = new AdmissionConfig.Limit();
+        headline.setPermitsPerSecond(1);
+        headline.setBurst(5);
+        admissionConfig.getEvents().put(1, headline);
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+
+        // Act
+        for(int i=0; i<5; i++){
+            admission.admit(1);
+        }
+
+        // Assert
+        assertEquals(5, admission.getStats(1).getBurst());
+        assertEquals(3, admission.getStats(2).getBurst());
+        assertThrows(TooManyRegistrationsException.class, () -> admission.admit(1));
+    }
+
+    @Test
+    void admit_Disabled_AlwaysLetThrough() {
+        // Arrange
+        admissionConfig.setEnabled(false);
+        TokenBucketAdmissionService admission = new TokenBucketAdmissionService(admissionConfig);
+
+        // Act & Assert
+        for(int i=0; i<10; i++){
+            admission.admit(1);
+        }
+        assertEquals(0, admission.getStats(1).getAdmitted());
+    }
+}
@@ -1,6 +1,7 @@
 package com.swiftyticket;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -20,6 +21,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import com.swiftyticket.dto.event.EventSummary;
 import com.swiftyticket.dto.auth.AuthResponse;
 import com.swiftyticket.dto.auth.SignInRequest;
 import com.swiftyticket.exceptions.EventNotFoundException;
@@ -122,11 +124,11 @@ public class EventIntegrationTest {
         headers.add("Content-Type", "application/json");
 
 
-        ResponseEntity<List<Event>> responseEntity = testRestTemplate.exchange(
+        ResponseEntity<List<EventSummary>> responseEntity = testRestTemplate.exchange(
             createURLWithPort("/events"),
             HttpMethod.GET,
             new HttpEntity<>(headers),
-            new ParameterizedTypeReference<List<Event>>() {}
+            new ParameterizedTypeReference<List<EventSummary>>() {}
         );
 
         assertEquals(200, responseEntity.getStatusCode().value());
@@ -436,8 +438,9 @@ public class EventIntegrationTest {
             String.class
         );
 
-        assertEquals(200, responseEntity.getStatusCode().value());
-        assertEquals("Event #" + closedEvent.getEventId() + "'s raffle has been done", responseEntity.getBody());
+        // the raffle is queued as a job, so we only get the job back
+        assertEquals(202, responseEntity.getStatusCode().value());
+        assertTrue(responseEntity.getBody().contains("\"eventId\":" + closedEvent.getEventId()));
     }
 
     @Test
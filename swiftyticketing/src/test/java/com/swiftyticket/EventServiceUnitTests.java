@@ -1,5 +1,6 @@
 package com.swiftyticket;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -11,11 +12,17 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.swiftyticket.config.RaffleConfig;
+import com.swiftyticket.dto.event.EventSummary;
 import com.swiftyticket.exceptions.EventNotFoundException;
 import com.swiftyticket.exceptions.OpenRegistrationRaffleException;
+import com.swiftyticket.exceptions.ZoneNotFoundException;
 import com.swiftyticket.models.Event;
+import com.swiftyticket.models.User;
 import com.swiftyticket.models.Zones;
 import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.RegistrationRepository;
+import com.swiftyticket.services.RegistrationIndex;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -31,7 +38,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-@ContextConfiguration(classes = {EventServiceImpl.class})
+@ContextConfiguration(classes = {EventServiceImpl.class, RaffleConfig.class})
 @ExtendWith(SpringExtension.class)
 class EventServiceUnitTests {
     @MockBean
@@ -43,6 +50,12 @@ class EventServiceUnitTests {
     @MockBean
     private ZoneServiceImpl zoneServiceImpl;
 
+    @MockBean
+    private RegistrationRepository registrationRepository;
+
+    @MockBean
+    private RegistrationIndex registrationIndex;
+
     // Method to get Event object, so we don't have to keep creating new ones
     private static Event getInfo(String eventName, String venue) {
         Event newEventInfo = new Event();
@@ -85,6 +98,22 @@ class EventServiceUnitTests {
         verify(eventRepository).findAll();
     }
 
+    // listEventSummaries() tests
+    @Test
+    void listEventSummaries_ReadsProjection_Successful() {
+        // Arrange
+        List<EventSummary> summaries = List.of(EventSummary.builder().eventId(1).eventName("Event 1").build());
+        when(eventRepository.findSummaries()).thenReturn(summaries);
+
+        // Act
+        List<EventSummary> actual = eventServiceImpl.listEventSummaries();
+
+        // Assert
+        assertSame(summaries, actual);
+        verify(eventRepository).findSummaries();
+        verify(eventRepository, Mockito.never()).findAll();
+    }
+
     // getEvent() tests
     @Test
     void getEvent_ValidEvent_Successful() {
@@ -281,6 +310,9 @@ class EventServiceUnitTests {
         // Assert
         verify(eventRepository).deleteById(Mockito.<Integer>any());
         verify(eventRepository).findById(Mockito.<Integer>any());
+        // the event's registrations go with it
+        verify(registrationRepository).deleteByEvent(1);
+        verify(registrationIndex).forgetEvent(1);
     }
 
     @Test
@@ -349,6 +381,8 @@ class EventServiceUnitTests {
         // Assert
         verify(eventRepository).findById(Mockito.<Integer>any());
         verify(eventRepository).save(Mockito.<Event>any());
+        // registrants are ranked for the raffle as the event closes
+        verify(registrationRepository).assignRanks(1);
     }
 
     @Test
@@ -409,7 +443,38 @@ class EventServiceUnitTests {
         verify(event).setUser_count(anyInt());
         verify(event).setZoneList(Mockito.<List<Zones>>any());
         verify(eventRepository).findById(Mockito.<Integer>any());
-        verify(eventRepository).save(Mockito.<Event>any());
+        verify(eventRepository).finishRaffleRound(Mockito.<Integer>any());
     }
-}
 
+    @Test
+    void raffle_OneZoneFails_OtherZonesStillRaffled() {
+        // Arrange
+        Event event = getInfo("Event 1", "Venue 1");
+        event.setOpen4Registration(false);
+        event.setRaffleRound(0);
+
+        User winner = new User();
+        winner.setUserId(1);
+
+        Zones goodZone = new Zones();
+        goodZone.setZoneId(1);
+        Zones badZone = new Zones();
+        badZone.setZoneId(2);
+        event.setZoneList(new ArrayList<>(List.of(goodZone, badZone)));
+
+        when(eventRepository.findById(Mockito.<Integer>any())).thenReturn(Optional.of(event));
+        when(zoneServiceImpl.raffle(Integer.valueOf(1), null)).thenReturn(List.of(winner));
+        when(zoneServiceImpl.raffle(Integer.valueOf(2), null)).thenThrow(new ZoneNotFoundException("invalid zone"));
+
+        // Act
+        eventServiceImpl.raffle(1);
+
+        // Assert
+        verify(zoneServiceImpl).raffle(Integer.valueOf(1), null);
+        verify(zoneServiceImpl).raffle(Integer.valueOf(2), null);
+        assertEquals(1, event.getRaffleRound());
+        verify(eventRepository).finishRaffleRound(1);
+        // the zones wrote their winners themselves, the event is not saved over them
+        verify(eventRepository, Mockito.never()).save(Mockito.any());
+    }
+}
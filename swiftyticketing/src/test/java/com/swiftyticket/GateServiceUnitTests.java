@@ -0,0 +1,160 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.swiftyticket.config.GateConfig;
+import com.swiftyticket.dto.gate.GateScanRequest;
+import com.swiftyticket.dto.gate.ScanResult;
+import com.swiftyticket.dto.gate.ScanStatus;
+import com.swiftyticket.models.CheckIn;
+import com.swiftyticket.repositories.CheckInBatchRepository;
+import com.swiftyticket.services.implementations.GateServiceImpl;
+import com.swiftyticket.services.implementations.HmacTicketCodeService;
+
+class GateServiceUnitTests {
+
+    private GateConfig gateConfig;
+    private HmacTicketCodeService ticketCodeService;
+    private CheckInBatchRepository checkInBatchRepository;
+    private GateServiceImpl gateService;
+
+    @BeforeEach
+    void setUp() {
+        gateConfig = new GateConfig();
+        gateConfig.setSigningKey("cuCwmZ2d0GCMZ0dKd4W0kP4N3hB9pVg0WxmLxOq3rX8=");
+        ticketCodeService = new HmacTicketCodeService(gateConfig);
+        checkInBatchRepository = mock(CheckInBatchRepository.class);
+        gateService = new GateServiceImpl(ticketCodeService, checkInBatchRepository, gateConfig);
+    }
+
+    private String todaysCode(Integer ticketId, Integer eventId) {
+        return ticketCodeService.issue(ticketId, 1, eventId, new Date());
+    }
+
+    private List<ScanStatus> statuses(List<ScanResult> results) {
+        return results.stream().map(ScanResult::getStatus).toList();
+    }
+
+    @Test
+    void verify_ValidCodes_AdmittedOnce() {
+        // Arrange
+        String code = todaysCode(42, 1);
+
+        // Act
+        List<ScanResult> first = gateService.verify(new GateScanRequest(1, List.of(code, todaysCode(43, 1))));
+        List<ScanResult> second = gateService.verify(new GateScanRequest(1, List.of(code)));
+
+        // Assert
+        assertEquals(List.of(ScanStatus.ADMITTED, ScanStatus.ADMITTED), statuses(first));
+        assertEquals(42, first.get(0).getTicketId());
+        assertEquals(List.of(ScanStatus.ALREADY_ADMITTED), statuses(second));
+    }
+
+    @Test
+    void verify_DuplicateInTheSameBatch_AdmittedOnce() {
+        // Arrange
+        String code = todaysCode(42, 1);
+
+        // Act
+        List<ScanResult> results = gateService.verify(new GateScanRequest(1, List.of(code, code)));
+
+        // Assert
+        assertEquals(List.of(ScanStatus.ADMITTED, ScanStatus.ALREADY_ADMITTED), statuses(results));
+    }
+
+    @Test
+    void verify_BadCodes_TurnedAway() {
+        // Arrange
+        Date tomorrow = Date.from(LocalDate.now().plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        gateService.revoke(44);
+
+        // Act
+        List<ScanResult> results = gateService.verify(new GateScanRequest(1, List.of(
+                "forged", todaysCode(42, 2), ticketCodeService.issue(43, 1, 1, tomorrow), todaysCode(44, 1))));
+
+        // Assert
+        assertEquals(List.of(ScanStatus.INVALID, ScanStatus.WRONG_EVENT, ScanStatus.WRONG_DATE, ScanStatus.REVOKED), statuses(results));
+    }
+
+    @Test
+    void flushCheckIns_Admitted_WrittenInOneBatch() {
+        // Arrange
+        List<CheckIn> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(checkInBatchRepository).saveCheckIns(anyList());
+        gateService.verify(new GateScanRequest(1, List.of(todaysCode(42, 1), todaysCode(43, 1))));
+
+        // Act
+        int flushed = gateService.flushCheckIns();
+
+        // Assert
+        assertEquals(2, flushed);
+        assertEquals(List.of(42, 43), written.stream().map(CheckIn::getTicketId).toList());
+        verify(checkInBatchRepository).saveCheckIns(anyList());
+    }
+
+    @Test
+    void flushCheckIns_WriteFails_KeptForTheNextFlush() {
+        // Arrange
+        gateService.verify(new GateScanRequest(1, List.of(todaysCode(42, 1))));
+        doThrow(new IllegalStateException("db down")).when(checkInBatchRepository).saveCheckIns(anyList());
+
+        // Act
+        int flushed = gateService.flushCheckIns();
+
+        // Assert
+        assertEquals(0, flushed);
+        List<CheckIn> written = new ArrayList<>();
+        doAnswer(invocation -> written.addAll(invocation.getArgument(0))).when(checkInBatchRepository).saveCheckIns(anyList());
+        assertEquals(1, gateService.flushCheckIns());
+        assertEquals(42, written.get(0).getTicketId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_CheckInsInDatabase_AlreadyAdmitted() {
+        // Arrange
+        doAnswer(invocation -> {
+            ((BiConsumer<Integer, Integer>) invocation.getArgument(0)).accept(1, 42);
+            return null;
+        }).when(checkInBatchRepository).forEachCheckIn(any());
+
+        // Act
+        gateService.rebuild();
+
+        // Assert
+        assertEquals(List.of(ScanStatus.ALREADY_ADMITTED), statuses(gateService.verify(new GateScanRequest(1, List.of(todaysCode(42, 1))))));
+    }
+
+    @Test
+    void refreshRevoked_DeclinedOnAnotherNode_Revoked() {
+        // Arrange
+        doAnswer(invocation -> {
+            ((IntConsumer) invocation.getArgument(0)).accept(42);
+            return null;
+        }).when(checkInBatchRepository).forEachRevokedTicket(any());
+
+        // Act
+        int revoked = gateService.refreshRevoked();
+
+        // Assert
+        assertEquals(1, revoked);
+        assertEquals(List.of(ScanStatus.REVOKED), statuses(gateService.verify(new GateScanRequest(1, List.of(todaysCode(42, 1))))));
+    }
+}
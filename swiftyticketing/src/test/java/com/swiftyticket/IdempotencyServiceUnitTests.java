@@ -0,0 +1,163 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftyticket.config.IdempotencyConfig;
+import com.swiftyticket.exceptions.InvalidIdempotencyKeyException;
+import com.swiftyticket.exceptions.PurchaseException;
+import com.swiftyticket.models.IdempotencyRecord;
+import com.swiftyticket.repositories.IdempotencyRecordRepository;
+import com.swiftyticket.services.implementations.IdempotencyServiceImpl;
+
+class IdempotencyServiceUnitTests {
+
+    private static final String REQUEST = "POST /tickets/purchase/eventId=1/zoneId=1";
+
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    private IdempotencyServiceImpl idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyRecordRepository = mock(IdempotencyRecordRepository.class);
+        when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+        idempotencyService = new IdempotencyServiceImpl(idempotencyRecordRepository, new IdempotencyConfig(),
+                new ObjectMapper(), mock(PlatformTransactionManager.class));
+    }
+
+    @Test
+    void execute_FirstRequest_RunAndRecorded() {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute("test@gmail.com", "key-1", REQUEST,
+                () -> new ResponseEntity<>("ticket " + runs.incrementAndGet(), HttpStatus.CREATED));
+
+        // Assert
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(idempotencyRecordRepository).insertIfAbsent(eq("test@gmail.com:key-1"), eq(REQUEST), eq(201), eq("\"ticket 1\""), any(Date.class));
+    }
+
+    @Test
+    void execute_Retry_ReplayedWithoutRunning() {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        idempotencyService.execute("test@gmail.com", "key-1", REQUEST,
+                () -> new ResponseEntity<>("ticket " + runs.incrementAndGet(), HttpStatus.CREATED));
+
+        // Act
+        ResponseEntity<?> replayed = idempotencyService.execute("test@gmail.com", "key-1", REQUEST,
+                () -> new ResponseEntity<>("ticket " + runs.incrementAndGet(), HttpStatus.CREATED));
+
+        // Assert
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals("\"ticket 1\"", replayed.getBody());
+        assertEquals("true", replayed.getHeaders().getFirst(IdempotencyServiceImpl.REPLAYED_HEADER));
+    }
+
+    @Test
+    void execute_NotInMemory_ReplayedFromDatabase() {
+        // Arrange
+        when(idempotencyRecordRepository.findById("test@gmail.com:key-1")).thenReturn(Optional.of(
+                new IdempotencyRecord("test@gmail.com:key-1", REQUEST, 201, "{\"ticketId\":7}", new Date())));
+
+        // Act
+        ResponseEntity<?> replayed = idempotencyService.execute("test@gmail.com", "key-1", REQUEST, () -> {
+            throw new IllegalStateException("should not run");
+        });
+
+        // Assert
+        assertEquals(201, replayed.getStatusCode().value());
+        assertEquals("{\"ticketId\":7}", replayed.getBody());
+        verify(idempotencyRecordRepository, never()).insertIfAbsent(anyString(), anyString(), anyInt(), anyString(), any(Date.class));
+    }
+
+    @Test
+    void execute_KeyReusedForAnotherRequest_ThrowInvalidIdempotencyKeyException() {
+        // Arrange
+        idempotencyService.execute("test@gmail.com", "key-1", REQUEST, () -> new ResponseEntity<>("ticket", HttpStatus.CREATED));
+
+        // Act & Assert
+        assertThrows(InvalidIdempotencyKeyException.class, () -> idempotencyService.execute("test@gmail.com", "key-1",
+                "POST /tickets/purchase/eventId=1/zoneId=2", () -> new ResponseEntity<>("ticket", HttpStatus.CREATED)));
+        assertThrows(InvalidIdempotencyKeyException.class, () -> idempotencyService.execute("test@gmail.com", " ",
+                REQUEST, () -> new ResponseEntity<>("ticket", HttpStatus.CREATED)));
+    }
+
+    @Test
+    void execute_FailedRequest_NotRecordedAndRunAgain() {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        assertThrows(PurchaseException.class, () -> idempotencyService.execute("test@gmail.com", "key-1", REQUEST, () -> {
+            runs.incrementAndGet();
+            throw new PurchaseException();
+        }));
+
+        // Act
+        ResponseEntity<?> response = idempotencyService.execute("test@gmail.com", "key-1", REQUEST,
+                () -> new ResponseEntity<>("ticket " + runs.incrementAndGet(), HttpStatus.CREATED));
+
+        // Assert
+        assertEquals(2, runs.get());
+        assertEquals("ticket 2", response.getBody());
+    }
+
+    @Test
+    void execute_ConcurrentDuplicates_RunOnce() throws Exception {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<ResponseEntity<?>> first = executor.submit(() -> idempotencyService.execute("test@gmail.com", "key-1", REQUEST, () -> {
+            runs.incrementAndGet();
+            started.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new ResponseEntity<>("ticket", HttpStatus.CREATED);
+        }));
+        started.await();
+        Future<ResponseEntity<?>> duplicate = executor.submit(() -> idempotencyService.execute("test@gmail.com", "key-1", REQUEST,
+                () -> new ResponseEntity<>("ticket " + runs.incrementAndGet(), HttpStatus.CREATED)));
+        Thread.sleep(50);
+        finish.countDown();
+
+        // Assert
+        assertEquals(HttpStatus.CREATED, first.get(5, TimeUnit.SECONDS).getStatusCode());
+        assertEquals("\"ticket\"", duplicate.get(5, TimeUnit.SECONDS).getBody());
+        assertEquals(1, runs.get());
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,201 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.swiftyticket.config.PaymentConfig;
+import com.swiftyticket.dto.payment.GatewayResult;
+import com.swiftyticket.dto.payment.OutboxEntry;
+import com.swiftyticket.dto.payment.PaymentCharge;
+import com.swiftyticket.exceptions.PaymentNotFoundException;
+import com.swiftyticket.models.Payment;
+import com.swiftyticket.models.PaymentOutbox;
+import com.swiftyticket.models.PaymentStatus;
+import com.swiftyticket.models.Ticket;
+import com.swiftyticket.repositories.PaymentOutboxBatchRepository;
+import com.swiftyticket.repositories.PaymentOutboxRepository;
+import com.swiftyticket.repositories.PaymentRepository;
+import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.GateService;
+import com.swiftyticket.services.PaymentGateway;
+import com.swiftyticket.services.implementations.PaymentServiceImpl;
+
+class PaymentServiceUnitTests {
+
+    private PaymentRepository paymentRepository;
+    private PaymentOutboxRepository paymentOutboxRepository;
+    private PaymentOutboxBatchRepository paymentOutboxBatchRepository;
+    private ZoneRepository zoneRepository;
+    private PaymentGateway paymentGateway;
+    private GateService gateService;
+    private PaymentConfig paymentConfig;
+    private ExecutorService paymentExecutor;
+    private PaymentServiceImpl paymentService;
+
+    @BeforeEach
+    void setUp() {
+        paymentRepository = mock(PaymentRepository.class);
+        paymentOutboxRepository = mock(PaymentOutboxRepository.class);
+        paymentOutboxBatchRepository = mock(PaymentOutboxBatchRepository.class);
+        zoneRepository = mock(ZoneRepository.class);
+        paymentGateway = mock(PaymentGateway.class);
+        gateService = mock(GateService.class);
+        paymentConfig = new PaymentConfig();
+        paymentConfig.setMaxAttempts(3);
+        paymentConfig.setRetryBackoff(Duration.ofSeconds(10));
+        paymentExecutor = Executors.newFixedThreadPool(2);
+        paymentService = new PaymentServiceImpl(paymentRepository, paymentOutboxRepository, paymentOutboxBatchRepository,
+                zoneRepository, paymentGateway, gateService, paymentConfig, paymentExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentExecutor.shutdown();
+    }
+
+    private void givenClaimed(OutboxEntry entry) {
+        when(paymentOutboxBatchRepository.claimDue(paymentConfig.getBatchSize(), paymentConfig.getLease())).thenReturn(List.of(entry));
+    }
+
+    @Test
+    void recordPayment_PurchasedTicket_PendingPaymentQueued() {
+        // Arrange
+        Ticket ticket = new Ticket(7, "Zone 1", null, null, "test@gmail.com", "1234567890", null);
+        when(zoneRepository.findTicketPrice(1)).thenReturn(Optional.of(120.0));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
+            Payment payment = invocation.getArgument(0);
+            payment.setId(3);
+            return payment;
+        });
+
+        // Act
+        Payment payment = paymentService.recordPayment(ticket, 1);
+
+        // Assert
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+        assertEquals(120.0, payment.getAmountPaid());
+        assertEquals(7, payment.getTicketId());
+        ArgumentCaptor<PaymentOutbox> outbox = ArgumentCaptor.forClass(PaymentOutbox.class);
+        verify(paymentOutboxRepository).save(outbox.capture());
+        assertEquals(3, outbox.getValue().getPaymentId());
+    }
+
+    @Test
+    void processOutbox_Approved_MarkedCaptured() {
+        // Arrange
+        givenClaimed(new OutboxEntry(1, 3, 1, 120.0, "test@gmail.com"));
+        when(paymentGateway.charge(new PaymentCharge(3, 120.0, "test@gmail.com"))).thenReturn(GatewayResult.approved("ref-3"));
+
+        // Act
+        int claimed = paymentService.processOutbox();
+
+        // Assert
+        assertEquals(1, claimed);
+        verify(paymentOutboxBatchRepository, timeout(1000)).markCaptured(1, 3, "ref-3");
+    }
+
+    @Test
+    void processOutbox_Declined_TicketRevoked() {
+        // Arrange
+        givenClaimed(new OutboxEntry(1, 3, 1, 120.0, "test@gmail.com"));
+        when(paymentGateway.charge(any(PaymentCharge.class))).thenReturn(GatewayResult.declined("insufficient funds"));
+        when(paymentOutboxBatchRepository.markDeclined(1, 3)).thenReturn(List.of(7));
+
+        // Act
+        paymentService.processOutbox();
+
+        // Assert
+        verify(gateService, timeout(1000)).revoke(7);
+        verify(paymentOutboxBatchRepository).markDeclined(1, 3);
+        verify(paymentOutboxBatchRepository, never()).markCaptured(any(), any(), anyString());
+    }
+
+    @Test
+    void processOutbox_GatewayFails_RetriedWithBackoff() {
+        // Arrange
+        givenClaimed(new OutboxEntry(1, 3, 2, 120.0, "test@gmail.com"));
+        when(paymentGateway.charge(any(PaymentCharge.class))).thenThrow(new IllegalStateException("gateway timed out"));
+
+        // Act
+        paymentService.processOutbox();
+
+        // Assert
+        // second attempt: the backoff has doubled once
+        verify(paymentOutboxBatchRepository, timeout(1000)).retryLater(1, Duration.ofSeconds(20), "gateway timed out");
+        verify(paymentOutboxBatchRepository, never()).markDeclined(any(), any());
+    }
+
+    @Test
+    void processOutbox_GatewayKeepsFailing_GivenUp() {
+        // Arrange
+        givenClaimed(new OutboxEntry(1, 3, 3, 120.0, "test@gmail.com"));
+        when(paymentGateway.charge(any(PaymentCharge.class))).thenThrow(new IllegalStateException("gateway timed out"));
+
+        // Act
+        paymentService.processOutbox();
+
+        // Assert
+        verify(paymentOutboxBatchRepository, timeout(1000)).markDeclined(1, 3);
+        verify(paymentOutboxBatchRepository, never()).retryLater(any(), any(), anyString());
+    }
+
+    @Test
+    void processOutbox_WorkersBusy_ClaimsOnlyWhatThereIsRoomFor() throws InterruptedException {
+        // Arrange
+        paymentConfig.setBatchSize(1);
+        CountDownLatch gatewayAnswers = new CountDownLatch(1);
+        when(paymentOutboxBatchRepository.claimDue(1, paymentConfig.getLease()))
+                .thenReturn(List.of(new OutboxEntry(1, 3, 1, 120.0, "test@gmail.com")));
+        when(paymentGateway.charge(any(PaymentCharge.class))).thenAnswer(invocation -> {
+            gatewayAnswers.await();
+            return GatewayResult.approved("ref-3");
+        });
+
+        // Act
+        int first = paymentService.processOutbox();
+        int whileBusy = paymentService.processOutbox();
+        gatewayAnswers.countDown();
+        verify(paymentOutboxBatchRepository, timeout(1000)).markCaptured(1, 3, "ref-3");
+        // the worker gives its room back right after it is done
+        int afterwards = 0;
+        for(int i = 0; i < 100 && afterwards == 0; i++){
+            Thread.sleep(10);
+            afterwards = paymentService.processOutbox();
+        }
+
+        // Assert
+        // the poll returns while the payment is still at the gateway
+        assertEquals(1, first);
+        assertEquals(0, whileBusy);
+        assertEquals(1, afterwards);
+    }
+
+    @Test
+    void getPayment_InvalidId_ThrowPaymentNotFoundException() {
+        // Arrange
+        when(paymentRepository.findById(eq(1))).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(PaymentNotFoundException.class, () -> paymentService.getPayment(1));
+    }
+}
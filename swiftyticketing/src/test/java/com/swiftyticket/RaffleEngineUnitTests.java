@@ -0,0 +1,139 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.swiftyticket.services.RaffleSampler;
+import com.swiftyticket.services.implementations.ReservoirRaffleEngine;
+
+class RaffleEngineUnitTests {
+
+    private final ReservoirRaffleEngine raffleEngine = new ReservoirRaffleEngine();
+
+    @Test
+    void draw_MoreTicketsThanUsers_EveryoneWins() {
+        // Arrange
+        int[] pool = {4, 8, 15};
+
+        // Act
+        int[] winners = raffleEngine.draw(pool, 5);
+
+        // Assert
+        Arrays.sort(winners);
+        assertArrayEquals(new int[]{4, 8, 15}, winners);
+    }
+
+    @Test
+    void draw_NoTickets_NoWinners() {
+        // Arrange and Act
+        int[] winners = raffleEngine.draw(new int[]{1, 2, 3}, 0);
+
+        // Assert
+        assertEquals(0, winners.length);
+    }
+
+    @Test
+    void draw_LessTicketsThanUsers_DistinctWinnersFromPool() {
+        // Arrange
+        int[] pool = new int[1000];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = i + 1;
+        }
+
+        // Act
+        int[] winners = raffleEngine.draw(pool, 100);
+
+        // Assert
+        Set<Integer> distinct = new HashSet<>();
+        for (int winner : winners) {
+            assertTrue(winner >= 1 && winner <= 1000);
+            distinct.add(winner);
+        }
+        assertEquals(100, distinct.size());
+        // the pool itself should not be touched by the draw
+        assertEquals(1, pool[0]);
+        assertEquals(1000, pool[999]);
+    }
+
+    @Test
+    void draw_ManyRounds_EveryUserHasTheSameOdds() {
+        // Arrange
+        int[] pool = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int[] wins = new int[pool.length];
+        int rounds = 20000;
+
+        // Act
+        for (int round = 0; round < rounds; round++) {
+            for (int winner : raffleEngine.draw(pool, 3)) {
+                wins[winner]++;
+            }
+        }
+
+        // Assert
+        // each user should win about 3/10 of the rounds, allow a generous margin so the test is not flaky.
+        for (int count : wins) {
+            assertTrue(Math.abs(count - rounds * 3 / 10) < rounds / 20, "unexpected win count " + count);
+        }
+    }
+
+    @Test
+    void weightedDraw_ZeroWeight_OnlyWinsLeftoverSeats() {
+        // Arrange
+        int[] pool = {1, 2, 3};
+        double[] weights = {1.0, 0.0, 1.0};
+
+        // Act
+        int[] winners = raffleEngine.draw(pool, weights, 2);
+
+        // Assert
+        Arrays.sort(winners);
+        assertArrayEquals(new int[]{1, 3}, winners);
+    }
+
+    @Test
+    void weightedDraw_ManyRounds_DoubleWeightWinsMoreOften() {
+        // Arrange
+        int[] pool = {0, 1};
+        double[] weights = {2.0, 1.0};
+        int[] wins = new int[pool.length];
+        int rounds = 30000;
+
+        // Act
+        for (int round = 0; round < rounds; round++) {
+            for (int winner : raffleEngine.draw(pool, weights, 1)) {
+                wins[winner]++;
+            }
+        }
+
+        // Assert
+        // with one seat, the user with weight 2 should win about 2/3 of the rounds.
+        assertTrue(Math.abs(wins[0] - rounds * 2 / 3) < rounds / 30, "unexpected win count " + wins[0]);
+    }
+
+    @Test
+    void sampler_LongStream_KeepsOnlyTheWinners() {
+        // Arrange
+        RaffleSampler sampler = raffleEngine.sampler(5);
+
+        // Act
+        for (int userId = 1; userId <= 100000; userId++) {
+            sampler.offer(userId, 1.0);
+        }
+        int[] winners = sampler.winners();
+
+        // Assert
+        Set<Integer> distinct = new HashSet<>();
+        for (int winner : winners) {
+            assertTrue(winner >= 1 && winner <= 100000);
+            distinct.add(winner);
+        }
+        assertEquals(5, distinct.size());
+    }
+}
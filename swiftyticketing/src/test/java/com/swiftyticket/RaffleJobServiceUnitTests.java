@@ -0,0 +1,224 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.swiftyticket.config.RaffleConfig;
+import com.swiftyticket.dto.raffle.RaffleJobResponse;
+import com.swiftyticket.exceptions.OpenRegistrationRaffleException;
+import com.swiftyticket.exceptions.RaffleJobNotFoundException;
+import com.swiftyticket.models.Event;
+import com.swiftyticket.models.RaffleJob;
+import com.swiftyticket.models.RaffleJobStatus;
+import com.swiftyticket.models.Zones;
+import com.swiftyticket.repositories.RaffleJobRepository;
+import com.swiftyticket.services.EventService;
+import com.swiftyticket.services.RaffleProgress;
+import com.swiftyticket.services.implementations.RaffleJobServiceImpl;
+
+@ContextConfiguration(classes = {RaffleJobServiceImpl.class})
+@ExtendWith(SpringExtension.class)
+class RaffleJobServiceUnitTests {
+    @MockBean
+    private RaffleJobRepository raffleJobRepository;
+
+    @MockBean
+    private EventService eventService;
+
+    @MockBean(name = "raffleJobExecutor")
+    private ExecutorService raffleJobExecutor;
+
+    @MockBean
+    private RaffleConfig raffleConfig;
+
+    @Autowired
+    private RaffleJobServiceImpl raffleJobServiceImpl;
+
+    // Method to get a closed Event with the given number of zones
+    private static Event getClosedEvent(int zones) {
+        Event event = new Event();
+        event.setEventId(1);
+        event.setOpen4Registration(false);
+        event.setZoneList(new ArrayList<>());
+        for (int i = 0; i < zones; i++) {
+            event.getZoneList().add(new Zones());
+        }
+        return event;
+    }
+
+    private static RaffleJob getJob() {
+        RaffleJob job = new RaffleJob(1, 2, new Date());
+        job.setJobId(7);
+        return job;
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(raffleConfig.getJobLease()).thenReturn(Duration.ofMinutes(2));
+        when(raffleJobRepository.findByActiveEventId(1)).thenReturn(Optional.empty());
+    }
+
+    // submitRaffle() tests
+    @Test
+    void submitRaffle_ClosedEvent_JobQueued() {
+        // Arrange
+        when(eventService.getEvent(1)).thenReturn(getClosedEvent(2));
+        when(raffleJobRepository.save(any(RaffleJob.class))).thenReturn(getJob());
+
+        // Act
+        RaffleJobResponse response = raffleJobServiceImpl.submitRaffle(1);
+
+        // Assert
+        verify(raffleJobExecutor).submit(any(Runnable.class));
+        assertEquals(7, response.getJobId());
+        assertEquals(RaffleJobStatus.QUEUED, response.getStatus());
+        assertEquals(2, response.getZonesTotal());
+        assertEquals(0, response.getElapsedMillis());
+    }
+
+    @Test
+    void submitRaffle_OpenEvent_ThrowsOpenRegistrationRaffleException() {
+        // Arrange
+        Event event = getClosedEvent(1);
+        event.setOpen4Registration(true);
+        when(eventService.getEvent(1)).thenReturn(event);
+
+        // Act & Assert
+        assertThrows(OpenRegistrationRaffleException.class, () -> raffleJobServiceImpl.submitRaffle(1));
+        verify(raffleJobRepository, never()).save(any(RaffleJob.class));
+    }
+
+    @Test
+    void submitRaffle_JobAlreadyActive_ReturnsActiveJob() {
+        // Arrange
+        when(eventService.getEvent(1)).thenReturn(getClosedEvent(2));
+        when(raffleJobRepository.findByActiveEventId(1)).thenReturn(Optional.of(getJob()));
+
+        // Act
+        RaffleJobResponse response = raffleJobServiceImpl.submitRaffle(1);
+
+        // Assert
+        assertEquals(7, response.getJobId());
+        verify(raffleJobRepository, never()).save(any(RaffleJob.class));
+        verify(raffleJobExecutor, never()).submit(any(Runnable.class));
+    }
+
+    @Test
+    void submitRaffle_ConcurrentSubmitWins_ReturnsTheirJob() {
+        // Arrange
+        when(eventService.getEvent(1)).thenReturn(getClosedEvent(2));
+        when(raffleJobRepository.findByActiveEventId(1)).thenReturn(Optional.empty(), Optional.of(getJob()));
+        when(raffleJobRepository.save(any(RaffleJob.class))).thenThrow(new DataIntegrityViolationException("active_event_id"));
+
+        // Act
+        RaffleJobResponse response = raffleJobServiceImpl.submitRaffle(1);
+
+        // Assert
+        assertEquals(7, response.getJobId());
+        verify(raffleJobExecutor, never()).submit(any(Runnable.class));
+    }
+
+    @Test
+    void submitRaffle_JobRuns_MarkedCompleted() {
+        // Arrange
+        RaffleJob job = getJob();
+        when(eventService.getEvent(1)).thenReturn(getClosedEvent(2));
+        when(raffleJobRepository.save(any(RaffleJob.class))).thenReturn(job);
+        when(raffleJobRepository.findById(7)).thenReturn(Optional.of(job));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+        // Act
+        raffleJobServiceImpl.submitRaffle(1);
+        verify(raffleJobExecutor).submit(task.capture());
+        task.getValue().run();
+
+        // Assert
+        ArgumentCaptor<RaffleProgress> progress = ArgumentCaptor.forClass(RaffleProgress.class);
+        verify(eventService).raffle(eq(1), progress.capture());
+        // the zones record themselves as done by the job, in their own raffle transaction
+        assertEquals(7, progress.getValue().jobId());
+        assertEquals(RaffleJobStatus.COMPLETED, job.getStatus());
+        assertEquals(true, job.getFinishedAt() != null);
+        assertEquals(null, job.getActiveEventId());
+    }
+
+    // getJob() tests
+    @Test
+    void getJob_NotFound_ThrowsRaffleJobNotFoundException() {
+        // Arrange
+        when(raffleJobRepository.findByJobIdAndEventId(7, 1)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(RaffleJobNotFoundException.class, () -> raffleJobServiceImpl.getJob(1, 7));
+    }
+
+    // resumeInterruptedJobs() tests
+    @Test
+    void resumeInterruptedJobs_AbandonedJobClaimed_Resubmitted() {
+        // Arrange
+        when(raffleJobRepository.claimAbandoned(any(), any())).thenReturn(List.of(7));
+
+        // Act
+        raffleJobServiceImpl.resumeInterruptedJobs();
+
+        // Assert
+        verify(raffleJobExecutor).submit(any(Runnable.class));
+    }
+
+    @Test
+    void resumeInterruptedJobs_OwnJobQueued_LeaseRenewed() {
+        // Arrange
+        when(eventService.getEvent(1)).thenReturn(getClosedEvent(2));
+        when(raffleJobRepository.save(any(RaffleJob.class))).thenReturn(getJob());
+        when(raffleJobRepository.claimAbandoned(any(), any())).thenReturn(List.of());
+        raffleJobServiceImpl.submitRaffle(1);
+
+        // Act
+        raffleJobServiceImpl.resumeInterruptedJobs();
+
+        // Assert
+        verify(raffleJobRepository).renewLeases(eq(Set.of(7)), any());
+        verify(raffleJobExecutor).submit(any(Runnable.class));
+    }
+
+    @Test
+    void resumeInterruptedJobs_JobAlreadyFinished_NotRaffledAgain() {
+        // Arrange
+        RaffleJob job = getJob();
+        job.setActiveEventId(null);
+        when(raffleJobRepository.claimAbandoned(any(), any())).thenReturn(List.of(7));
+        when(raffleJobRepository.findById(7)).thenReturn(Optional.of(job));
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+
+        // Act
+        raffleJobServiceImpl.resumeInterruptedJobs();
+        verify(raffleJobExecutor).submit(task.capture());
+        task.getValue().run();
+
+        // Assert
+        verify(eventService, never()).raffle(any(), any());
+    }
+}
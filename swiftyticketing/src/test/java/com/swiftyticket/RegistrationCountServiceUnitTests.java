@@ -0,0 +1,74 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.swiftyticket.dto.zone.RegistrationCounts;
+import com.swiftyticket.dto.zone.ZoneCount;
+import com.swiftyticket.exceptions.EventNotFoundException;
+import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.implementations.RegistrationCountServiceImpl;
+
+@ContextConfiguration(classes = {RegistrationCountServiceImpl.class})
+@ExtendWith(SpringExtension.class)
+class RegistrationCountServiceUnitTests {
+    @MockBean
+    private EventRepository eventRepository;
+
+    @MockBean
+    private ZoneRepository zoneRepository;
+
+    @Autowired
+    private RegistrationCountServiceImpl registrationCountServiceImpl;
+
+    @Test
+    void getCounts_EventExists_CountsOnly() {
+        // Arrange
+        List<ZoneCount> zones = List.of(new ZoneCount(1, "Zone 1", 2), new ZoneCount(2, "Zone 2", 1));
+        when(eventRepository.findUserCount(1)).thenReturn(Optional.of(3));
+        when(zoneRepository.findRegisterCounts(1)).thenReturn(zones);
+
+        // Act
+        RegistrationCounts counts = registrationCountServiceImpl.getCounts(1);
+
+        // Assert
+        assertEquals(new RegistrationCounts(1, 3, zones), counts);
+    }
+
+    @Test
+    void getCounts_EventNotFound_ThrowException() {
+        // Arrange
+        when(eventRepository.findUserCount(1)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EventNotFoundException.class, () -> registrationCountServiceImpl.getCounts(1));
+    }
+
+    @Test
+    void reconcile_DriftedCounts_Corrected() {
+        // Arrange
+        when(zoneRepository.reconcileRegisterCounts()).thenReturn(2);
+        when(eventRepository.reconcileUserCounts()).thenReturn(1);
+
+        // Act
+        int corrected = registrationCountServiceImpl.reconcile();
+
+        // Assert
+        assertEquals(3, corrected);
+        verify(zoneRepository).reconcileRegisterCounts();
+        verify(eventRepository).reconcileUserCounts();
+    }
+}
@@ -0,0 +1,164 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.dto.zone.ImportRejection;
+import com.swiftyticket.dto.zone.ImportReport;
+import com.swiftyticket.dto.zone.PendingRegistration;
+import com.swiftyticket.exceptions.EventClosedException;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+import com.swiftyticket.services.RegistrationIndex;
+import com.swiftyticket.services.implementations.RegistrationImportServiceImpl;
+
+class RegistrationImportServiceUnitTests {
+
+    private RegistrationBatchRepository registrationBatchRepository;
+    private RegistrationConfig registrationConfig;
+    private RegistrationIndex registrationIndex;
+    private RegistrationImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        registrationBatchRepository = mock(RegistrationBatchRepository.class);
+        registrationIndex = mock(RegistrationIndex.class);
+        registrationConfig = new RegistrationConfig();
+        importService = new RegistrationImportServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex, new ObjectMapper());
+        when(registrationBatchRepository.findOpenStatus(1)).thenReturn(Optional.of(true));
+        when(registrationBatchRepository.findZoneIds(1)).thenReturn(Set.of(2, 3));
+    }
+
+    private static InputStream upload(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importRegistrations_Csv_ValidRowsRegisteredOthersReported() throws Exception {
+        // Arrange
+        when(registrationBatchRepository.findUserIds(anyCollection())).thenReturn(Map.of("a@gmail.com", 7, "b@gmail.com", 8, "c@gmail.com", 9));
+        // c@gmail.com is already registered in the DB
+        when(registrationBatchRepository.saveEachRegistration(anyList())).thenReturn(new int[]{1, 1, 0});
+
+        // Act
+        ImportReport report = importService.importRegistrations(1, upload(
+                "email,zoneId",
+                "a@gmail.com,2",
+                "b@gmail.com,3",
+                "nobody@gmail.com,2",
+                "a@gmail.com,3",
+                "d@gmail.com,4",
+                "not a row",
+                "c@gmail.com,2"), false);
+
+        // Assert
+        assertEquals(7, report.getRowsRead());
+        assertEquals(2, report.getRegistered());
+        assertEquals(5, report.getRejected());
+        assertEquals(List.of(
+                new ImportRejection(6, "d@gmail.com", 4, "zone is not part of this event"),
+                new ImportRejection(7, null, null, "malformed row"),
+                new ImportRejection(4, "nobody@gmail.com", 2, "no user with this email"),
+                new ImportRejection(5, "a@gmail.com", 3, "already registered for this event"),
+                new ImportRejection(8, "c@gmail.com", 2, "already registered for this event")), report.getRejections());
+        verify(registrationBatchRepository).saveEachRegistration(List.of(
+                new PendingRegistration(1, 2, 7), new PendingRegistration(1, 3, 8), new PendingRegistration(1, 2, 9)));
+        verify(registrationIndex).markRegistered(1, 9);
+    }
+
+    @Test
+    void importRegistrations_Ndjson_WrittenInBatches() throws Exception {
+        // Arrange
+        registrationConfig.setImportBatchSize(2);
+        when(registrationBatchRepository.findUserIds(anyCollection())).thenReturn(Map.of("a@gmail.com", 7, "b@gmail.com", 8, "c@gmail.com", 9));
+        when(registrationBatchRepository.saveEachRegistration(anyList())).thenReturn(new int[]{1, 1}, new int[]{1});
+
+        // Act
+        ImportReport report = importService.importRegistrations(1, upload(
+                "{\"email\": \"a@gmail.com\", \"zoneId\": 2}",
+                "{\"email\": \"b@gmail.com\", \"zoneId\": 2}",
+                "",
+                "{\"email\": \"c@gmail.com\", \"zoneId\": 3}",
+                "{\"email\": \"broken"), true);
+
+        // Assert
+        assertEquals(4, report.getRowsRead());
+        assertEquals(3, report.getRegistered());
+        assertEquals(1, report.getRejected());
+        verify(registrationBatchRepository, times(2)).findUserIds(anyCollection());
+        verify(registrationBatchRepository, times(2)).saveEachRegistration(anyList());
+    }
+
+    @Test
+    void importRegistrations_ManyRejections_ReportTruncated() throws Exception {
+        // Arrange
+        registrationConfig.setImportMaxReportedRejections(1);
+
+        // Act
+        ImportReport report = importService.importRegistrations(1, upload("a@gmail.com,4", "b@gmail.com,4"), false);
+
+        // Assert
+        assertEquals(2, report.getRejected());
+        assertEquals(1, report.getRejections().size());
+        assertTrue(report.isRejectionsTruncated());
+        verify(registrationBatchRepository, never()).saveEachRegistration(anyList());
+    }
+
+    @Test
+    void importRegistrations_EventClosed_ThrowException() {
+        // Arrange
+        when(registrationBatchRepository.findOpenStatus(1)).thenReturn(Optional.of(false));
+
+        // Act & Assert
+        assertThrows(EventClosedException.class, () -> importService.importRegistrations(1, upload("a@gmail.com,2"), false));
+        verify(registrationBatchRepository, never()).saveEachRegistration(anyList());
+    }
+
+    @Test
+    void importRegistrations_EventClosedDuringImport_RowsRejected() throws Exception {
+        // Arrange
+        when(registrationBatchRepository.findUserIds(anyCollection())).thenReturn(Map.of("a@gmail.com", 7));
+        // the event was closed after the upload was accepted
+        when(registrationBatchRepository.saveEachRegistration(anyList())).thenReturn(new int[]{-1});
+
+        // Act
+        ImportReport report = importService.importRegistrations(1, upload("a@gmail.com,2"), false);
+
+        // Assert
+        assertEquals(0, report.getRegistered());
+        assertEquals(List.of(new ImportRejection(1, "a@gmail.com", 2, "pre-registration for this event is closed")), report.getRejections());
+        verify(registrationIndex, never()).markRegistered(1, 7);
+    }
+
+    @Test
+    void importRegistrations_EmptyUpload_NothingWritten() throws Exception {
+        // Act
+        ImportReport report = importService.importRegistrations(1, upload(), false);
+
+        // Assert
+        assertEquals(0, report.getRowsRead());
+        assertFalse(report.isRejectionsTruncated());
+        verify(registrationBatchRepository, never()).findUserIds(anyCollection());
+    }
+}
@@ -0,0 +1,94 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+import com.swiftyticket.services.implementations.RoaringRegistrationIndex;
+
+class RegistrationIndexUnitTests {
+
+    private RegistrationBatchRepository registrationBatchRepository;
+    private RoaringRegistrationIndex registrationIndex;
+
+    @BeforeEach
+    void setUp() {
+        registrationBatchRepository = mock(RegistrationBatchRepository.class);
+        registrationIndex = new RoaringRegistrationIndex(registrationBatchRepository, new RegistrationConfig());
+    }
+
+    @Test
+    void reserve_SameUserTwice_SecondDenied() {
+        // Act
+        boolean first = registrationIndex.reserve(1, 7);
+        boolean second = registrationIndex.reserve(1, 7);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        // the user can still join other events
+        assertTrue(registrationIndex.reserve(2, 7));
+    }
+
+    @Test
+    void release_ReservedUser_CanReserveAgain() {
+        // Arrange
+        registrationIndex.reserve(1, 7);
+
+        // Act
+        registrationIndex.release(1, 7);
+
+        // Assert
+        assertFalse(registrationIndex.isRegistered(1, 7));
+        assertTrue(registrationIndex.reserve(1, 7));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuild_RegistrationsInDb_Loaded() {
+        // Arrange
+        doAnswer(invocation -> {
+            BiConsumer<Integer, Integer> registration = invocation.getArgument(0);
+            registration.accept(1, 7);
+            registration.accept(1, 8);
+            registration.accept(2, 7);
+            return null;
+        }).when(registrationBatchRepository).forEachRegistration(any(BiConsumer.class));
+        // joined while the index was loading
+        registrationIndex.reserve(1, 9);
+
+        // Act
+        registrationIndex.rebuild();
+
+        // Assert
+        assertTrue(registrationIndex.isRegistered(1, 7));
+        assertTrue(registrationIndex.isRegistered(1, 8));
+        assertTrue(registrationIndex.isRegistered(1, 9));
+        assertTrue(registrationIndex.isRegistered(2, 7));
+        assertFalse(registrationIndex.isRegistered(2, 8));
+        assertFalse(registrationIndex.reserve(1, 8));
+    }
+
+    @Test
+    void forgetEvent_RegisteredUsers_Cleared() {
+        // Arrange
+        registrationIndex.reserve(1, 7);
+        registrationIndex.reserve(2, 7);
+
+        // Act
+        registrationIndex.forgetEvent(1);
+
+        // Assert
+        assertFalse(registrationIndex.isRegistered(1, 7));
+        assertTrue(registrationIndex.isRegistered(2, 7));
+    }
+}
@@ -0,0 +1,227 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.dto.zone.PendingRegistration;
+import com.swiftyticket.dto.zone.PreRegisterRequest;
+import com.swiftyticket.dto.zone.RegistrationTarget;
+import com.swiftyticket.exceptions.AlreadyPreRegisteredException;
+import com.swiftyticket.exceptions.EventClosedException;
+import com.swiftyticket.exceptions.RegistrationQueueFullException;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+import com.swiftyticket.services.RegistrationIndex;
+import com.swiftyticket.services.implementations.RegistrationIntakeServiceImpl;
+
+class RegistrationIntakeServiceUnitTests {
+
+    @TempDir
+    Path tempDir;
+
+    private RegistrationBatchRepository registrationBatchRepository;
+    private RegistrationConfig registrationConfig;
+    private RegistrationIndex registrationIndex;
+    private Path journalPath;
+
+    @BeforeEach
+    void setUp() {
+        registrationBatchRepository = mock(RegistrationBatchRepository.class);
+        registrationConfig = new RegistrationConfig();
+        registrationConfig.setWriteBehind(true);
+        registrationConfig.setQueueCapacity(2);
+        registrationConfig.setFlushBatchSize(1);
+        journalPath = tempDir.resolve("registration-journal.log");
+        registrationConfig.setJournalPath(journalPath.toString());
+        // the index doesn't know any of the users, duplicates are only caught when flushed
+        registrationIndex = mock(RegistrationIndex.class);
+        when(registrationIndex.reserve(any(), any())).thenReturn(true);
+    }
+
+    // Method to stub an event with one zone and the user joining it
+    private void givenTarget(boolean open) {
+        RegistrationTarget target = RegistrationTarget.builder().zoneName("Zone 1").zoneDate(new Date()).eventName("Event 1").open(open).build();
+        when(registrationBatchRepository.findTarget(1, 2)).thenReturn(Optional.of(target));
+        when(registrationBatchRepository.findUserId(any())).thenReturn(Optional.of(7));
+    }
+
+    @Test
+    void submit_OpenEvent_JournaledAndNotWrittenYet() throws Exception {
+        // Arrange
+        givenTarget(true);
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+
+        // Act
+        String result = intake.submit(new PreRegisterRequest("test@gmail.com"), 1, 2);
+
+        // Assert
+        assertTrue(result.startsWith("Received your pre-registration for: Zone 1"));
+        assertEquals(List.of("1,2,7"), Files.readAllLines(journalPath));
+        verify(registrationBatchRepository, never()).saveRegistrations(anyList(), any());
+    }
+
+    @Test
+    void submit_ClosedEvent_ThrowException() {
+        // Arrange
+        givenTarget(false);
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+
+        // Act & Assert
+        assertThrows(EventClosedException.class, () -> intake.submit(new PreRegisterRequest("test@gmail.com"), 1, 2));
+        assertFalse(Files.exists(journalPath));
+    }
+
+    @Test
+    void submit_AlreadyRegistered_ThrowException() {
+        // Arrange
+        givenTarget(true);
+        when(registrationIndex.reserve(1, 7)).thenReturn(false);
+        when(registrationBatchRepository.findRegisteredZoneId(1, 7)).thenReturn(Optional.of(3));
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+
+        // Act & Assert
+        assertThrows(AlreadyPreRegisteredException.class, () -> intake.submit(new PreRegisterRequest("test@gmail.com"), 1, 2));
+        assertFalse(Files.exists(journalPath));
+    }
+
+    @Test
+    void submit_RetryOfQueuedJoin_AcknowledgedAgainWithoutQueueing() throws Exception {
+        // Arrange
+        givenTarget(true);
+        when(registrationIndex.reserve(1, 7)).thenReturn(true, false);
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+        String first = intake.submit(new PreRegisterRequest("test@gmail.com"), 1, 2);
+
+        // Act
+        String retry = intake.submit(new PreRegisterRequest("test@gmail.com"), 1, 2);
+
+        // Assert
+        assertEquals(first, retry);
+        assertEquals(List.of("1,2,7"), Files.readAllLines(journalPath));
+        verify(registrationBatchRepository, never()).findRegisteredZoneId(any(), any());
+    }
+
+    @Test
+    void submit_RetryOfFlushedJoin_AcknowledgedAgain() {
+        // Arrange
+        givenTarget(true);
+        when(registrationIndex.reserve(1, 7)).thenReturn(false);
+        when(registrationBatchRepository.findRegisteredZoneId(1, 7)).thenReturn(Optional.of(2));
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+
+        // Act
+        String result = intake.submit(new PreRegisterRequest("test@gmail.com"), 1, 2);
+
+        // Assert
+        assertTrue(result.startsWith("Received your pre-registration for: Zone 1"));
+        assertFalse(Files.exists(journalPath));
+    }
+
+    @Test
+    void submit_QueueFull_ThrowException() {
+        // Arrange
+        givenTarget(true);
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        intake.submit(registerRequest, 1, 2);
+        intake.submit(registerRequest, 1, 2);
+
+        // Act & Assert
+        assertThrows(RegistrationQueueFullException.class, () -> intake.submit(registerRequest, 1, 2));
+        // the registration was not taken, so its spot in the index is given back
+        verify(registrationIndex).release(1, 7);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_QueuedRegistrations_WrittenInBatchesAndJournalCleared() throws Exception {
+        // Arrange
+        givenTarget(true);
+        when(registrationBatchRepository.saveRegistrations(anyList(), any())).thenReturn(1, 0);
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        intake.submit(registerRequest, 1, 2);
+        intake.submit(registerRequest, 1, 2);
+
+        // Act
+        int registered = intake.flush();
+
+        // Assert
+        // the second registration is a duplicate, the repository drops it
+        assertEquals(1, registered);
+        ArgumentCaptor<List<PendingRegistration>> batches = ArgumentCaptor.forClass(List.class);
+        verify(registrationBatchRepository, times(2)).saveRegistrations(batches.capture(), any());
+        assertEquals(List.of(new PendingRegistration(1, 2, 7)), batches.getAllValues().get(0));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void flush_WriteFails_KeptAndReplayedAfterRestart() throws Exception {
+        // Arrange
+        givenTarget(true);
+        when(registrationBatchRepository.saveRegistrations(anyList(), any())).thenThrow(new RuntimeException("db down"));
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+        intake.submit(new PreRegisterRequest("test@gmail.com"), 1, 2);
+        intake.flush();
+
+        // Act
+        RegistrationBatchRepository restartedRepository = mock(RegistrationBatchRepository.class);
+        when(restartedRepository.saveRegistrations(anyList(), any())).thenReturn(1);
+        RegistrationIntakeServiceImpl restarted = new RegistrationIntakeServiceImpl(restartedRepository, registrationConfig, registrationIndex);
+        restarted.replayJournal();
+        int registered = restarted.flush();
+
+        // Assert
+        assertEquals(1, registered);
+        verify(registrationIndex).markRegistered(1, 7);
+        verify(restartedRepository).saveRegistrations(Mockito.eq(List.of(new PendingRegistration(1, 2, 7))), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_EventClosedSinceAcknowledged_DroppedAndReleased() {
+        // Arrange
+        givenTarget(true);
+        // the event was closed (and ranked) before the queued registration got flushed
+        when(registrationBatchRepository.saveRegistrations(anyList(), any())).thenAnswer(invocation -> {
+            List<PendingRegistration> batch = invocation.getArgument(0);
+            batch.forEach(invocation.<Consumer<PendingRegistration>>getArgument(1));
+            return 0;
+        });
+        RegistrationIntakeServiceImpl intake = new RegistrationIntakeServiceImpl(registrationBatchRepository, registrationConfig, registrationIndex);
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        intake.submit(registerRequest, 1, 2);
+
+        // Act
+        int registered = intake.flush();
+
+        // Assert
+        assertEquals(0, registered);
+        // the user is not registered after all, so they are taken out of the index again
+        verify(registrationIndex).release(1, 7);
+    }
+}
@@ -0,0 +1,200 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.swiftyticket.config.HoldConfig;
+import com.swiftyticket.dto.ticket.PurchaseTicketDTO;
+import com.swiftyticket.dto.ticket.SeatHold;
+import com.swiftyticket.dto.ticket.TicketBuyer;
+import com.swiftyticket.exceptions.HoldNotFoundException;
+import com.swiftyticket.exceptions.PurchaseException;
+import com.swiftyticket.exceptions.SoldOutException;
+import com.swiftyticket.models.Ticket;
+import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.RegistrationRepository;
+import com.swiftyticket.repositories.SeatHoldBatchRepository;
+import com.swiftyticket.repositories.TicketRepository;
+import com.swiftyticket.repositories.UserRepository;
+import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.PaymentService;
+import com.swiftyticket.services.TicketCodeService;
+import com.swiftyticket.services.implementations.SeatHoldServiceImpl;
+
+class SeatHoldServiceUnitTests {
+
+    private ZoneRepository zoneRepository;
+    private EventRepository eventRepository;
+    private UserRepository userRepository;
+    private RegistrationRepository registrationRepository;
+    private TicketRepository ticketRepository;
+    private SeatHoldBatchRepository seatHoldBatchRepository;
+    private PaymentService paymentService;
+    private TicketCodeService ticketCodeService;
+    private HoldConfig holdConfig;
+
+    @BeforeEach
+    void setUp() {
+        zoneRepository = mock(ZoneRepository.class);
+        eventRepository = mock(EventRepository.class);
+        userRepository = mock(UserRepository.class);
+        registrationRepository = mock(RegistrationRepository.class);
+        ticketRepository = mock(TicketRepository.class);
+        seatHoldBatchRepository = mock(SeatHoldBatchRepository.class);
+        paymentService = mock(PaymentService.class);
+        ticketCodeService = mock(TicketCodeService.class);
+        holdConfig = new HoldConfig();
+        holdConfig.setTickMillis(5);
+        holdConfig.setWheelSize(8);
+        holdConfig.setWheelLevels(2);
+
+        when(zoneRepository.findZoneName(1, 1)).thenReturn(Optional.of("Zone 1"));
+        when(zoneRepository.findZoneDate(1)).thenReturn(Optional.of(new Date()));
+        when(userRepository.findBuyer("test@gmail.com")).thenReturn(Optional.of(new TicketBuyer(1, "test@gmail.com", "+6512345678")));
+    }
+
+    private SeatHoldServiceImpl newService() {
+        return new SeatHoldServiceImpl(zoneRepository, eventRepository, userRepository, registrationRepository,
+                ticketRepository, seatHoldBatchRepository, paymentService, ticketCodeService, holdConfig);
+    }
+
+    @Test
+    void holdSeat_Winner_SeatTakenOffSale() {
+        // Arrange
+        SeatHoldServiceImpl seatHoldService = newService();
+        when(registrationRepository.markHeld(eq(1), eq(1), any())).thenReturn(1);
+        when(zoneRepository.claimSeat(1)).thenReturn(1);
+        long before = System.currentTimeMillis();
+
+        // Act
+        SeatHold hold = seatHoldService.holdSeat(new PurchaseTicketDTO("test@gmail.com"), 1, 1);
+
+        // Assert
+        assertEquals("Zone 1", hold.getZoneName());
+        assertEquals(1, hold.getZoneId());
+        assertEquals(true, hold.getExpiresAt().getTime() >= before + Duration.ofMinutes(10).toMillis());
+        // the deadline is kept on the registration too, so another node can release the hold if this one goes down
+        verify(registrationRepository).markHeld(1, 1, hold.getExpiresAt());
+        verify(zoneRepository).claimSeat(1);
+    }
+
+    @Test
+    void holdSeat_NotAWinner_ThrowPurchaseException() {
+        // Arrange
+        SeatHoldServiceImpl seatHoldService = newService();
+        when(registrationRepository.markHeld(eq(1), eq(1), any())).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(PurchaseException.class, () -> seatHoldService.holdSeat(new PurchaseTicketDTO("test@gmail.com"), 1, 1));
+        verify(zoneRepository, never()).claimSeat(1);
+    }
+
+    @Test
+    void holdSeat_SoldOut_ThrowSoldOutException() {
+        // Arrange
+        SeatHoldServiceImpl seatHoldService = newService();
+        when(registrationRepository.markHeld(eq(1), eq(1), any())).thenReturn(1);
+        when(zoneRepository.claimSeat(1)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(SoldOutException.class, () -> seatHoldService.holdSeat(new PurchaseTicketDTO("test@gmail.com"), 1, 1));
+    }
+
+    @Test
+    void completeHold_HeldSeat_TicketSaved() {
+        // Arrange
+        SeatHoldServiceImpl seatHoldService = newService();
+        when(registrationRepository.markHeld(eq(1), eq(1), any())).thenReturn(1);
+        when(zoneRepository.claimSeat(1)).thenReturn(1);
+        when(registrationRepository.markHeldPurchased(1, 1)).thenReturn(1);
+        SeatHold hold = seatHoldService.holdSeat(new PurchaseTicketDTO("test@gmail.com"), 1, 1);
+
+        // Act
+        Ticket ticket = seatHoldService.completeHold(hold.getHoldId(), new PurchaseTicketDTO("test@gmail.com"));
+
+        // Assert
+        assertEquals("Zone 1", ticket.getZonename());
+        verify(ticketRepository).save(ticket);
+        verify(paymentService).recordPayment(ticket, 1);
+        // a hold is completed once
+        assertThrows(HoldNotFoundException.class, () -> seatHoldService.completeHold(hold.getHoldId(), new PurchaseTicketDTO("test@gmail.com")));
+    }
+
+    @Test
+    void completeHold_SomeoneElsesHold_ThrowHoldNotFoundException() {
+        // Arrange
+        SeatHoldServiceImpl seatHoldService = newService();
+        when(registrationRepository.markHeld(eq(1), eq(1), any())).thenReturn(1);
+        when(zoneRepository.claimSeat(1)).thenReturn(1);
+        when(registrationRepository.markHeldPurchased(1, 1)).thenReturn(1);
+        SeatHold hold = seatHoldService.holdSeat(new PurchaseTicketDTO("test@gmail.com"), 1, 1);
+
+        // Act & Assert
+        assertThrows(HoldNotFoundException.class, () -> seatHoldService.completeHold(hold.getHoldId(), new PurchaseTicketDTO("other@gmail.com")));
+        // the holder can still complete it
+        seatHoldService.completeHold(hold.getHoldId(), new PurchaseTicketDTO("test@gmail.com"));
+        verify(ticketRepository).save(any(Ticket.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void expireHolds_PastTheirTime_ReleasedInOneBatch() throws InterruptedException {
+        // Arrange
+        holdConfig.setTtl(Duration.ofMillis(20));
+        SeatHoldServiceImpl seatHoldService = newService();
+        when(userRepository.findBuyer("other@gmail.com")).thenReturn(Optional.of(new TicketBuyer(2, "other@gmail.com", "+6587654321")));
+        when(registrationRepository.markHeld(eq(1), eq(1), any())).thenReturn(1);
+        when(registrationRepository.markHeld(eq(1), eq(2), any())).thenReturn(1);
+        when(zoneRepository.claimSeat(1)).thenReturn(1);
+        when(seatHoldBatchRepository.releaseHolds(anyList())).thenReturn(2);
+        SeatHold first = seatHoldService.holdSeat(new PurchaseTicketDTO("test@gmail.com"), 1, 1);
+        seatHoldService.holdSeat(new PurchaseTicketDTO("other@gmail.com"), 1, 1);
+
+        // Act
+        Thread.sleep(40);
+        int released = seatHoldService.expireHolds();
+
+        // Assert
+        assertEquals(2, released);
+        ArgumentCaptor<List<int[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(seatHoldBatchRepository).releaseHolds(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        // an expired hold can't be completed
+        assertThrows(HoldNotFoundException.class, () -> seatHoldService.completeHold(first.getHoldId(), new PurchaseTicketDTO("test@gmail.com")));
+        // nothing left to expire
+        assertEquals(0, seatHoldService.expireHolds());
+    }
+
+    @Test
+    void releaseAbandonedHolds_OnlyPastDeadlineAndGrace() {
+        // Arrange
+        SeatHoldServiceImpl seatHoldService = newService();
+        long now = System.currentTimeMillis();
+
+        // Act
+        seatHoldService.releaseAbandonedHolds();
+
+        // Assert
+        ArgumentCaptor<Date> cutoff = ArgumentCaptor.forClass(Date.class);
+        verify(seatHoldBatchRepository).releaseExpiredHolds(cutoff.capture());
+        // holds that are still running, or only just expired on the node that made them, are left alone
+        assertEquals(true, cutoff.getValue().getTime() <= now - Duration.ofSeconds(30).toMillis() + 1000);
+        assertEquals(true, cutoff.getValue().getTime() >= now - Duration.ofSeconds(30).toMillis());
+    }
+}
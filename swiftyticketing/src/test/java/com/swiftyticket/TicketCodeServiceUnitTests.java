@@ -0,0 +1,74 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.swiftyticket.config.GateConfig;
+import com.swiftyticket.dto.gate.TicketClaims;
+import com.swiftyticket.services.implementations.HmacTicketCodeService;
+
+class TicketCodeServiceUnitTests {
+
+    private GateConfig gateConfig;
+    private HmacTicketCodeService ticketCodeService;
+
+    @BeforeEach
+    void setUp() {
+        gateConfig = new GateConfig();
+        gateConfig.setSigningKey("cuCwmZ2d0GCMZ0dKd4W0kP4N3hB9pVg0WxmLxOq3rX8=");
+        ticketCodeService = new HmacTicketCodeService(gateConfig);
+    }
+
+    private Date date(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    @Test
+    void verify_IssuedCode_ClaimsReadBack() {
+        // Arrange
+        LocalDate day = LocalDate.of(2024, 3, 7);
+        String code = ticketCodeService.issue(42, 3, 9, date(day));
+
+        // Act
+        TicketClaims claims = ticketCodeService.verify(code);
+
+        // Assert
+        // 16 bytes of claims and 12 of signature
+        assertEquals(38, code.length());
+        assertEquals(new TicketClaims(42, 3, 9, day), claims);
+    }
+
+    @Test
+    void verify_TamperedOrGarbage_Null() {
+        // Arrange
+        String code = ticketCodeService.issue(42, 3, 9, new Date());
+        char[] tampered = code.toCharArray();
+        // bump the ticket id
+        tampered[4] = tampered[4] == 'A' ? 'B' : 'A';
+
+        // Act & Assert
+        assertNull(ticketCodeService.verify(new String(tampered)));
+        assertNull(ticketCodeService.verify("not a code!"));
+        assertNull(ticketCodeService.verify(code.substring(0, 30)));
+    }
+
+    @Test
+    void verify_SignedWithAnotherKey_Null() {
+        // Arrange
+        String code = ticketCodeService.issue(42, 3, 9, new Date());
+        GateConfig otherConfig = new GateConfig();
+        otherConfig.setSigningKey("AAECAwQFBgcICQoLDA0ODxAREhMUFRYXGBkaGxwdHh8=");
+
+        // Act & Assert
+        assertNull(new HmacTicketCodeService(otherConfig).verify(code));
+        assertTrue(ticketCodeService.verify(code) != null);
+    }
+}
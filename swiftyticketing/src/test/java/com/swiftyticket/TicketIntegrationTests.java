@@ -15,7 +15,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 
 import com.swiftyticket.dto.auth.AuthResponse;
 import com.swiftyticket.dto.auth.SignInRequest;
+import com.swiftyticket.controllers.TicketController;
 import com.swiftyticket.dto.ticket.PurchaseTicketDTO;
+import com.swiftyticket.dto.ticket.PurchasedTicket;
+import com.swiftyticket.dto.ticket.QueuePosition;
+import com.swiftyticket.dto.ticket.QueueToken;
 import com.swiftyticket.dto.zone.PreRegisterRequest;
 import com.swiftyticket.dto.zone.ZoneRequest;
 import com.swiftyticket.models.Event;
@@ -157,24 +161,47 @@ public class TicketIntegrationTests {
         return baseUrl + port + uri;
     }
 
+    // Joins the zone's waiting room and waits for the token to be released
+    private String queueToken(String bearerToken, String email) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Content-Type", "application/json");
+        headers.add("Authorization", "Bearer " + bearerToken);
+        QueueToken queueToken = testRestTemplate.exchange(
+                createURLWithPort("/tickets/queue/eventId=" + event.getEventId() + "/zoneId=" + zone.getZoneId()),
+                HttpMethod.POST, new HttpEntity<>(new PurchaseTicketDTO(email), headers), QueueToken.class
+        ).getBody();
+
+        headers.add(TicketController.QUEUE_TOKEN_HEADER, queueToken.getToken());
+        for(int i=0; i<50; i++){
+            QueuePosition position = testRestTemplate.exchange(createURLWithPort("/tickets/queue"),
+                    HttpMethod.GET, new HttpEntity<>(headers), QueuePosition.class).getBody();
+            if(position.isReleased()) break;
+            Thread.sleep(100);
+        }
+        return queueToken.getToken();
+    }
+
     @Test
     public void ticketPurchase_Valid_ReturnTicket() throws Exception {
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(Arrays.asList(MediaType.APPLICATION_JSON));
         headers.add("Content-Type", "application/json");
         headers.add("Authorization", "Bearer " + userToken);
+        headers.add(TicketController.QUEUE_TOKEN_HEADER, queueToken(userToken, "newUser@email.com"));
 
         PurchaseTicketDTO req = new PurchaseTicketDTO();
         req.setEmail("newUser@email.com");
 
         HttpEntity<PurchaseTicketDTO> entity = new HttpEntity<>(req, headers);
-        ResponseEntity<Ticket> responseEntity = testRestTemplate.exchange(
+        ResponseEntity<PurchasedTicket> responseEntity = testRestTemplate.exchange(
                 createURLWithPort("/tickets/purchase/eventId=" + event.getEventId() + "/zoneId=" + zone.getZoneId()),
-                HttpMethod.POST, entity, Ticket.class
+                HttpMethod.POST, entity, PurchasedTicket.class
         );
             
         assertEquals(201, responseEntity.getStatusCode().value());
         assertNotNull(responseEntity.getBody());
+        // the buyer gets the gate code with the purchase
+        assertNotNull(responseEntity.getBody().getCode());
     }
 
     @Test
@@ -184,6 +211,7 @@ public class TicketIntegrationTests {
         headers.add("Content-Type", "application/json");
         //admin isnt a winner as he didn't participate. should fail. 
         headers.add("Authorization", "Bearer " + adminToken);
+        headers.add(TicketController.QUEUE_TOKEN_HEADER, queueToken(adminToken, "newAdmin@email.com"));
 
         PurchaseTicketDTO req = new PurchaseTicketDTO();
         req.setEmail("newAdmin@email.com");
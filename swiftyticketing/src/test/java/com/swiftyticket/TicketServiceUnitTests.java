@@ -1,27 +1,40 @@
 package com.swiftyticket;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.swiftyticket.config.JacksonConfiguration;
 import com.swiftyticket.dto.ticket.PurchaseTicketDTO;
+import com.swiftyticket.dto.ticket.TicketFilter;
+import com.swiftyticket.dto.ticket.TicketPage;
+import com.swiftyticket.dto.ticket.TicketRow;
+import com.swiftyticket.dto.ticket.TicketBuyer;
 import com.swiftyticket.exceptions.*;
 import com.swiftyticket.models.Event;
-import com.swiftyticket.models.Role;
 import com.swiftyticket.models.Ticket;
 import com.swiftyticket.models.User;
 import com.swiftyticket.models.Zones;
 import com.swiftyticket.repositories.EventRepository;
+import com.swiftyticket.repositories.RegistrationRepository;
+import com.swiftyticket.repositories.TicketBatchRepository;
 import com.swiftyticket.repositories.TicketRepository;
 import com.swiftyticket.repositories.UserRepository;
 import com.swiftyticket.repositories.ZoneRepository;
+import com.swiftyticket.services.PaymentService;
+import com.swiftyticket.services.TicketCodeService;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.swiftyticket.services.implementations.JwtServiceImpl;
 import com.swiftyticket.services.implementations.TicketServiceImpl;
@@ -33,7 +46,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-@ContextConfiguration(classes = {TicketServiceImpl.class})
+@ContextConfiguration(classes = {TicketServiceImpl.class, JacksonConfiguration.class})
 @ExtendWith(SpringExtension.class)
 class TicketServiceUnitTests {
     @MockBean
@@ -54,16 +67,26 @@ class TicketServiceUnitTests {
     @MockBean
     private ZoneRepository zoneRepository;
 
+    @MockBean
+    private RegistrationRepository registrationRepository;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @MockBean
+    private TicketCodeService ticketCodeService;
+
+    @MockBean
+    private TicketBatchRepository ticketBatchRepository;
+
     // Helper method to create a zone object for testing
     private Zones getZone() {
         Zones zone = new Zones();
         zone.setEvent(new Event());
-        zone.setPreRegisteredUsers4Zone(new ArrayList<>());
         zone.setTicketList(new ArrayList<>());
         zone.setTicket_price(10.0);
         zone.setTicketsLeft(1);
         zone.setUser_count(3);
-        zone.setWinnerList(new ArrayList<>());
         zone.setZoneCapacity(1);
         zone.setZoneDate(new Date());
         zone.setZoneId(1);
@@ -97,6 +120,66 @@ class TicketServiceUnitTests {
         verify(ticketRepository).findAll();
     }
 
+    // listTickets(filter, after, limit) tests
+    private TicketRow getTicketRow(Integer ticketId) {
+        return new TicketRow(ticketId, 1, 1, "Zone 1", "test@gmail.com", "1234567890");
+    }
+
+    @Test
+    void listTickets_MoreThanAPage_ReturnNextCursor() {
+        // Arrange
+        TicketFilter filter = new TicketFilter(1, null, null);
+        when(ticketBatchRepository.findPage(filter, 10, 3)).thenReturn(new ArrayList<>(List.of(getTicketRow(11), getTicketRow(12), getTicketRow(15))));
+
+        // Act
+        TicketPage page = ticketServiceImpl.listTickets(filter, 10, 2);
+
+        // Assert
+        assertEquals(2, page.getTickets().size());
+        assertEquals(12, page.getNextCursor());
+    }
+
+    @Test
+    void listTickets_LastPage_NoNextCursor() {
+        // Arrange
+        TicketFilter filter = new TicketFilter();
+        when(ticketBatchRepository.findPage(filter, null, TicketServiceImpl.MAX_PAGE_SIZE + 1)).thenReturn(List.of(getTicketRow(1)));
+
+        // Act
+        // a page can't be larger than MAX_PAGE_SIZE
+        TicketPage page = ticketServiceImpl.listTickets(filter, null, 1000000);
+
+        // Assert
+        assertEquals(1, page.getTickets().size());
+        assertEquals(null, page.getNextCursor());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportTickets_Tickets_WrittenAsNdjson() {
+        // Arrange
+        TicketFilter filter = new TicketFilter(null, 1, null);
+        Mockito.doAnswer(invocation -> {
+            Consumer<TicketRow> consumer = invocation.getArgument(1);
+            consumer.accept(getTicketRow(1));
+            consumer.accept(getTicketRow(2));
+            return null;
+        }).when(ticketBatchRepository).forEachTicket(Mockito.eq(filter), Mockito.any());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = ticketServiceImpl.exportTickets(filter, out);
+
+        // Assert
+        assertEquals(2, exported);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"ticketId\":1,"));
+        assertTrue(lines[1].startsWith("{\"ticketId\":2,"));
+        // gate codes are never exported
+        assertFalse(lines[1].contains("\"code\""));
+    }
+
     // getTicket() tests
     @Test
     void getTicket_ValidTicket_Successful() {
@@ -144,88 +227,94 @@ class TicketServiceUnitTests {
     // purchaseTicket() tests
     @Test
     void purchaseTicket_InvalidZone_ThrowException() {
-        // Arrange and Act
-        User user = new User();
-        user.setDateOfBirth(new Date());
-        user.setEmail("test@gmail.com");
-        user.setPassword("ILoveYou");
-        user.setPhoneNumber("1234567890");
-        user.setRole(Role.USER);
-        user.setTicketsBought(new ArrayList<>());
-        user.setUserId(1);
-        user.setVerified(true);
-        user.setZonesWon(new ArrayList<>());
-        Optional<User> ofResult = Optional.of(user);
-        when(userRepository.findByEmail(user.getEmail())).thenReturn(ofResult);
-
-        PurchaseTicketDTO purchaseTicketDTO = new PurchaseTicketDTO(user.getEmail());
-
-        Event event = new Event();
-        event.setArtists(new ArrayList<>());
-        event.setDates(new ArrayList<>());
-        event.setEventId(1);
-        event.setEventName("Event 1");
-        event.setOpen4Registration(true);
-        event.setPreRegisteredUsers4Event(new ArrayList<>());
-        event.setRaffleRound(1);
-        event.setUser_count(3);
-        event.setVenue("Venue 1");
-        event.setVenueCapacity(1);
-        event.setZoneList(new ArrayList<>());
-        Optional<Event> ofResult2 = Optional.of(event);
-        when(eventRepository.findById(Mockito.<Integer>any())).thenReturn(ofResult2);
-        when(zoneRepository.findByZoneIdAndEvent(Mockito.<Integer>any(), Mockito.<Event>any()))
-                .thenThrow(new ZoneNotFoundException("Invalid zone for " + event.getEventName()));
+        // Arrange
+        when(zoneRepository.findZoneName(1, 1)).thenReturn(Optional.empty());
+        when(eventRepository.findEventName(1)).thenReturn(Optional.of("Event 1"));
 
-        // Assert
-        assertThrows(ZoneNotFoundException.class, () -> ticketServiceImpl.purchaseTicket(purchaseTicketDTO, 1, 1));
-        verify(userRepository).findByEmail(Mockito.<String>any());
-        verify(zoneRepository).findByZoneIdAndEvent(Mockito.<Integer>any(), Mockito.<Event>any());
-        verify(eventRepository).findById(Mockito.<Integer>any());
+        // Act & Assert
+        ZoneNotFoundException thrown = assertThrows(ZoneNotFoundException.class, () -> ticketServiceImpl.purchaseTicket(new PurchaseTicketDTO("test@gmail.com"), 1, 1));
+        assertEquals("Invalid zone for Event 1", thrown.getMessage());
+        verify(zoneRepository, Mockito.never()).claimSeat(Mockito.any());
     }
 
     @Test
     void purchaseTicket_InvalidUser_ThrowException() {
-        // Arrange and Act
+        // Arrange
+        when(zoneRepository.findZoneName(1, 1)).thenReturn(Optional.of("Zone 1"));
+        when(userRepository.findBuyer("invalidEmail@email.com")).thenReturn(Optional.empty());
 
-        Event event = new Event();
-        event.setArtists(new ArrayList<>());
-        event.setDates(new ArrayList<>());
-        event.setEventId(1);
-        event.setEventName("Event 1");
-        event.setOpen4Registration(true);
-        event.setPreRegisteredUsers4Event(new ArrayList<>());
-        event.setRaffleRound(1);
-        event.setUser_count(3);
-        event.setVenue("Venue 1");
-        event.setVenueCapacity(1);
-        event.setZoneList(new ArrayList<>());
+        // Act & Assert
+        assertThrows(UserNotFoundException.class, () -> ticketServiceImpl.purchaseTicket(new PurchaseTicketDTO("invalidEmail@email.com"), 1, 1));
+        verify(zoneRepository, Mockito.never()).claimSeat(Mockito.any());
+    }
 
-        Optional<Event> ofResult = Optional.of(event);
-        when(eventRepository.findById(Mockito.<Integer>any())).thenReturn(ofResult);
+    @Test
+    void purchaseTicket_InvalidEvent_ThrowException() {
+        // Arrange
+        when(zoneRepository.findZoneName(1, 1)).thenReturn(Optional.empty());
+        when(eventRepository.findEventName(1)).thenReturn(Optional.empty());
 
-        PurchaseTicketDTO purchaseTicketDTO = new PurchaseTicketDTO("invalidEmail@email.com");
+        // Act & Assert
+        assertThrows(EventNotFoundException.class, () -> ticketServiceImpl.purchaseTicket(new PurchaseTicketDTO("test@email.com"), 1, 1));
+    }
 
-        // Assert
-        assertThrows(UserNotFoundException.class, () -> ticketServiceImpl.purchaseTicket(purchaseTicketDTO, 1, 1));
-        verify(eventRepository).findById(Mockito.<Integer>any());
+    // Method to set up a user buying a ticket for zone 1 of event 1
+    private TicketBuyer givenPurchase() {
+        TicketBuyer buyer = new TicketBuyer(1, "test@gmail.com", "1234567890");
+        when(zoneRepository.findZoneName(1, 1)).thenReturn(Optional.of("Zone 1"));
+        when(userRepository.findBuyer(buyer.getEmail())).thenReturn(Optional.of(buyer));
+        when(zoneRepository.findZoneDate(1)).thenReturn(Optional.of(new Date()));
+        return buyer;
     }
 
     @Test
-    void purchaseTicket_InvalidEvent_ThrowException() {
-        // Arrange and Act
-        User user = new User();
-        user.setEmail("test@email.com");
-        user.setUserId(1);
+    void purchaseTicket_NotAWinner_ThrowException() {
+        // Arrange
+        TicketBuyer buyer = givenPurchase();
+        when(registrationRepository.markPurchased(1, 1)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(PurchaseException.class, () -> ticketServiceImpl.purchaseTicket(new PurchaseTicketDTO(buyer.getEmail()), 1, 1));
+        verify(zoneRepository, Mockito.never()).claimSeat(Mockito.any());
+        verify(ticketRepository, Mockito.never()).save(Mockito.any());
+    }
+
+    @Test
+    void purchaseTicket_SoldOut_ThrowException() {
+        // Arrange
+        TicketBuyer buyer = givenPurchase();
+        when(registrationRepository.markPurchased(1, 1)).thenReturn(1);
+        // another buyer took the last seat
+        when(zoneRepository.claimSeat(1)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(SoldOutException.class, () -> ticketServiceImpl.purchaseTicket(new PurchaseTicketDTO(buyer.getEmail()), 1, 1));
+        verify(ticketRepository, Mockito.never()).save(Mockito.any());
+    }
 
-        PurchaseTicketDTO purchaseTicketDTO = new PurchaseTicketDTO(user.getEmail());
+    @Test
+    void purchaseTicket_Winner_Successful() {
+        // Arrange
+        TicketBuyer buyer = givenPurchase();
+        when(registrationRepository.markPurchased(1, 1)).thenReturn(1);
+        when(zoneRepository.claimSeat(1)).thenReturn(1);
+        when(ticketCodeService.issue(Mockito.any(), Mockito.eq(1), Mockito.eq(1), Mockito.any())).thenReturn("signed-code");
 
-        Optional<Event> emptyResult = Optional.empty();
-        when(eventRepository.findById(Mockito.<Integer>any())).thenReturn(emptyResult);
+        // Act
+        Ticket ticket = ticketServiceImpl.purchaseTicket(new PurchaseTicketDTO(buyer.getEmail()), 1, 1);
 
         // Assert
-        assertThrows(EventNotFoundException.class, () -> ticketServiceImpl.purchaseTicket(purchaseTicketDTO, 1, 1));
-        verify(eventRepository).findById(Mockito.<Integer>any());
+        assertEquals("Zone 1", ticket.getZonename());
+        assertEquals("test@gmail.com", ticket.getUserEmail());
+        assertEquals("1234567890", ticket.getTiedPhoneNumber());
+        assertEquals("signed-code", ticket.getCode());
+        // the win is used up and the seat taken by statements, neither the zone nor the user is loaded
+        verify(registrationRepository).markPurchased(1, 1);
+        verify(zoneRepository).claimSeat(1);
+        verify(ticketRepository).save(ticket);
+        verify(paymentService).recordPayment(ticket, 1);
+        verify(zoneRepository, Mockito.never()).findByZoneIdAndEvent(Mockito.any(), Mockito.any());
+        verify(userRepository, Mockito.never()).findByEmail(Mockito.any());
+        verify(zoneRepository, Mockito.never()).save(Mockito.any());
     }
 }
-
@@ -0,0 +1,111 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.swiftyticket.services.implementations.TimingWheel;
+
+class TimingWheelUnitTests {
+
+    @Test
+    void advance_BeforeExpiry_NothingExpires() {
+        // Arrange
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 0);
+        wheel.schedule("a", 50);
+
+        // Act
+        List<String> expired = wheel.advance(49);
+
+        // Assert
+        assertTrue(expired.isEmpty());
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void advance_PastExpiry_ExpiresSoonestFirst() {
+        // Arrange
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 0);
+        wheel.schedule("late", 70);
+        wheel.schedule("early", 20);
+        wheel.schedule("never", 500);
+
+        // Act
+        List<String> expired = wheel.advance(100);
+
+        // Assert
+        assertEquals(List.of("early", "late"), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void cancel_PendingTimer_NeverExpires() {
+        // Arrange
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 0);
+        TimingWheel.Timer<String> timer = wheel.schedule("a", 30);
+        wheel.schedule("b", 30);
+
+        // Act
+        boolean cancelled = wheel.cancel(timer);
+        List<String> expired = wheel.advance(30);
+
+        // Assert
+        assertTrue(cancelled);
+        assertEquals(List.of("b"), expired);
+        assertFalse(wheel.cancel(timer));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_TimersOnHigherLevels_CascadeAndExpireOnTime() {
+        // Arrange
+        // 8 ticks of 10ms on level 0, 64 ticks on level 1, 512 ticks on level 2
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 8, 3, 0);
+        for(int expiresAt=10; expiresAt<=5000; expiresAt+=10){
+            wheel.schedule(expiresAt, expiresAt);
+        }
+
+        // Act & Assert
+        for(long now=5; now<=5100; now+=5){
+            for(Integer expiresAt : wheel.advance(now)){
+                // never early, never more than a tick late
+                assertTrue(expiresAt <= now, expiresAt + " expired early at " + now);
+                assertTrue(now - expiresAt < 10, expiresAt + " expired late at " + now);
+            }
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_BeyondTheWheel_ExpiresAfterItsTime() {
+        // Arrange
+        // the wheel only spans 64 ticks (640ms)
+        TimingWheel<String> wheel = new TimingWheel<>(10, 8, 2, 0);
+        wheel.schedule("far", 2000);
+
+        // Act
+        List<String> expired = new ArrayList<>();
+        for(long now=10; now<2000; now+=10){
+            expired.addAll(wheel.advance(now));
+        }
+        assertTrue(expired.isEmpty());
+        for(long now=2000; now<=3000; now+=10){
+            expired.addAll(wheel.advance(now));
+        }
+
+        // Assert
+        assertEquals(List.of("far"), expired);
+    }
+
+    @Test
+    void timingWheel_WheelSizeNotPowerOfTwo_Rejected() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<String>(10, 10, 2, 0));
+    }
+}
@@ -5,10 +5,12 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.swiftyticket.exceptions.DuplicateUserException;
+import com.swiftyticket.exceptions.InvalidRaffleWeightException;
 import com.swiftyticket.exceptions.UserNotFoundException;
 import com.swiftyticket.models.Role;
 import com.swiftyticket.models.User;
@@ -165,6 +167,29 @@ class UserServiceUnitTests {
     }
 
 
+    // setRaffleWeight tests
+    @Test
+    void setRaffleWeight_Successful() {
+        // Arrange
+        User user = getUserInfo();
+        when(userRepository.findByEmail("test@gmail.com")).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        // Act
+        User updated = userServiceImpl.setRaffleWeight("test@gmail.com", 2.0);
+
+        // Assert
+        assertEquals(2.0, updated.getRaffleWeight());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    void setRaffleWeight_NotPositive_ThrowException() {
+        // Act and Assert
+        assertThrows(InvalidRaffleWeightException.class, () -> userServiceImpl.setRaffleWeight("test@gmail.com", 0));
+        verify(userRepository, never()).save(Mockito.any());
+    }
+
     // deleteUser tests
     @Test
     void deleteUser_Successful() {
@@ -0,0 +1,145 @@
+package com.swiftyticket;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.swiftyticket.config.WaitingRoomConfig;
+import com.swiftyticket.dto.ticket.QueuePosition;
+import com.swiftyticket.dto.ticket.QueueToken;
+import com.swiftyticket.exceptions.InvalidQueueTokenException;
+import com.swiftyticket.exceptions.QueueTokenNotReleasedException;
+import com.swiftyticket.services.implementations.WaitingRoomServiceImpl;
+
+class WaitingRoomServiceUnitTests {
+
+    private WaitingRoomConfig waitingRoomConfig;
+    private WaitingRoomServiceImpl waitingRoom;
+
+    @BeforeEach
+    void setUp() {
+        waitingRoomConfig = new WaitingRoomConfig();
+        waitingRoomConfig.setSigningKey("Vq0Jf3dUeX2mC8rT1kZbN6sLh4yWpA9gE5oQiR7vMxc=");
+        // one place per tick
+        waitingRoomConfig.setReleasePerSecond(10);
+        waitingRoomConfig.setReleaseIntervalMillis(100);
+        waitingRoom = new WaitingRoomServiceImpl(waitingRoomConfig);
+    }
+
+    @Test
+    void join_InOrder_FifoPositions() {
+        // Act
+        QueueToken first = waitingRoom.join(1, 1, "first@gmail.com");
+        QueueToken second = waitingRoom.join(1, 1, "second@gmail.com");
+        QueueToken otherZone = waitingRoom.join(1, 2, "third@gmail.com");
+
+        // Assert
+        assertEquals(1, first.getPosition());
+        assertEquals(2, second.getPosition());
+        assertEquals(1, otherZone.getPosition());
+        // joining again keeps the same place
+        assertEquals(first.getToken(), waitingRoom.join(1, 1, "first@gmail.com").getToken());
+    }
+
+    @Test
+    void releaseTokens_AtTheZoneRate_ReleasedInOrder() {
+        // Arrange
+        QueueToken first = waitingRoom.join(1, 1, "first@gmail.com");
+        QueueToken second = waitingRoom.join(1, 1, "second@gmail.com");
+
+        // Act
+        long released = waitingRoom.releaseTokens();
+
+        // Assert
+        assertEquals(1, released);
+        QueuePosition firstPosition = waitingRoom.getPosition(first.getToken());
+        assertTrue(firstPosition.isReleased());
+        assertEquals(0, firstPosition.getPosition());
+        QueuePosition secondPosition = waitingRoom.getPosition(second.getToken());
+        assertFalse(secondPosition.isReleased());
+        assertEquals(1, secondPosition.getPosition());
+        assertDoesNotThrow(() -> waitingRoom.checkReleased(first.getToken(), 1, 1, "first@gmail.com"));
+    }
+
+    @Test
+    void releaseTokens_QuietQueue_DoesNotBankReleases() {
+        // Arrange
+        for(int i=0; i<10; i++){
+            waitingRoom.releaseTokens();
+        }
+        waitingRoom.join(1, 1, "first@gmail.com");
+        QueueToken second = waitingRoom.join(1, 1, "second@gmail.com");
+
+        // Act
+        waitingRoom.releaseTokens();
+
+        // Assert
+        assertEquals(1, waitingRoom.getPosition(second.getToken()).getPosition());
+    }
+
+    @Test
+    void checkReleased_NotReleasedYet_ThrowQueueTokenNotReleasedException() {
+        // Arrange
+        waitingRoom.join(1, 1, "first@gmail.com");
+        QueueToken second = waitingRoom.join(1, 1, "second@gmail.com");
+
+        // Act
+        QueueTokenNotReleasedException thrown = assertThrows(QueueTokenNotReleasedException.class,
+                () -> waitingRoom.checkReleased(second.getToken(), 1, 1, "second@gmail.com"));
+
+        // Assert
+        assertEquals(2, thrown.getPosition());
+        assertEquals(1, thrown.getRetryAfterSeconds());
+    }
+
+    @Test
+    void checkReleased_MissingForgedOrSomeoneElses_ThrowInvalidQueueTokenException() {
+        // Arrange
+        QueueToken token = waitingRoom.join(1, 1, "first@gmail.com");
+        waitingRoom.releaseTokens();
+        String forged = token.getToken().replaceFirst("\\.1\\.1\\.", ".1.2.");
+
+        // Act & Assert
+        assertThrows(InvalidQueueTokenException.class, () -> waitingRoom.checkReleased(null, 1, 1, "first@gmail.com"));
+        assertThrows(InvalidQueueTokenException.class, () -> waitingRoom.checkReleased("garbage", 1, 1, "first@gmail.com"));
+        assertThrows(InvalidQueueTokenException.class, () -> waitingRoom.checkReleased(forged, 1, 2, "first@gmail.com"));
+        assertThrows(InvalidQueueTokenException.class, () -> waitingRoom.checkReleased(token.getToken(), 1, 1, "other@gmail.com"));
+        assertThrows(InvalidQueueTokenException.class, () -> waitingRoom.checkReleased(token.getToken(), 1, 2, "first@gmail.com"));
+        // tokens signed with another key are not accepted
+        WaitingRoomConfig otherConfig = new WaitingRoomConfig();
+        otherConfig.setSigningKey("cuCwmZ2d0GCMZ0dKd4W0kP4N3hB9pVg0WxmLxOq3rX8=");
+        WaitingRoomServiceImpl otherRoom = new WaitingRoomServiceImpl(otherConfig);
+        otherRoom.join(1, 1, "first@gmail.com");
+        assertThrows(InvalidQueueTokenException.class, () -> otherRoom.getPosition(token.getToken()));
+    }
+
+    @Test
+    void checkReleased_TokenFromAnotherNode_ThrowInvalidQueueTokenException() {
+        // Arrange
+        QueueToken token = waitingRoom.join(1, 1, "first@gmail.com");
+        // same key, its own queues: its release counter says nothing about the first node's places
+        WaitingRoomServiceImpl otherNode = new WaitingRoomServiceImpl(waitingRoomConfig);
+        otherNode.join(1, 1, "second@gmail.com");
+        otherNode.join(1, 1, "third@gmail.com");
+        otherNode.releaseTokens();
+        otherNode.releaseTokens();
+
+        // Act & Assert
+        assertThrows(InvalidQueueTokenException.class, () -> otherNode.getPosition(token.getToken()));
+        assertThrows(InvalidQueueTokenException.class, () -> otherNode.checkReleased(token.getToken(), 1, 1, "first@gmail.com"));
+    }
+
+    @Test
+    void checkReleased_Disabled_LetThrough() {
+        // Arrange
+        waitingRoomConfig.setEnabled(false);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> waitingRoom.checkReleased(null, 1, 1, "first@gmail.com"));
+    }
+}
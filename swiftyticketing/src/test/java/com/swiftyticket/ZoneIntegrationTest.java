@@ -8,6 +8,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +27,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import com.swiftyticket.dto.zone.ZoneSummary;
 import com.swiftyticket.dto.auth.AuthResponse;
 import com.swiftyticket.dto.auth.SignInRequest;
 import com.swiftyticket.dto.zone.PreRegisterRequest;
@@ -191,9 +195,9 @@ public class ZoneIntegrationTest {
         headers.add("Authorization", "Bearer " + userToken);
         
         HttpEntity<String> entity = new HttpEntity<>(headers);
-        ResponseEntity<List<Zones>> responseEntity = testRestTemplate.exchange(
+        ResponseEntity<List<ZoneSummary>> responseEntity = testRestTemplate.exchange(
                 createURLWithPort("/events/" + openEvent.getEventId() + "/zones"),
-                HttpMethod.GET, entity, new ParameterizedTypeReference<List<Zones>>(){}
+                HttpMethod.GET, entity, new ParameterizedTypeReference<List<ZoneSummary>>(){}
         );
 
         // Check the HTTP status code
@@ -328,4 +332,51 @@ public class ZoneIntegrationTest {
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
     }
 
+    @Test
+    void preRegister_ConcurrentRetries_AllSucceed() throws Exception {
+        Zones zone = new Zones(12, "test", date, 12, openEvent);
+        zoneRepo.save(zone);
+
+        PreRegisterRequest pRegReq = new PreRegisterRequest();
+        pRegReq.setEmail("newUser@email.com");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        headers.add("Content-Type", "application/json");
+        headers.add("Authorization", "Bearer " + userToken);
+
+        HttpEntity<PreRegisterRequest> entity = new HttpEntity<>(pRegReq, headers);
+
+        // the original request and its retries overlap, only one of them inserts the registration
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+        for(int i = 0; i < 8; i++){
+            responses.add(executor.submit(() -> testRestTemplate.exchange(
+                    createURLWithPort("/events/" + openEvent.getEventId() + "/zone=" + zone.getZoneId() + "/preRegister"),
+                    HttpMethod.PUT,
+                    entity,
+                    String.class
+                    )));
+        }
+        executor.shutdown();
+
+        for(Future<ResponseEntity<String>> response : responses){
+            assertEquals(HttpStatus.OK, response.get().getStatusCode());
+        }
+        assertEquals(1, zoneRepo.findById(zone.getZoneId()).orElseThrow().getUser_count());
+    }
+
+    @Test
+    void claimSeat_EventSavedAfterwards_SeatStaysClaimed() {
+        Zones zone = new Zones(12, "test", date, 12, openEvent);
+        zoneRepo.save(zone);
+        // loaded with its zones before the seat is claimed, as the event services do
+        Event staleEvent = eventRepo.findById(openEvent.getEventId()).orElseThrow();
+
+        assertEquals(1, zoneRepo.claimSeat(zone.getZoneId()));
+        staleEvent.setOpen4Registration(false);
+        eventRepo.save(staleEvent);
+
+        assertEquals(11, zoneRepo.findById(zone.getZoneId()).orElseThrow().getTicketsLeft());
+    }
 }
@@ -1,5 +1,6 @@
 package com.swiftyticket;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -12,16 +13,23 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.text.SimpleDateFormat;
-import java.time.LocalDate;
-import java.time.ZoneOffset;
 
+import com.swiftyticket.config.RaffleConfig;
+import com.swiftyticket.config.RegistrationConfig;
+import com.swiftyticket.dto.raffle.Registrant;
+import com.swiftyticket.dto.raffle.ZoneRaffleInfo;
 import com.swiftyticket.dto.zone.PreRegisterRequest;
+import com.swiftyticket.dto.zone.RegistrationOutcome;
 import com.swiftyticket.dto.zone.ZoneRequest;
+import com.swiftyticket.dto.zone.ZoneSummary;
 import com.swiftyticket.exceptions.WrongZoneDateException;
 import com.swiftyticket.models.Event;
 import com.swiftyticket.models.Zones;
 import com.swiftyticket.repositories.EventRepository;
 import com.swiftyticket.repositories.UserRepository;
+import com.swiftyticket.repositories.RaffleBatchRepository;
+import com.swiftyticket.repositories.RegistrationBatchRepository;
+import com.swiftyticket.repositories.RegistrationRepository;
 import com.swiftyticket.repositories.ZoneRepository;
 
 import java.util.ArrayList;
@@ -30,13 +38,21 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
 
+import com.swiftyticket.services.RegistrationIndex;
+import com.swiftyticket.services.RegistrationIntakeService;
 import com.swiftyticket.services.implementations.JwtServiceImpl;
+import com.swiftyticket.services.implementations.ReservoirRaffleEngine;
 import com.swiftyticket.services.implementations.SmsServiceImpl;
 import com.swiftyticket.services.implementations.ZoneServiceImpl;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -51,10 +67,9 @@ import com.swiftyticket.exceptions.UserNotFoundException;
 
 import com.swiftyticket.exceptions.ZoneNotFoundException;
 
-import com.swiftyticket.models.Role;
 import com.swiftyticket.models.User;
 
-@ContextConfiguration(classes = {ZoneServiceImpl.class})
+@ContextConfiguration(classes = {ZoneServiceImpl.class, ReservoirRaffleEngine.class, RaffleConfig.class, RegistrationConfig.class})
 @ExtendWith(SpringExtension.class)
 class ZoneServiceUnitTests {
     @MockBean
@@ -72,9 +87,34 @@ class ZoneServiceUnitTests {
     @MockBean
     private ZoneRepository zoneRepository;
 
+    @MockBean
+    private RaffleBatchRepository raffleBatchRepository;
+
+    @MockBean
+    private RegistrationRepository registrationRepository;
+
+    @MockBean
+    private RegistrationIntakeService registrationIntakeService;
+
+    @MockBean
+    private RegistrationIndex registrationIndex;
+
+    @MockBean
+    private RegistrationBatchRepository registrationBatchRepository;
+
     @Autowired
     private ZoneServiceImpl zoneServiceImpl;
 
+    @Autowired
+    private RegistrationConfig registrationConfig;
+
+    @BeforeEach
+    void setUp() {
+        // a zone's raffle writes run inside completeZone's transaction
+        when(raffleBatchRepository.completeZone(Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(2)).get());
+    }
+
     @Test
     void addZone_NullDate_ThrowException() {
         // Arrange and Act
@@ -108,7 +148,6 @@ class ZoneServiceUnitTests {
 
         Zones zones = new Zones();
         zones.setEvent(event);
-        zones.setPreRegisteredUsers4Zone(new ArrayList<>());
         zones.setZoneCapacity(1);
         zones.setZoneDate(date);
         zones.setZoneId(1);
@@ -233,6 +272,44 @@ class ZoneServiceUnitTests {
         assertSame(zoneList, actualListZonesResult);
     }
 
+    @Test
+    void listZoneSummaries_ReadsProjection_Successful() {
+        // Arrange
+        List<ZoneSummary> summaries = List.of(ZoneSummary.builder().zoneId(2).zoneName("Zone 1").ticketsLeft(10).build());
+        when(zoneRepository.findSummaries(1)).thenReturn(summaries);
+
+        // Act
+        List<ZoneSummary> actual = zoneServiceImpl.listZoneSummaries(1);
+
+        // Assert
+        assertSame(summaries, actual);
+        verify(eventRepository, Mockito.never()).findById(Mockito.any());
+        verify(eventRepository, Mockito.never()).existsById(Mockito.any());
+    }
+
+    @Test
+    void listZoneSummaries_EventWithoutZones_ReturnsEmpty() {
+        // Arrange
+        when(zoneRepository.findSummaries(1)).thenReturn(new ArrayList<>());
+        when(eventRepository.existsById(1)).thenReturn(true);
+
+        // Act
+        List<ZoneSummary> actual = zoneServiceImpl.listZoneSummaries(1);
+
+        // Assert
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    void listZoneSummaries_EventNotFound_ThrowException() {
+        // Arrange
+        when(zoneRepository.findSummaries(-1)).thenReturn(new ArrayList<>());
+        when(eventRepository.existsById(-1)).thenReturn(false);
+
+        // Act and Assert
+        assertThrows(EventNotFoundException.class, () -> zoneServiceImpl.listZoneSummaries(-1));
+    }
+
     /**
      * Method under test: {@link ZoneServiceImpl#listZones(Event)}
      */
@@ -270,560 +347,470 @@ class ZoneServiceUnitTests {
     }
 
     // joinRaffle() tests
+
+    //helper method, what the single join statement reports for zone 2 of "Event 1"
+    private static RegistrationOutcome getOutcome(boolean open, Integer userId, boolean inserted, Integer registeredZoneId) {
+        return RegistrationOutcome.builder()
+                .zoneName("Zone 2")
+                .zoneDate(new Date(0))
+                .eventName("Event 1")
+                .open(open)
+                .userId(userId)
+                .inserted(inserted)
+                .registeredZoneId(registeredZoneId)
+                .build();
+    }
+
     @Test
     void joinRaffle_EventNotFound_ThrowException(){
         //Arrange
-        Event event = mock(Event.class);
-        when(event.getEventId()).thenReturn(1);
-
-        Zones zones = mock(Zones.class);
-        when(zones.getZoneId()).thenReturn(1);
-
-        User user = mock(User.class);
-        when(user.getEmail()).thenReturn("test@email.com");
-
-        PreRegisterRequest registerRequest = new PreRegisterRequest(user.getEmail());
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        when(registrationBatchRepository.registerOnce(1, 2, "test@gmail.com")).thenReturn(Optional.empty());
+        when(registrationBatchRepository.findEventName(1)).thenReturn(Optional.empty());
 
         //Act & Assert
-        assertThrows(EventNotFoundException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, event.getEventId(), zones.getZoneId()));
-
-        //to confirm that eventId is not found in eventRepository
-        Optional<Event> emptyValue = Optional.empty();
-        assertEquals(emptyValue, eventRepository.findById(event.getEventId()));
+        assertThrows(EventNotFoundException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, 1, 2));
     }
 
     @Test
     void joinRaffle_ZoneNotFound_ThrowException() {
         //Arrange
-        Event event = new Event();
-        event.setDates(new ArrayList<>());
-        event.setEventId(1);
-        event.setEventName("Event 1");
-        event.setOpen4Registration(true);
-        Integer eventId = event.getEventId();
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        when(registrationBatchRepository.registerOnce(1, 2, "test@gmail.com")).thenReturn(Optional.empty());
+        when(registrationBatchRepository.findEventName(1)).thenReturn(Optional.of("Event 1"));
 
-        Zones zones = new Zones();
-        zones.setEvent(event);
-        zones.setTicketList(new ArrayList<>());
-        zones.setZoneCapacity(1);
-        zones.setZoneDate(new Date());
-        zones.setZoneId(1);
-        zones.setZoneName("Zone 1");
-        Integer zoneId = zones.getZoneId();
-
-        User user = new User();
-        user.setDateOfBirth(Date.from(LocalDate.of(1970, 1, 1).atStartOfDay().atZone(ZoneOffset.UTC).toInstant()));
-        user.setEmail("test@gmail.com");
-        user.setPassword("Iloveyou1!");
-        user.setPhoneNumber("1234567890");
-        user.setRole(Role.USER);
-        user.setVerified(true);
-        String email = user.getEmail();
-
-        //Act
-        Optional<Event> ofEventResult = Optional.of(event);
-        when(eventRepository.findById(eventId)).thenReturn(ofEventResult);
-
-        PreRegisterRequest registerRequest = new PreRegisterRequest(email);
-
-        //Assert
-        assertThrows(ZoneNotFoundException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, eventId, zoneId));
-
-        verify(eventRepository).findById(eventId);
+        //Act & Assert
+        ZoneNotFoundException thrown = assertThrows(ZoneNotFoundException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, 1, 2));
+        assertEquals("Invalid zone for Event 1", thrown.getMessage());
     }
 
-    
     @Test
     void joinRaffle_EventIsClosed_ThrowException() {
-         //Arrange
-        Event event = new Event();
-        event.setDates(new ArrayList<>());
-        event.setEventId(1);
-        event.setEventName("Event 1");     
-        //set to false to simulate a closed event
-        event.setOpen4Registration(false);
-        Integer eventId = event.getEventId();
-
-        Zones zones = new Zones();
-        zones.setEvent(event);
-        zones.setTicketList(new ArrayList<>());
-        zones.setZoneCapacity(1);
-        zones.setZoneDate(new Date());
-        zones.setZoneId(1);
-        zones.setZoneName("Zone 1");
-        Integer zoneId = zones.getZoneId();
-
-        User user = new User();
-        user.setDateOfBirth(Date.from(LocalDate.of(1970, 1, 1).atStartOfDay().atZone(ZoneOffset.UTC).toInstant()));
-        user.setEmail("test@gmail.com");
-        user.setPassword("Iloveyou1!");
-        user.setPhoneNumber("1234567890");
-        user.setRole(Role.USER);
-        user.setVerified(true);
-        String email = user.getEmail();
-
-        PreRegisterRequest registerRequest = new PreRegisterRequest(email);
-
-        //Act
-        Optional<Event> ofEventResult = Optional.of(event);
-        when(eventRepository.findById(eventId)).thenReturn(ofEventResult);
-
-        Optional<Zones> ofZonesResult = Optional.of(zones);
-        when(zoneRepository.findByZoneIdAndEvent(zoneId, event)).thenReturn(ofZonesResult);
-
-        //Assert
-        assertThrows(EventClosedException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, eventId, zoneId));
+        //Arrange
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        when(registrationBatchRepository.registerOnce(1, 2, "test@gmail.com")).thenReturn(Optional.of(getOutcome(false, 7, false, null)));
 
-        verify(eventRepository).findById(eventId);
-        verify(zoneRepository).findByZoneIdAndEvent(zoneId, event);
+        //Act & Assert
+        assertThrows(EventClosedException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, 1, 2));
+        verify(registrationIndex, Mockito.never()).markRegistered(Mockito.any(), Mockito.any());
     }
 
     @Test
-    void joinRaffle_UserEmailNotFound_ThrowException() throws Exception{
+    void joinRaffle_UserEmailNotFound_ThrowException() {
         //Arrange
+        PreRegisterRequest registerRequest = new PreRegisterRequest("wrong@gmail.com");
+        when(registrationBatchRepository.registerOnce(1, 2, "wrong@gmail.com")).thenReturn(Optional.of(getOutcome(true, null, false, null)));
 
-        Event event = new Event();
-        event.setDates(new ArrayList<>());
-        event.setEventId(1);
-        event.setEventName("Event 1");
-        event.setOpen4Registration(true);
-        Integer eventId = event.getEventId();
+        //Act & Assert
+        assertThrows(UserNotFoundException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, 1, 2));
+    }
 
-        Zones zones = new Zones();
-        zones.setEvent(event);
-        zones.setTicketList(new ArrayList<>());
-        zones.setZoneCapacity(1);
-        zones.setZoneDate(new Date());
-        zones.setZoneId(1);
-        zones.setZoneName("Zone 1");
-        Integer zoneId = zones.getZoneId();
+    @Test
+    void joinRaffle_UserAlreadyPreRegisteredInOtherZone_ThrowException() {
+        //Arrange
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        //the user already has a registration for zone 3 of the event
+        when(registrationBatchRepository.registerOnce(1, 2, "test@gmail.com")).thenReturn(Optional.of(getOutcome(true, 7, false, 3)));
 
-        User user = new User();
-        user.setDateOfBirth(Date.from(LocalDate.of(1970, 1, 1).atStartOfDay().atZone(ZoneOffset.UTC).toInstant()));
-        user.setEmail("test@gmail.com");
-        user.setPassword("Iloveyou1!");
-        user.setPhoneNumber("1234567890");
-        user.setRole(Role.USER);
-        user.setVerified(true);
-        Integer userId = user.getUserId();
+        //Act & Assert
+        AlreadyPreRegisteredException thrown = assertThrows(AlreadyPreRegisteredException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, 1, 2));
+        assertEquals("you have already registered for this event: Event 1", thrown.getMessage());
+        //turned away without filling in a stack trace
+        assertEquals(0, thrown.getStackTrace().length);
+    }
 
-        PreRegisterRequest invalidRegisterRequest = new PreRegisterRequest("inexistentemail1@email.com");
+    @Test
+    void joinRaffle_RetryOfSameZone_SameAnswer() {
+        //Arrange
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        when(registrationBatchRepository.registerOnce(1, 2, "test@gmail.com")).thenReturn(
+                Optional.of(getOutcome(true, 7, true, null)),
+                //the retry finds the registration the first attempt wrote, even once the event has closed
+                Optional.of(getOutcome(false, 7, false, 2)));
 
         //Act
-        Optional<Event> ofEventResult = Optional.of(event);
-        when(eventRepository.findById(eventId)).thenReturn(ofEventResult);
-
-        Optional<Zones> ofZoneResult = Optional.of(zones);
-        when(zoneRepository.findByZoneIdAndEvent(zoneId, event)).thenReturn(ofZoneResult);
+        String first = zoneServiceImpl.joinRaffle(registerRequest, 1, 2);
+        String retry = zoneServiceImpl.joinRaffle(registerRequest, 1, 2);
 
         //Assert
-        assertThrows(UserNotFoundException.class, () -> zoneServiceImpl.joinRaffle(invalidRegisterRequest, eventId, zoneId));
-
-        //to confirm that user is not found
-        Optional<User> emptyValue = Optional.empty();
-        assertEquals(emptyValue, userRepository.findById(userId));
-
-        verify(eventRepository).findById(eventId);
-        verify(zoneRepository).findByZoneIdAndEvent(zoneId, event);
+        assertEquals(first, retry);
     }
 
-
-
-
-
     @Test
-    void joinRaffle_UserAlreadyPreRegistered_ThrowException() {
+    void joinRaffle_RetryRacingFirstAttempt_SameAnswer() {
         //Arrange
-        Event event = new Event();
-        event.setEventId(1);
-        event.setEventName("Event 1");     
-        event.setOpen4Registration(true);
-        Integer eventId = event.getEventId();
-        List<User> preRegisteredList = new ArrayList<>();
-        event.setPreRegisteredUsers4Event(preRegisteredList);
-
-        Zones zones = new Zones();
-        zones.setEvent(event);
-        zones.setTicketList(new ArrayList<>());
-        zones.setZoneCapacity(1);
-        zones.setZoneDate(new Date());
-        zones.setZoneId(1);
-        zones.setZoneName("Zone 1");
-        Integer zoneId = zones.getZoneId();
-
-        User user = new User();
-        user.setDateOfBirth(Date.from(LocalDate.of(1970, 1, 1).atStartOfDay().atZone(ZoneOffset.UTC).toInstant()));
-        user.setEmail("test@gmail.com");
-        user.setPassword("Iloveyou1!");
-        user.setPhoneNumber("1234567890");
-        user.setRole(Role.USER);
-        user.setVerified(true);
-        String email = user.getEmail();
-
-        //add user to the preRegisteredList for testing
-        preRegisteredList.add(user);
-        
-        PreRegisterRequest registerRequest = new PreRegisterRequest(email);
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        //the first attempt's insert committed while the retry ran, so the retry neither inserted nor saw its row
+        when(registrationBatchRepository.registerOnce(1, 2, "test@gmail.com")).thenReturn(Optional.of(getOutcome(true, 7, false, null)));
+        when(registrationBatchRepository.findRegisteredZoneId(1, 7)).thenReturn(Optional.of(2));
 
         //Act
-        Optional<Event> ofEventResult = Optional.of(event);
-        when(eventRepository.findById(eventId)).thenReturn(ofEventResult);
-
-        Optional<User> ofUserResult = Optional.of(user);
-        when(userRepository.findByEmail(email)).thenReturn(ofUserResult);
-
-        Optional<Zones> ofZonesResult = Optional.of(zones);
-        when(zoneRepository.findByZoneIdAndEvent(zoneId, event)).thenReturn(ofZonesResult);
+        String result = zoneServiceImpl.joinRaffle(registerRequest, 1, 2);
 
         //Assert
-        assertThrows(AlreadyPreRegisteredException.class, () -> zoneServiceImpl.joinRaffle(registerRequest, eventId, zoneId));
-
-        verify(eventRepository).findById(eventId);
-        verify(zoneRepository).findByZoneIdAndEvent(zoneId, event);
-        verify(userRepository).findByEmail(email);
+        assertEquals("Successfully joined the raffle for: Zone 2 on " + new Date(0) + " for Event 1", result);
+        verify(registrationIndex).markRegistered(1, 7);
     }
 
-
     @Test
     void joinRaffle_Successful() {
-        Event event = new Event();
-        event.setEventId(1);
-        event.setEventName("Event 1");     
-        event.setOpen4Registration(true);
-        event.setPreRegisteredUsers4Event(new ArrayList<>());
-        Integer eventId = event.getEventId();
-
-        Zones zones = new Zones();
-        zones.setEvent(event);
-        zones.setTicketList(new ArrayList<>());
-        zones.setZoneId(1);
-        zones.setZoneName("Zone 1");
-        zones.setPreRegisteredUsers4Zone(new ArrayList<>());
-        Integer zoneId = zones.getZoneId();
-
-        User user = new User();
-        user.setDateOfBirth(Date.from(LocalDate.of(1970, 1, 1).atStartOfDay().atZone(ZoneOffset.UTC).toInstant()));
-        user.setEmail("test@gmail.com");
-        user.setPassword("Iloveyou1!");
-        user.setPhoneNumber("1234567890");
-        user.setRole(Role.USER);
-        user.setVerified(true);
-        user.setPreRegisteredZones(new ArrayList<>());
-        user.setPreRegisteredEvents(new ArrayList<>());
-        String email = user.getEmail();
-
-        PreRegisterRequest registerRequest = new PreRegisterRequest(email);
-
-
-        Optional<Event> ofEventResult = Optional.of(event);
-        when(eventRepository.findById(eventId)).thenReturn(ofEventResult);
-
-        Optional<User> ofUserResult = Optional.of(user);
-        when(userRepository.findByEmail(email)).thenReturn(ofUserResult);
-
-        Optional<Zones> ofZonesResult = Optional.of(zones);
-        when(zoneRepository.findByZoneIdAndEvent(zoneId, event)).thenReturn(ofZonesResult);
+        //Arrange
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        RegistrationOutcome outcome = getOutcome(true, 7, true, null);
+        when(registrationBatchRepository.registerOnce(1, 2, "test@gmail.com")).thenReturn(Optional.of(outcome));
 
-        when(eventRepository.save(event)).thenReturn(event);
-        when(userRepository.save(user)).thenReturn(user);
-        when(zoneRepository.save(zones)).thenReturn(zones);
+        String result = "Successfully joined the raffle for: " + outcome.getZoneName() + " on " + outcome.getZoneDate() + " for " + outcome.getEventName();
 
-        String result = "Successfully joined the raffle for: " + zones.getZoneName() + " on " + zones.getZoneDate() + " for " + event.getEventName();
+        //Act & Assert
+        assertEquals(result, zoneServiceImpl.joinRaffle(registerRequest, 1, 2));
+
+        //the whole join is the one statement, none of the entities are loaded or saved
+        verify(registrationBatchRepository).registerOnce(1, 2, "test@gmail.com");
+        verify(registrationIndex).markRegistered(1, 7);
+        //duplicates are left to the statement, the index is only marked afterwards
+        verify(registrationIndex, Mockito.never()).isRegistered(Mockito.any(), Mockito.any());
+        verify(registrationIndex, Mockito.never()).reserve(Mockito.any(), Mockito.any());
+        verify(eventRepository, Mockito.never()).findById(Mockito.any());
+        verify(zoneRepository, Mockito.never()).findByZoneIdAndEvent(Mockito.any(), Mockito.any());
+        verify(userRepository, Mockito.never()).findByEmail(Mockito.any());
+        verify(registrationRepository, Mockito.never()).save(Mockito.any());
+        verify(zoneRepository, Mockito.never()).addToRegisterCount(Mockito.any(), Mockito.anyInt());
+    }
 
 
-        //Assert
-        assertEquals(result, zoneServiceImpl.joinRaffle(registerRequest, eventId, zoneId));
+    //raffle() tests
 
-        verify(eventRepository).findById(eventId);
-        verify(userRepository).findByEmail(email);
-        verify(zoneRepository).findByZoneIdAndEvent(zoneId, event);
+    //helper method, a zone of event 1 with the given seats left
+    private static Zones getZone(int raffleRound, int ticketsLeft) {
+        Event event = new Event();
+        event.setEventId(1);
+        event.setEventName("Event 1");
+        event.setRaffleRound(raffleRound);
 
-        verify(eventRepository).save(event);
-        verify(userRepository).save(user);
-        verify(zoneRepository).save(zones);
+        Zones zone = new Zones();
+        zone.setZoneId(1);
+        zone.setZoneName("Zone 1");
+        zone.setEvent(event);
+        zone.setTicketsLeft(ticketsLeft);
+        return zone;
     }
 
+    //helper method, makes the given users the registrants of zone 1 (all with even odds) and lets them be loaded back as winners
+    private void setRegistrants(User... users) {
+        List<Registrant> registrants = new ArrayList<>();
+        for(User user : users){
+            registrants.add(new Registrant(user.getUserId(), user.getRaffleWeight()));
+        }
+        when(zoneRepository.countRegistrants(1)).thenReturn((long) users.length);
+        when(registrationRepository.findRegistrants(1)).thenReturn(registrants);
+        when(userRepository.findAllById(Mockito.any())).thenAnswer(invocation -> {
+            List<User> found = new ArrayList<>();
+            for(Integer id : invocation.<Iterable<Integer>>getArgument(0)){
+                for(User user : users){
+                    if(user.getUserId().equals(id)){
+                        found.add(user);
+                    }
+                }
+            }
+            return found;
+        });
+    }
 
-    //raffle() tests
+    //helper method, the winner ids written by the raffle
+    private int[] savedWinnerIds() {
+        ArgumentCaptor<int[]> winnerIds = ArgumentCaptor.forClass(int[].class);
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), winnerIds.capture(), Mockito.any(int[].class), Mockito.any());
+        return winnerIds.getValue();
+    }
 
-    //helper method
-    public void setUserDetails(User user) {
-        user.setZonesWon(new ArrayList<Zones>());
-        user.setPreRegisteredEvents(new ArrayList<Event>());
-        user.setPreRegisteredZones(new ArrayList<Zones>());
+    private static User getUser(int userId) {
+        User user = new User();
+        user.setUserId(userId);
+        return user;
     }
 
     @Test
     void raffleFirstRound_MoreTicketsThanUsers_Successful() {
-        //set event
-        Event event = new Event();
-        event.setEventId(1);
-        event.setRaffleRound(0);
-
-        //set user
-        //set user
-        User user1 = new User();
-        setUserDetails(user1);
-        user1.setUserId(1);
-
-        User user2 = new User();
-        setUserDetails(user2);
-        user2.setUserId(2);
-
-        User user3 = new User();
-        setUserDetails(user3);
-        user3.setUserId(3);
-
         //set zone
-        Zones zone = new Zones();
-        zone.setWinnerList(new ArrayList<>());
-        zone.setEvent(event);
-        zone.setTicketsLeft(4);
-
-        //put a list of pre-registered users for event and zone
-        ArrayList<User> userList4Zone = new ArrayList<>();
-        userList4Zone.add(user1);
-        userList4Zone.add(user2);
-        userList4Zone.add(user3);
-
-        ArrayList<User> userList4Event = userList4Zone;
+        Zones zone = getZone(0, 4);
 
-        zone.setPreRegisteredUsers4Zone(userList4Zone);
-        event.setPreRegisteredUsers4Event(userList4Event);
+        //set users pre-registered for the zone
+        User user1 = getUser(1);
+        User user2 = getUser(2);
+        User user3 = getUser(3);
+        setRegistrants(user1, user2, user3);
 
         ArrayList<User> expectedWinnersList = new ArrayList<>(Arrays.asList(user1, user2, user3));
 
         //Act
-        zoneServiceImpl.raffle(zone);
+        List<User> winners = zoneServiceImpl.raffle(zone);
 
         //Assert
-        //put in HashSet because the arrangement of getWinnerList is randomized everytime the program runs.
-        assertEquals(new HashSet<User>(expectedWinnersList), new HashSet<User>(zone.getWinnerList()));
-        assertEquals(new ArrayList<User>(), zone.getPreRegisteredUsers4Zone());
-
-        //for users
-        assertEquals(new ArrayList<Event>(), user1.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user1.getPreRegisteredZones());
-
-        assertEquals(new ArrayList<Event>(), user2.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user2.getPreRegisteredZones());
-
-        assertEquals(new ArrayList<Event>(), user3.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user3.getPreRegisteredZones());
-
-        assertEquals(new ArrayList<Zones>(Arrays.asList(zone)), user1.getZonesWon());
-        //assertEquals(expectedWinnersList, zone.getWinnerList());
-        
+        //put in HashSet because the arrangement of the winners is randomized everytime the program runs.
+        assertEquals(new HashSet<User>(expectedWinnersList), new HashSet<User>(winners));
+        assertArrayEquals(new int[]{1, 2, 3}, savedWinnerIds());
+        //first round, nobody loses a seat
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.any(int[].class), Mockito.eq(new int[0]), Mockito.any());
+        verify(raffleBatchRepository, Mockito.never()).findWinners(Mockito.any());
     }
 
     @Test
     void raffleFirstRound_LessTicketsThanUsers_Successful() {
-        //set event
-        Event event = new Event();
-        event.setEventId(1);
-        event.setRaffleRound(0);
+        //set zone
+        Zones zone = getZone(0, 2);
 
-        //set user
-        User user1 = new User();
-        setUserDetails(user1);
-        user1.setUserId(1);
+        //set users pre-registered for the zone
+        setRegistrants(getUser(1), getUser(2), getUser(3));
 
-        User user2 = new User();
-        setUserDetails(user2);
-        user2.setUserId(2);
+        //Act
+        List<User> winners = zoneServiceImpl.raffle(zone);
 
-        User user3 = new User();
-        setUserDetails(user3);
-        user3.setUserId(3);
-        //set zone
-        Zones zone = new Zones();
-        zone.setWinnerList(new ArrayList<>());
-        zone.setEvent(event);
-        zone.setTicketsLeft(2);
+        //Assert
+        //check the size instead of the actual array since we don't know who is going to win
+        assertEquals(2, winners.size());
+        assertEquals(2, savedWinnerIds().length);
+    }
 
-        //put a list of pre-registered users for event and zone
-        ArrayList<User> userList4Zone = new ArrayList<>();
-        userList4Zone.add(user1);
-        userList4Zone.add(user2);
-        userList4Zone.add(user3);
+    @Test
+    void raffleSecondRound_MoreTicketsThanUsers_Successful() {
+        //set zone
+        Zones zone = getZone(1, 7);
 
-        ArrayList<User> userList4Event = userList4Zone;
+        //set users pre-registered for the zone
+        User user1 = getUser(1);
+        User user2 = getUser(2);
+        User user3 = getUser(3);
+        setRegistrants(user1, user2, user3);
 
-        zone.setPreRegisteredUsers4Zone(userList4Zone);
-        event.setPreRegisteredUsers4Event(userList4Event);
+        //user who won in the first raffle and let their purchase window run out
+        when(raffleBatchRepository.findWinners(1)).thenReturn(List.of(4));
 
+        ArrayList<User> expectedWinnersList = new ArrayList<>(Arrays.asList(user1, user2, user3));
 
         //Act
-        zoneServiceImpl.raffle(zone);
+        List<User> winners = zoneServiceImpl.raffle(zone);
 
         //Assert
-        //check the size instead of the actual array since we don't know who is going to win
-        assertEquals(2, zone.getWinnerList().size());
-        assertEquals(1, zone.getPreRegisteredUsers4Zone().size());
+        //put in HashSet because the arrangement of the winners is randomized everytime the program runs.
+        assertEquals(new HashSet<User>(expectedWinnersList), new HashSet<User>(winners));
+        //check the previous winner lost their seat, as they should not be able to buy the ticket for the current raffle
+        //if they have won in the previous raffle
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.eq(new int[]{1, 2, 3}), Mockito.eq(new int[]{4}), Mockito.any());
+    }
 
-        //for users
-        assertEquals(new ArrayList<Event>(), user1.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user1.getPreRegisteredZones());
+    @Test
+    void raffleSecondRound_LessTicketsThanUsers_Successful() {
+        //set zone
+        Zones zone = getZone(1, 2);
 
-        assertEquals(new ArrayList<Event>(), user2.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user2.getPreRegisteredZones());
+        //set users pre-registered for the zone
+        setRegistrants(getUser(1), getUser(2), getUser(3));
 
-        assertEquals(new ArrayList<Event>(), user3.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user3.getPreRegisteredZones());
+        //user who won in the first raffle and let their purchase window run out
+        when(raffleBatchRepository.findWinners(1)).thenReturn(List.of(4));
 
-        //assertEquals(expectedWinnersList, zone.getWinnerList());
+        //Act
+        List<User> winners = zoneServiceImpl.raffle(zone);
 
-        
+        //Assert
+        //check the size instead of the actual array since we don't know who is going to win
+        assertEquals(2, winners.size());
+        //check the previous winner lost their seat
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.any(int[].class), Mockito.eq(new int[]{4}), Mockito.any());
+        assertEquals(2, savedWinnerIds().length);
     }
 
     @Test
-    void raffleSecondRound_MoreTicketsThanUsers_Successful() {
-        //set event
-        Event event = new Event();
-        event.setEventId(1);
-        event.setRaffleRound(1);
+    void raffle_ManyRegistrants_RaffledInDatabase() {
+        //set users who will come back as winners from the DB
+        User user1 = getUser(1);
+        User user2 = getUser(2);
 
-        //set user
-        User user1 = new User();
-        setUserDetails(user1);
-        user1.setUserId(1);
+        //set zone
+        Zones zone = getZone(1, 2);
 
-        User user2 = new User();
-        setUserDetails(user2);
-        user2.setUserId(2);
+        when(zoneRepository.countRegistrants(1)).thenReturn(100000L);
+        when(zoneRepository.raffleInDatabase(Mockito.eq(1), Mockito.eq(1), Mockito.eq(2), Mockito.anyLong(), Mockito.eq(true), Mockito.any())).thenReturn(List.of(1, 2));
+        when(userRepository.findAllById(List.of(1, 2))).thenReturn(List.of(user1, user2));
 
-        User user3 = new User();
-        setUserDetails(user3);
-        user3.setUserId(3);
+        //Act
+        List<User> winners = zoneServiceImpl.raffle(zone);
 
-        //user who won in the first raffle
-        User userPreviouslyWon = new User();
-        setUserDetails(userPreviouslyWon);
-        userPreviouslyWon.setUserId(4);
+        //Assert
+        assertEquals(List.of(user1, user2), winners);
+        //second round, so the previous winners who can't buy anymore are cleared as part of the raffle
+        verify(zoneRepository).raffleInDatabase(Mockito.eq(1), Mockito.eq(1), Mockito.eq(2), Mockito.anyLong(), Mockito.eq(true), Mockito.any());
+        //the registrants are never read into the JVM
+        verify(registrationRepository, Mockito.never()).findRegistrants(Mockito.any());
+        verify(raffleBatchRepository, Mockito.never()).saveWinners(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
 
+    @Test
+    void raffle_ForJob_ZoneRecordedWithItsWinners() {
         //set zone
-        Zones zone = new Zones();
-        zone.setWinnerList(new ArrayList<>());
-        zone.getWinnerList().add(userPreviouslyWon);
+        when(raffleBatchRepository.findZoneInfo(1)).thenReturn(Optional.of(new ZoneRaffleInfo(1, "Zone 1", 5, 1, "Event 1", 0)));
 
-        zone.setEvent(event);
-        zone.setTicketsLeft(7);
-
-        zone.getWinnerList().add(userPreviouslyWon);
+        //set users pre-registered for the zone
+        setRegistrants(getUser(1), getUser(2));
 
-        //put a list of pre-registered users for event and zone
-        ArrayList<User> userList4Zone = new ArrayList<>();
-        userList4Zone.add(user1);
-        userList4Zone.add(user2);
-        userList4Zone.add(user3);
+        //Act
+        zoneServiceImpl.raffle(Integer.valueOf(1), 7);
 
-        ArrayList<User> userList4Event = userList4Zone;
+        //Assert
+        //the winners are written inside the transaction that records the zone as done by job 7
+        verify(raffleBatchRepository).completeZone(Mockito.eq(7), Mockito.eq(1), Mockito.any());
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.eq(new int[]{1, 2}), Mockito.eq(new int[0]), Mockito.any());
+    }
 
-        zone.setPreRegisteredUsers4Zone(userList4Zone);
-        event.setPreRegisteredUsers4Event(userList4Event);
+    @Test
+    void raffle_Winners_SavedInOneBatch() {
+        //set zone
+        Zones zone = getZone(0, 5);
 
-        ArrayList<User> expectedWinnersList = new ArrayList<>(Arrays.asList(user1, user2, user3));
+        //set users pre-registered for the zone
+        setRegistrants(getUser(1), getUser(2));
 
         //Act
         zoneServiceImpl.raffle(zone);
 
         //Assert
-        //put in HashSet because the arrangement of getWinnerList is randomized everytime the program runs.
-        assertEquals(new HashSet<User>(expectedWinnersList), new HashSet<User>(zone.getWinnerList()));
-        assertEquals(0, zone.getPreRegisteredUsers4Zone().size());
-
-        //for users
-        assertEquals(new ArrayList<Event>(), user1.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user1.getPreRegisteredZones());
+        //both users win, they are written in a single batch and no entity is saved one by one
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.eq(new int[]{1, 2}), Mockito.eq(new int[0]), Mockito.any());
+        verify(userRepository, Mockito.never()).save(Mockito.any());
+        verify(zoneRepository, Mockito.never()).save(Mockito.any());
+        verify(eventRepository, Mockito.never()).save(Mockito.any());
+        verify(registrationRepository, Mockito.never()).save(Mockito.any());
+    }
 
-        assertEquals(new ArrayList<Event>(), user2.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user2.getPreRegisteredZones());
+    @Test
+    void raffleSecondRound_OutstandingWinner_KeepsSeat() {
+        //set zone, 2 seats are still unsold
+        Zones zone = getZone(1, 2);
 
-        assertEquals(new ArrayList<Event>(), user3.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user3.getPreRegisteredZones());
+        //users still waiting for a seat
+        setRegistrants(getUser(1), getUser(2));
 
+        //user 4 won in the first raffle and can still buy their ticket,
+        //user 5 won in the first raffle but let their purchase window run out
+        when(raffleBatchRepository.findWinners(1)).thenReturn(List.of(4, 5));
+        when(raffleBatchRepository.findOutstandingWinners(1)).thenReturn(Set.of(4));
 
-        assertEquals(new ArrayList<Zones>(Arrays.asList(zone)), user1.getZonesWon());
-        //assertEquals(expectedWinnersList, zone.getWinnerList());
+        //Act
+        List<User> newWinners = zoneServiceImpl.raffle(zone);
 
-        //check if zonesWon has been removed, as the previously won user should not be able to buy the ticket for the current raffle
-        //if they have won in the previous raffle
-        assertEquals(new ArrayList<Zones>(), userPreviouslyWon.getZonesWon());
-        
+        //Assert
+        //only the expired seat is raffled again
+        assertEquals(1, newWinners.size());
+        assertEquals(1, savedWinnerIds().length);
+        //only the expired winner's seat is forfeited, the kept winner is left alone
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.any(int[].class), Mockito.eq(new int[]{5}), Mockito.any());
     }
 
     @Test
-    void raffleSecondRound_LessTicketsThanUsers_Successful() {
-        //set event
-        Event event = new Event();
-        event.setEventId(1);
-        event.setRaffleRound(1);
+    void raffleSecondRound_AllSeatsHeld_NothingDrawn() {
+        //set zone, 1 seat is still unsold
+        Zones zone = getZone(1, 1);
 
-        //set user
-        User user1 = new User();
-        setUserDetails(user1);
-        user1.setUserId(1);
+        //users still waiting for a seat
+        setRegistrants(getUser(1), getUser(2));
 
-        User user2 = new User();
-        setUserDetails(user2);
-        user2.setUserId(2);
+        //user 4 won in the first raffle and can still buy the last seat,
+        //user 5 won in the first raffle but let their purchase window run out
+        when(raffleBatchRepository.findWinners(1)).thenReturn(List.of(4, 5));
+        when(raffleBatchRepository.findOutstandingWinners(1)).thenReturn(Set.of(4));
 
-        User user3 = new User();
-        setUserDetails(user3);
-        user3.setUserId(3);
+        //Act
+        List<User> newWinners = zoneServiceImpl.raffle(zone);
 
-        //user who won in the first raffle
-        User userPreviouslyWon = new User();
-        setUserDetails(userPreviouslyWon);
-        userPreviouslyWon.setUserId(4);
+        //Assert
+        assertEquals(0, newWinners.size());
+        //only the expired winner's seat is forfeited
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.eq(new int[0]), Mockito.eq(new int[]{5}), Mockito.any());
+        //no seat is left to draw, so the registrants are never looked at
+        verify(registrationRepository, Mockito.never()).findNextByRank(Mockito.any(), Mockito.anyInt());
+        verify(registrationRepository, Mockito.never()).findRegistrants(Mockito.any());
+        verify(raffleBatchRepository, Mockito.never()).scanRegistrants(Mockito.any(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any());
+    }
 
+    @Test
+    void raffle_RankedZone_TakesNextByRank() {
         //set zone
-        Zones zone = new Zones();
-        zone.setWinnerList(new ArrayList<>());
-        zone.getWinnerList().add(userPreviouslyWon);
+        Zones zone = getZone(0, 2);
 
-        zone.setEvent(event);
-        zone.setTicketsLeft(2);
+        //set users pre-registered for the zone
+        User user1 = getUser(1);
+        User user2 = getUser(2);
+        User user3 = getUser(3);
+        setRegistrants(user1, user2, user3);
 
-        zone.getWinnerList().add(userPreviouslyWon);
+        //the zone was ranked when the event closed, users 3 and 1 come first
+        when(registrationRepository.findNextByRank(1, 2)).thenReturn(List.of(3, 1));
 
-        //put a list of pre-registered users for event and zone
-        ArrayList<User> userList4Zone = new ArrayList<>();
-        userList4Zone.add(user1);
-        userList4Zone.add(user2);
-        userList4Zone.add(user3);
-
-        ArrayList<User> userList4Event = userList4Zone;
+        //Act
+        List<User> winners = zoneServiceImpl.raffle(zone);
 
-        zone.setPreRegisteredUsers4Zone(userList4Zone);
-        event.setPreRegisteredUsers4Event(userList4Event);
+        //Assert
+        assertEquals(new HashSet<User>(Arrays.asList(user1, user3)), new HashSet<User>(winners));
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.eq(new int[]{1, 3}), Mockito.eq(new int[0]), Mockito.any());
+        //the registrants don't have to be read at all
+        verify(registrationRepository, Mockito.never()).findRegistrants(Mockito.any());
+    }
 
+    @Test
+    void raffleById_BigZone_StreamedWithoutLoadingTheZone() {
+        //set users who will come back as winners from the DB
+        User user1 = getUser(1);
+        User user3 = getUser(3);
+
+        //a zone with 2 seats, big enough to be streamed but not raffled in the DB
+        ZoneRaffleInfo info = new ZoneRaffleInfo(1, "Zone 1", 2, 1, "Event 1", 0);
+        when(zoneRepository.countRegistrants(1)).thenReturn(10000L);
+        when(raffleBatchRepository.findZoneInfo(1)).thenReturn(Optional.of(info));
+        when(registrationRepository.findNextByRank(1, 2)).thenReturn(new ArrayList<>());
+        //registrants 1, 2 and 3 come back on the first page, the next page is empty
+        when(raffleBatchRepository.scanRegistrants(Mockito.eq(1), Mockito.anyInt(), Mockito.anyInt(), Mockito.any()))
+                .thenAnswer(invocation -> {
+                    int after = invocation.getArgument(1);
+                    if(after >= 3){
+                        return after;
+                    }
+                    ObjDoubleConsumer<Integer> registrant = invocation.getArgument(3);
+                    registrant.accept(1, 1.0);
+                    registrant.accept(2, 0.0);
+                    registrant.accept(3, 1.0);
+                    return 3;
+                });
+        when(userRepository.findAllById(List.of(1, 3))).thenReturn(List.of(user1, user3));
 
         //Act
-        zoneServiceImpl.raffle(zone);
+        List<User> winners = zoneServiceImpl.raffle(Integer.valueOf(1));
 
         //Assert
-        //check the size instead of the actual array since we don't know who is going to win
-        assertEquals(2, zone.getWinnerList().size());
-        assertEquals(1, zone.getPreRegisteredUsers4Zone().size());
-
-
-        //for users
-        assertEquals(new ArrayList<Event>(), user1.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user1.getPreRegisteredZones());
+        //user 2 has no weight, so users 1 and 3 take the 2 seats
+        assertEquals(List.of(user1, user3), winners);
+        verify(raffleBatchRepository).saveWinners(Mockito.eq(1), Mockito.eq(1), Mockito.eq(new int[]{1, 3}), Mockito.eq(new int[0]), Mockito.any());
+        //the zone entity (and its registrants) is never loaded
+        verify(zoneRepository, Mockito.never()).findById(Mockito.any());
+    }
 
-        assertEquals(new ArrayList<Event>(), user2.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user2.getPreRegisteredZones());
+    @Test
+    void joinRaffle_WriteBehind_QueuedWithoutLoadingEvent() {
+        //Arrange
+        PreRegisterRequest registerRequest = new PreRegisterRequest("test@gmail.com");
+        when(registrationIntakeService.submit(registerRequest, 1, 2)).thenReturn("Received your pre-registration");
+        registrationConfig.setWriteBehind(true);
 
-        assertEquals(new ArrayList<Event>(), user3.getPreRegisteredEvents());
-        assertEquals(new ArrayList<Zones>(), user3.getPreRegisteredZones());
+        //Act
+        String result;
+        try {
+            result = zoneServiceImpl.joinRaffle(registerRequest, 1, 2);
+        } finally {
+            registrationConfig.setWriteBehind(false);
+        }
 
-        //check if zonesWon has been removed, as the previously won user should not be able to buy the ticket for the current raffle
-        //if they have won in the previous raffle
-        assertEquals(new ArrayList<Zones>(), userPreviouslyWon.getZonesWon());
-        
+        //Assert
+        assertEquals("Received your pre-registration", result);
+        verify(eventRepository, Mockito.never()).findById(Mockito.any());
+        verify(eventRepository, Mockito.never()).save(Mockito.any());
     }
-
-
 }
-